@@ -0,0 +1,107 @@
+package com.example.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * RateLimitProperties holds the per-endpoint rate limits, bound from the "ratelimit" properties.
+ * Endpoints are keyed by the name of their handler method on the controller, for example
+ * ratelimit.endpoints.postLogin.per-ip.capacity=20.
+ */
+@Component
+@ConfigurationProperties("ratelimit")
+public class RateLimitProperties {
+    /**
+     * Whether rate limiting is applied at all.
+     */
+    private boolean enabled = true;
+    /**
+     * How long a bucket may sit full and unused before it is evicted.
+     */
+    private long idleEvictionMs = 300000;
+    /**
+     * The limits of each rate limited endpoint, keyed by handler method name.
+     */
+    private Map<String, Endpoint> endpoints = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getIdleEvictionMs() {
+        return idleEvictionMs;
+    }
+
+    public void setIdleEvictionMs(long idleEvictionMs) {
+        this.idleEvictionMs = idleEvictionMs;
+    }
+
+    public Map<String, Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * The limits of one endpoint. Either limit may be left unset.
+     */
+    public static class Endpoint {
+        /**
+         * The limit applied per client IP address.
+         */
+        private Limit perIp;
+        /**
+         * The limit applied per account named in the request body.
+         */
+        private Limit perAccount;
+
+        public Limit getPerIp() {
+            return perIp;
+        }
+
+        public void setPerIp(Limit perIp) {
+            this.perIp = perIp;
+        }
+
+        public Limit getPerAccount() {
+            return perAccount;
+        }
+
+        public void setPerAccount(Limit perAccount) {
+            this.perAccount = perAccount;
+        }
+    }
+
+    /**
+     * A token bucket limit: up to capacity requests in a burst, refilled at refillPerSecond.
+     */
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig enables the scheduled background tasks of the application, such as message archival.
+ * It lives outside of SocialMediaApp so that the application class itself stays untouched.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
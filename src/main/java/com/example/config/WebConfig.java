@@ -0,0 +1,47 @@
+package com.example.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.interceptor.AuditInterceptor;
+import com.example.interceptor.ConcurrencyLimitInterceptor;
+import com.example.interceptor.RateLimitInterceptor;
+
+/**
+ * WebConfig registers the interceptors that run in front of the controllers.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private AuditInterceptor auditInterceptor;
+    private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    /**
+     * Constructs a WebConfig with the given interceptors.
+     * 
+     * @param auditInterceptor the interceptor recording mutating calls to the audit log
+     * @param concurrencyLimitInterceptor the interceptor shedding load beyond the adaptive concurrency limit
+     * @param rateLimitInterceptor the interceptor applying per-IP rate limits
+     */
+    @Autowired
+    public WebConfig(AuditInterceptor auditInterceptor, ConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+                     RateLimitInterceptor rateLimitInterceptor){
+        this.auditInterceptor = auditInterceptor;
+        this.concurrencyLimitInterceptor = concurrencyLimitInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    /**
+     * Auditing is registered first, so that its completion callback also runs for requests the later
+     * interceptors reject. Load shedding runs next, so that an overloaded service rejects requests before doing
+     * any other work.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(auditInterceptor);
+        registry.addInterceptor(concurrencyLimitInterceptor);
+        registry.addInterceptor(rateLimitInterceptor);
+    }
+}
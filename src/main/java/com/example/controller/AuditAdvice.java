@@ -0,0 +1,54 @@
+package com.example.controller;
+
+import java.lang.reflect.Type;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.example.interceptor.AuditInterceptor;
+import com.example.service.AuditLog;
+
+/**
+ * The AuditAdvice class notes the account an audited call acts as or on, once its request body has been read,
+ * for the AuditInterceptor to record. It runs before the per-account rate limits, so calls they reject are
+ * attributed as well.
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AuditAdvice extends RequestBodyAdviceAdapter {
+    private AuditLog auditLog;
+
+    /**
+     * Constructs an AuditAdvice with the given AuditLog.
+     * 
+     * @param auditLog the log that decides which calls are audited
+     */
+    @Autowired
+    public AuditAdvice(AuditLog auditLog){
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType){
+        return methodParameter.getMethod() != null && auditLog.action(methodParameter.getMethod().getName()) >= 0;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType){
+        String principal = RateLimitAdvice.accountKey(body);
+        if(principal != null){
+            RequestContextHolder.currentRequestAttributes().setAttribute(AuditInterceptor.PRINCIPAL_ATTRIBUTE, principal,
+                    RequestAttributes.SCOPE_REQUEST);
+        }
+        return body;
+    }
+}
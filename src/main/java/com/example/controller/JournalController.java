@@ -0,0 +1,51 @@
+package com.example.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.dto.JournalBatch;
+import com.example.exception.InvalidJournalOffsetException;
+import com.example.service.*;
+
+/**
+ * The JournalController class is a REST controller that lets downstream consumers tail the journal of
+ * message changes by offset.
+ */
+@RestController
+@RequestMapping("/journal")
+public class JournalController {
+    private MessageJournalService messageJournalService;
+
+    /**
+     * Constructs a JournalController with the given MessageJournalService.
+     * 
+     * @param messageJournalService the service that reads the journal
+     */
+    @Autowired
+    public JournalController(MessageJournalService messageJournalService) {
+        this.messageJournalService = messageJournalService;
+    }
+
+    /**
+     * Reads the journal of message changes from an offset.
+     * 
+     * @param offset the offset to read from; 0 for the start of a new journal, or the nextOffset of a previous batch
+     * @param limit the maximum number of records to return
+     * @return a ResponseEntity containing the records and the offset to continue from, 404 if the journal is disabled,
+     *         410 if the offset has been removed by retention, or 400 if the offset does not start a record
+     */
+    @GetMapping
+    public ResponseEntity<JournalBatch> getJournal(@RequestParam(value = "offset", defaultValue = "0") long offset,
+                                                   @RequestParam(value = "limit", defaultValue = "100") int limit){
+        if(!messageJournalService.isEnabled()){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        try{
+            return ResponseEntity.ok(messageJournalService.read(offset, limit));
+        }catch(InvalidJournalOffsetException e){
+            return ResponseEntity.status(e.isExpired() ? HttpStatus.GONE : HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.controller;
+
+import java.lang.reflect.Type;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.example.entity.*;
+import com.example.exception.RateLimitExceededException;
+import com.example.service.RateLimiter;
+
+/**
+ * The RateLimitAdvice class applies per-account rate limits once a request body has been read, and maps
+ * every exhausted rate limit to a 429 Too Many Requests response with a Retry-After header.
+ */
+@RestControllerAdvice
+public class RateLimitAdvice extends RequestBodyAdviceAdapter {
+    private RateLimiter rateLimiter;
+
+    /**
+     * Constructs a RateLimitAdvice with the given RateLimiter.
+     * 
+     * @param rateLimiter the limiter holding the per-account buckets
+     */
+    @Autowired
+    public RateLimitAdvice(RateLimiter rateLimiter){
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType){
+        return methodParameter.getMethod() != null && rateLimiter.limitsAccounts(methodParameter.getMethod().getName());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType){
+        rateLimiter.acquireForAccount(parameter.getMethod().getName(), accountKey(body));
+        return body;
+    }
+
+    /**
+     * Maps an exhausted rate limit to a 429 response.
+     * 
+     * @param e the exception raised by the rate limiter
+     * @return a ResponseEntity with a 429 Too Many Requests status code and a Retry-After header
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Void> handleRateLimitExceeded(RateLimitExceededException e){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    /**
+     * Returns the account a request body acts as: the username of an Account, or the postedBy of a Message.
+     */
+    static String accountKey(Object body){
+        if(body instanceof Account){
+            return ((Account) body).getUsername();
+        }
+        if(body instanceof Message && ((Message) body).getPostedBy() != null){
+            return String.valueOf(((Message) body).getPostedBy());
+        }
+        return null;
+    }
+}
@@ -1,12 +1,18 @@
 package com.example.controller;
 
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.dto.AccountActivity;
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
 import com.example.entity.*;
 import com.example.exception.*;
 import com.example.service.*;
@@ -17,19 +23,35 @@ import com.example.service.*;
  */
 @RestController
 public class SocialMediaController {
+    /**
+     * The value of the expand parameter that attaches its author to each message.
+     */
+    private static final String EXPAND_AUTHOR = "author";
+
     private AccountService accountService;
     private MessageService messageService;
+    private MessageStreamService messageStreamService;
+    private MessageResponseCache responseCache;
+    private MessageActivityService activityService;
 
     /**
-     * Constructs a SocialMediaController with the given AccountService and MessageService.
+     * Constructs a SocialMediaController with the given AccountService, MessageService, MessageStreamService,
+     * MessageResponseCache and MessageActivityService.
      * 
      * @param accountService the service to handle account-related operations
      * @param messageService the service to handle message-related operations
+     * @param messageStreamService the service to stream message changes to subscribers
+     * @param responseCache the cache of the serialized message list
+     * @param activityService the service to report the posting counts of accounts
      */
     @Autowired
-    public SocialMediaController(AccountService accountService, MessageService messageService) {
+    public SocialMediaController(AccountService accountService, MessageService messageService, MessageStreamService messageStreamService,
+                                 MessageResponseCache responseCache, MessageActivityService activityService) {
         this.accountService = accountService;
-        this.messageService = new MessageService(messageService.getMessageRepository(), accountService.getAccountRepository());
+        this.messageService = messageService;
+        this.messageStreamService = messageStreamService;
+        this.responseCache = responseCache;
+        this.activityService = activityService;
     }
 
     /**
@@ -86,24 +108,97 @@ public class SocialMediaController {
     }
 
     /**
-     * Retrieves all messages.
+     * Retrieves all messages. The serialized list is cached until the next change to the messages, and
+     * concurrent callers share a single rebuild of it.
      * 
      * @return a ResponseEntity containing a list of all messages
      */
+    @GetMapping(value = "/messages", params = {"!ids", "!since", "!until", "!expand", "!fields"})
+    public ResponseEntity<byte[]> getAllMessages(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.get(messageService::getAllMessages));
+    }
+
+    /**
+     * Retrieves all messages, optionally restricted to a time range, or the messages with the given IDs.
+     * 
+     * @param ids the IDs of the messages to retrieve, if only those are wanted
+     * @param since the inclusive lower bound on timePostedEpoch, if any
+     * @param until the exclusive upper bound on timePostedEpoch, if any
+     * @param expand author to include the author of each message, if wanted
+     * @param fields the comma-separated names of the only fields to return, if not all of them
+     * @return a ResponseEntity containing a list of the messages, in the order of ids when given,
+     *         or a ResponseEntity with a 400 Bad Request status code if too many ids are given,
+     *         expand names something that cannot be expanded, or fields names an unknown field
+     *         or is combined with ids or expand
+     */
     @GetMapping("/messages")
-    public ResponseEntity<List<Message>> getMessages(){
-        return ResponseEntity.ok(messageService.getAllMessages());
+    public ResponseEntity<List<MessageView>> getMessages(@RequestParam(value = "ids", required = false) List<Integer> ids,
+                                                         @RequestParam(value = "since", required = false) Long since,
+                                                         @RequestParam(value = "until", required = false) Long until,
+                                                         @RequestParam(value = "expand", required = false) String expand,
+                                                         @RequestParam(value = "fields", required = false) String fields){
+        if(fields != null){
+            Set<MessageField> selected = MessageField.parse(fields);
+            if(selected == null || ids != null || expand != null){
+                return ResponseEntity.status(400).body(null);
+            }
+            return ResponseEntity.ok(messageService.getMessageFields(selected, null, since, until));
+        }
+        if(ids != null){
+            return postMessageLookup(ids, expand);
+        }
+        if(!isExpandable(expand)){
+            return ResponseEntity.status(400).body(null);
+        }
+        return ResponseEntity.ok(expand(messageService.getAllMessages(since, until), expand));
+    }
+
+    /**
+     * Retrieves the messages with the given IDs. This is the variant of GET /messages?ids= for lists too long
+     * to fit in a URL.
+     * 
+     * @param ids the IDs of the messages to retrieve
+     * @param expand author to include the author of each message, if wanted
+     * @return a ResponseEntity containing a list of the messages found, in the order of ids,
+     *         or a ResponseEntity with a 400 Bad Request status code if too many ids are given
+     *         or expand names something that cannot be expanded
+     */
+    @PostMapping("/messages/lookup")
+    public ResponseEntity<List<MessageView>> postMessageLookup(@RequestBody List<Integer> ids,
+                                                               @RequestParam(value = "expand", required = false) String expand){
+        if(ids.size() > MessageService.MAX_MESSAGES_PER_LOOKUP || ids.contains(null) || !isExpandable(expand)){
+            return ResponseEntity.status(400).body(null);
+        }
+        return ResponseEntity.ok(expand(messageService.getMessages(ids), expand));
+    }
+
+    /**
+     * Streams every message change as Server-Sent Events.
+     * 
+     * @param lastEventId the ID of the last event the client saw when resuming, if any
+     * @return an SseEmitter that receives created, updated and deleted events, after a reset event if changes
+     *         since lastEventId can no longer be replayed
+     */
+    @GetMapping(value = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        return messageStreamService.subscribe(null, lastEventId);
     }
 
     /**
      * Retrieves a message by its ID.
      * 
      * @param messageId the ID of the message to retrieve
-     * @return a ResponseEntity containing the retrieved Message
+     * @return a ResponseEntity containing the retrieved Message, with its version as the ETag
      */
     @GetMapping("/messages/{messageId}")
     public ResponseEntity<Message> getMessaageById(@PathVariable("messageId") int messageId){
-        return ResponseEntity.ok(messageService.getMessage(messageId));
+        Message message = messageService.getMessage(messageId);
+        if(message == null || message.getVersion() == null){
+            return ResponseEntity.ok(message);
+        }
+        return ResponseEntity.ok().eTag(Integer.toString(message.getVersion())).body(message);
     }
 
     /**
@@ -119,31 +214,131 @@ public class SocialMediaController {
     }
 
     /**
-     * Updates a message with new text.
+     * Updates a message with new text, if it still matches the ETag given in If-Match.
      * 
      * @param messageId the ID of the message to update
      * @param newText the new text to update the message with
-     * @return a ResponseEntity containing 1 if the update was successful, 
-     *         or a ResponseEntity with a 400 Bad Request status code if the update fails
+     * @param ifMatch the ETag of the version the edit is based on, or * or nothing to edit whatever the version
+     * @return a ResponseEntity containing 1 and the new ETag if the update was successful, 
+     *         a ResponseEntity with a 400 Bad Request status code if the update fails,
+     *         412 Precondition Failed if the message no longer matches If-Match,
+     *         or 409 Conflict if an edit without If-Match lost a race with another edit or the message is archived
      */
     @PatchMapping("/messages/{messageId}")
-    public ResponseEntity<Integer> patchMessage(@PathVariable("messageId") int messageId, @RequestBody Message newText){
+    public ResponseEntity<Integer> patchMessage(@PathVariable("messageId") int messageId, @RequestBody Message newText,
+                                                @RequestHeader(value = "If-Match", required = false) String ifMatch){
+        Integer expectedVersion = null;
+        if(ifMatch != null && !ifMatch.trim().equals("*")){
+            expectedVersion = parseETag(ifMatch);
+            if(expectedVersion == null){
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(null);
+            }
+        }
         try {
-            messageService.updateMessage(messageId, newText);
-            return ResponseEntity.ok(1);
+            Message updated = messageService.updateMessage(messageId, newText, expectedVersion);
+            return ResponseEntity.ok().eTag(Integer.toString(updated.getVersion())).body(1);
         } catch (InvalidMessageException e) {
             return ResponseEntity.status(400).body(null);
+        } catch (MessageVersionConflictException e) {
+            return ResponseEntity.status(e.isPreconditionFailed() ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).body(null);
+        } catch (ArchivedMessageException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         }
     }
 
     /**
-     * Retrieves all messages for a specific account.
+     * Retrieves all messages for a specific account, optionally restricted to a time range.
      * 
      * @param accountId the ID of the account to retrieve messages for
-     * @return a ResponseEntity containing a list of messages for the specified account
+     * @param since the inclusive lower bound on timePostedEpoch, if any
+     * @param until the exclusive upper bound on timePostedEpoch, if any
+     * @param expand author to include the author of each message, if wanted
+     * @param fields the comma-separated names of the only fields to return, if not all of them
+     * @return a ResponseEntity containing a list of messages for the specified account within the range,
+     *         or a ResponseEntity with a 400 Bad Request status code if expand names something that cannot be expanded,
+     *         or fields names an unknown field or is combined with expand
      */
     @GetMapping("/accounts/{accountId}/messages")
-    public ResponseEntity<List<Message>> getMessagesById(@PathVariable("accountId") int accountId){
-        return ResponseEntity.ok(messageService.getAllMessagesById(accountId));
-    } 
+    public ResponseEntity<List<MessageView>> getMessagesById(@PathVariable("accountId") int accountId,
+                                                         @RequestParam(value = "since", required = false) Long since,
+                                                         @RequestParam(value = "until", required = false) Long until,
+                                                         @RequestParam(value = "expand", required = false) String expand,
+                                                         @RequestParam(value = "fields", required = false) String fields){
+        if(fields != null){
+            Set<MessageField> selected = MessageField.parse(fields);
+            if(selected == null || expand != null){
+                return ResponseEntity.status(400).body(null);
+            }
+            return ResponseEntity.ok(messageService.getMessageFields(selected, accountId, since, until));
+        }
+        if(!isExpandable(expand)){
+            return ResponseEntity.status(400).body(null);
+        }
+        return ResponseEntity.ok(expand(messageService.getAllMessagesById(accountId, since, until), expand));
+    }
+
+    /**
+     * Deletes every message posted by a specific account, optionally restricted to a time range.
+     * 
+     * @param accountId the ID of the account whose messages are to be deleted
+     * @param since the inclusive lower bound on timePostedEpoch, if any
+     * @param until the exclusive upper bound on timePostedEpoch, if any
+     * @return a ResponseEntity containing the number of messages deleted
+     */
+    @DeleteMapping("/accounts/{accountId}/messages")
+    public ResponseEntity<Integer> deleteMessagesById(@PathVariable("accountId") int accountId,
+                                                      @RequestParam(value = "since", required = false) Long since,
+                                                      @RequestParam(value = "until", required = false) Long until){
+        return ResponseEntity.ok(messageService.deleteAllMessagesById(accountId, since, until));
+    }
+
+    /**
+     * Retrieves the posting histogram of a specific account.
+     * 
+     * @param accountId the ID of the account
+     * @return a ResponseEntity containing the account's message counts per UTC hour and day, oldest first, with
+     *         only the hours and days in which it has messages
+     */
+    @GetMapping("/accounts/{accountId}/activity")
+    public ResponseEntity<AccountActivity> getActivityById(@PathVariable("accountId") int accountId){
+        return ResponseEntity.ok(activityService.getActivity(accountId));
+    }
+
+    /**
+     * Streams the changes to the messages of a specific account as Server-Sent Events.
+     * 
+     * @param accountId the ID of the account to stream messages for
+     * @param lastEventId the ID of the last event the client saw when resuming, if any
+     * @return an SseEmitter that receives created, updated and deleted events for the account, after a reset event
+     *         if changes since lastEventId can no longer be replayed
+     */
+    @GetMapping(value = "/accounts/{accountId}/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessagesById(@PathVariable("accountId") int accountId,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        return messageStreamService.subscribe(accountId, lastEventId);
+    }
+
+    private static boolean isExpandable(String expand){
+        return expand == null || EXPAND_AUTHOR.equals(expand);
+    }
+
+    private List<MessageView> expand(List<MessageView> messages, String expand){
+        return EXPAND_AUTHOR.equals(expand) ? messageService.withAuthors(messages) : messages;
+    }
+
+    /**
+     * Reads the message version out of a single strong ETag, or returns null if it is not one. If-Match compares
+     * strongly, so a weak ETag never matches.
+     */
+    private static Integer parseETag(String eTag){
+        String value = eTag.trim();
+        if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")){
+            return null;
+        }
+        try{
+            return Integer.valueOf(value.substring(1, value.length() - 1));
+        }catch(NumberFormatException e){
+            return null;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package com.example.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.dto.PosterCount;
+import com.example.service.*;
+
+/**
+ * The StatsController class is a REST controller that exposes runtime statistics of the application
+ * for monitoring.
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+    private StatsService statsService;
+
+    /**
+     * Constructs a StatsController with the given StatsService.
+     * 
+     * @param statsService the service that collects the statistics
+     */
+    @Autowired
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    /**
+     * Retrieves the statistics of the second-level and query cache regions.
+     * 
+     * @return a ResponseEntity containing the statistics of each cache region, keyed by region name
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCacheStats(){
+        return ResponseEntity.ok(statsService.getCacheRegionStatistics());
+    }
+
+    /**
+     * Retrieves the counters of every rate limit.
+     * 
+     * @return a ResponseEntity containing the allowed and rejected counts of each rate limit
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Map<String, Map<String, Long>>> getRateLimitStats(){
+        return ResponseEntity.ok(statsService.getRateLimitStatistics());
+    }
+
+    /**
+     * Retrieves the adaptive concurrency limit and its rejection counts.
+     * 
+     * @return a ResponseEntity containing the current limit, the requests in flight and the shed request counts
+     */
+    @GetMapping("/concurrency")
+    public ResponseEntity<Map<String, Long>> getConcurrencyStats(){
+        return ResponseEntity.ok(statsService.getConcurrencyStatistics());
+    }
+
+    /**
+     * Retrieves the statistics of the off-heap message cache.
+     * 
+     * @return a ResponseEntity containing the hit, miss and eviction counts, the entry count and the allocated bytes
+     */
+    @GetMapping("/message-cache")
+    public ResponseEntity<Map<String, Long>> getMessageCacheStats(){
+        return ResponseEntity.ok(statsService.getMessageCacheStatistics());
+    }
+
+    /**
+     * Retrieves the counters of the message list response cache.
+     * 
+     * @return a ResponseEntity containing the cache generation and its hit, build and shared build counts
+     */
+    @GetMapping("/response-cache")
+    public ResponseEntity<Map<String, Long>> getResponseCacheStats(){
+        return ResponseEntity.ok(statsService.getResponseCacheStatistics());
+    }
+
+    /**
+     * Retrieves the counters of cross-node cache invalidation.
+     * 
+     * @return a ResponseEntity containing the published, received, dropped, applied and ignored invalidation counts
+     *         and the resync count
+     */
+    @GetMapping("/invalidation")
+    public ResponseEntity<Map<String, Long>> getInvalidationStats(){
+        return ResponseEntity.ok(statsService.getInvalidationStatistics());
+    }
+
+    /**
+     * Retrieves the counters of the purger of deleted messages.
+     * 
+     * @return a ResponseEntity containing the purged message, batch and deferred round counts
+     */
+    @GetMapping("/purge")
+    public ResponseEntity<Map<String, Long>> getPurgeStats(){
+        return ResponseEntity.ok(statsService.getPurgeStatistics());
+    }
+
+    /**
+     * Retrieves the counters of the audit log.
+     * 
+     * @return a ResponseEntity containing the published, written, dropped and pending record counts and the fsync count
+     */
+    @GetMapping("/audit")
+    public ResponseEntity<Map<String, Long>> getAuditStats(){
+        return ResponseEntity.ok(statsService.getAuditStatistics());
+    }
+
+    /**
+     * Retrieves the accounts that posted the most messages within a recent window.
+     * 
+     * @param window the window to count over: 1m, 1h or 24h
+     * @param limit the maximum number of accounts to return
+     * @return a ResponseEntity containing the most active accounts with their estimated post counts, or 400 if
+     *         the window is not tracked
+     */
+    @GetMapping("/top-posters")
+    public ResponseEntity<List<PosterCount>> getTopPosters(@RequestParam(value = "window", defaultValue = "1h") String window,
+                                                           @RequestParam(value = "limit", defaultValue = "10") int limit){
+        if(!statsService.isTopPostersWindow(window)){
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statsService.getTopPosters(window, limit));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.dto.TrendingTerm;
+import com.example.service.*;
+
+/**
+ * The TrendingController class is a REST controller that reports the terms and hashtags trending in recent
+ * messages.
+ */
+@RestController
+@RequestMapping("/trending")
+public class TrendingController {
+    private TrendingService trendingService;
+
+    /**
+     * Constructs a TrendingController with the given TrendingService.
+     * 
+     * @param trendingService the service that tracks trending terms
+     */
+    @Autowired
+    public TrendingController(TrendingService trendingService) {
+        this.trendingService = trendingService;
+    }
+
+    /**
+     * Retrieves the terms and hashtags used most in recent messages.
+     * 
+     * @param limit the maximum number of terms to return
+     * @return a ResponseEntity containing the trending terms with their scores, highest first
+     */
+    @GetMapping
+    public ResponseEntity<List<TrendingTerm>> getTrending(@RequestParam(value = "limit", defaultValue = "10") int limit){
+        return ResponseEntity.ok(trendingService.getTrending(limit));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * This is the posting histogram of an account: its message counts per hour and per day, in UTC, oldest first.
+ * Hours and days without messages are left out.
+ *
+ */
+public class AccountActivity {
+    private final int accountId;
+    private final List<ActivityBucket> hourly;
+    private final List<ActivityBucket> daily;
+
+    /**
+     * A constructor with all fields.
+     * @param accountId
+     * @param hourly
+     * @param daily
+     */
+    public AccountActivity(int accountId, List<ActivityBucket> hourly, List<ActivityBucket> daily) {
+        this.accountId = accountId;
+        this.hourly = hourly;
+        this.daily = daily;
+    }
+
+    /**
+     * @return the ID of the account
+     */
+    public int getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return the message counts per hour
+     */
+    public List<ActivityBucket> getHourly() {
+        return hourly;
+    }
+
+    /**
+     * @return the message counts per day
+     */
+    public List<ActivityBucket> getDaily() {
+        return daily;
+    }
+}
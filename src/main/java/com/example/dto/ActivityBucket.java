@@ -0,0 +1,35 @@
+package com.example.dto;
+
+/**
+ * This is the number of messages an account posted within one hour or day, as reported by
+ * GET /accounts/{accountId}/activity.
+ *
+ */
+public class ActivityBucket {
+    private final long start;
+    private final int count;
+
+    /**
+     * A constructor with all fields.
+     * @param start
+     * @param count
+     */
+    public ActivityBucket(long start, int count) {
+        this.start = start;
+        this.count = count;
+    }
+
+    /**
+     * @return the epoch second the bucket starts at
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the number of messages posted within the bucket
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.dto;
+
+/**
+ * This is the public part of an Account, attached to messages as their author when a list endpoint is asked to
+ * expand=author. It never carries the password.
+ *
+ */
+public class AuthorView {
+    private final int accountId;
+    private final String username;
+
+    /**
+     * A constructor with all fields, used by the projection query.
+     * @param accountId
+     * @param username
+     */
+    public AuthorView(int accountId, String username) {
+        this.accountId = accountId;
+        this.username = username;
+    }
+
+    /**
+     * @return accountId
+     */
+    public int getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return username
+     */
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.dto;
+
+/**
+ * This is a MessageView together with the author who posted it. It serializes to the JSON of a Message with an
+ * added author object.
+ *
+ */
+public class AuthoredMessageView extends MessageView {
+    private final AuthorView author;
+
+    /**
+     * A constructor from a message and its author.
+     * @param message
+     * @param author the author, or null if the account that posted the message no longer exists
+     */
+    public AuthoredMessageView(MessageView message, AuthorView author) {
+        super(message.getMessageId(), message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch(),
+              message.getVersion());
+        this.author = author;
+    }
+
+    /**
+     * @return author
+     */
+    public AuthorView getAuthor() {
+        return author;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * This is a batch of records read from the MessageJournal, along with the offset a consumer should
+ * ask for next and the range of offsets currently retained.
+ *
+ */
+public class JournalBatch {
+    private final long startOffset;
+    private final long endOffset;
+    private final long nextOffset;
+    private final List<JournalRecord> records;
+
+    /**
+     * A constructor with all fields.
+     * @param startOffset
+     * @param endOffset
+     * @param nextOffset
+     * @param records
+     */
+    public JournalBatch(long startOffset, long endOffset, long nextOffset, List<JournalRecord> records) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.nextOffset = nextOffset;
+        this.records = records;
+    }
+
+    /**
+     * @return the oldest offset still retained in the journal
+     */
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * @return the offset the next appended record will be written at
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * @return the offset to read from to continue after this batch
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return the records in this batch, in journal order
+     */
+    public List<JournalRecord> getRecords() {
+        return records;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.dto;
+
+import com.example.event.MessageChangedEvent;
+
+/**
+ * This is a single change read back from the MessageJournal: the kind of change, when it was journaled,
+ * and the message as it was after the change (or before a deletion), with its version. Records of one message
+ * may be journaled out of commit order, so a consumer should skip a record whose version is not newer than the
+ * last one it applied.
+ *
+ */
+public class JournalRecord {
+    private final long offset;
+    private final MessageChangedEvent.Type type;
+    private final long timestamp;
+    private final MessageView message;
+
+    /**
+     * A constructor with all fields.
+     * @param offset
+     * @param type
+     * @param timestamp
+     * @param message
+     */
+    public JournalRecord(long offset, MessageChangedEvent.Type type, long timestamp, MessageView message) {
+        this.offset = offset;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.message = message;
+    }
+
+    /**
+     * @return the offset of this record in the journal
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the kind of change
+     */
+    public MessageChangedEvent.Type getType() {
+        return type;
+    }
+
+    /**
+     * @return when the change was journaled, in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the message after the change, or as it was before deletion
+     */
+    public MessageView getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the version of the message after the change, or as it was before deletion; null if it is not known
+     */
+    public Integer getVersion() {
+        return message.getVersion();
+    }
+}
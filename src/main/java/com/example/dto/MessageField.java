@@ -0,0 +1,55 @@
+package com.example.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The fields of a message that a caller may select with the fields parameter of the list endpoints. Each name
+ * is both the JSON field and the Message attribute it is read from, and the declaration order is the order the
+ * fields are written in.
+ */
+public enum MessageField {
+    MESSAGE_ID("messageId"),
+    POSTED_BY("postedBy"),
+    MESSAGE_TEXT("messageText"),
+    TIME_POSTED_EPOCH("timePostedEpoch");
+
+    private final String name;
+
+    MessageField(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the field in JSON and in the Message entity
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Parses a comma-separated list of field names, such as messageId,messageText.
+     * @param fields the field names
+     * @return the selected fields, or null if the list is empty or names a field that does not exist
+     */
+    public static Set<MessageField> parse(String fields) {
+        Set<MessageField> selected = EnumSet.noneOf(MessageField.class);
+        for(String name : fields.split(",", -1)){
+            MessageField field = byName(name.trim());
+            if(field == null){
+                return null;
+            }
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    private static MessageField byName(String name) {
+        for(MessageField field : values()){
+            if(field.name.equals(name)){
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.dto;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * This is an immutable, read-only view of a Message, used by the list endpoints.
+ * It is built directly by projection queries on MessageRepository, so no managed entity is hydrated or
+ * snapshotted for dirty checking. It serializes to the same JSON as a Message.
+ *
+ */
+public class MessageView {
+    private final int messageId;
+    private final Integer postedBy;
+    private final String messageText;
+    private final Long timePostedEpoch;
+    private final Integer version;
+
+    /**
+     * A constructor for a view whose version is not known.
+     * @param messageId
+     * @param postedBy
+     * @param messageText
+     * @param timePostedEpoch
+     */
+    public MessageView(int messageId, Integer postedBy, String messageText, Long timePostedEpoch) {
+        this(messageId, postedBy, messageText, timePostedEpoch, null);
+    }
+
+    /**
+     * A constructor with all fields, used by the projection queries.
+     * @param messageId
+     * @param postedBy
+     * @param messageText
+     * @param timePostedEpoch
+     * @param version
+     */
+    public MessageView(int messageId, Integer postedBy, String messageText, Long timePostedEpoch, Integer version) {
+        this.messageId = messageId;
+        this.postedBy = postedBy;
+        this.messageText = messageText;
+        this.timePostedEpoch = timePostedEpoch;
+        this.version = version;
+    }
+
+    /**
+     * Builds a view of a Message entity.
+     * @param message the message to view
+     * @return a MessageView with the same fields as the message
+     */
+    public static MessageView from(Message message) {
+        return new MessageView(message.getMessageId(), message.getPostedBy(), message.getMessageText(), message.getTimePostedEpoch(),
+                message.getVersion());
+    }
+
+    /**
+     * @return messageId
+     */
+    public int getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * @return postedBy
+     */
+    public Integer getPostedBy() {
+        return postedBy;
+    }
+
+    /**
+     * @return messageText
+     */
+    public String getMessageText() {
+        return messageText;
+    }
+
+    /**
+     * @return timePostedEpoch
+     */
+    public Long getTimePostedEpoch() {
+        return timePostedEpoch;
+    }
+
+    /**
+     * @return version, or null if it is not known; it is not serialized, to match the JSON of a Message
+     */
+    @JsonIgnore
+    public Integer getVersion() {
+        return version;
+    }
+
+    /**
+     * Builds a Message entity with the same fields as this view.
+     * @return a new, unmanaged Message
+     */
+    public Message toMessage() {
+        Message message = new Message(messageId, postedBy, messageText, timePostedEpoch);
+        message.setVersion(version);
+        return message;
+    }
+
+    /**
+     * Overriding the default toString() method allows for easy debugging.
+     * @return a String representation of this class.
+     */
+    @Override
+    public String toString() {
+        return "MessageView{" +
+                "messageId=" + messageId +
+                ", postedBy=" + postedBy +
+                ", messageText='" + messageText + '\'' +
+                ", timePostedEpoch=" + timePostedEpoch +
+                '}';
+    }
+}
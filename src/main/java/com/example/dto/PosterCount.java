@@ -0,0 +1,35 @@
+package com.example.dto;
+
+/**
+ * This is an account and an estimate of how many messages it posted within a window, as reported by
+ * GET /stats/top-posters.
+ *
+ */
+public class PosterCount {
+    private final int accountId;
+    private final long count;
+
+    /**
+     * A constructor with all fields.
+     * @param accountId
+     * @param count
+     */
+    public PosterCount(int accountId, long count) {
+        this.accountId = accountId;
+        this.count = count;
+    }
+
+    /**
+     * @return the ID of the account
+     */
+    public int getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return the estimated number of messages posted by the account within the window
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.dto;
+
+import java.util.Set;
+
+/**
+ * This is a MessageView that serializes to only some of the fields of a Message. Fields that were not selected
+ * are neither read from the database nor written, and are null here.
+ *
+ */
+public class SparseMessageView extends MessageView {
+    private final Set<MessageField> fields;
+
+    /**
+     * A constructor from the selected fields, used by the projection queries.
+     * @param messageId
+     * @param postedBy
+     * @param messageText
+     * @param timePostedEpoch
+     * @param fields the fields to serialize
+     */
+    public SparseMessageView(int messageId, Integer postedBy, String messageText, Long timePostedEpoch, Set<MessageField> fields) {
+        super(messageId, postedBy, messageText, timePostedEpoch);
+        this.fields = fields;
+    }
+
+    /**
+     * A constructor from a complete view, keeping only the selected fields.
+     * @param message
+     * @param fields the fields to serialize
+     */
+    public SparseMessageView(MessageView message, Set<MessageField> fields) {
+        this(message.getMessageId(),
+             fields.contains(MessageField.POSTED_BY) ? message.getPostedBy() : null,
+             fields.contains(MessageField.MESSAGE_TEXT) ? message.getMessageText() : null,
+             fields.contains(MessageField.TIME_POSTED_EPOCH) ? message.getTimePostedEpoch() : null,
+             fields);
+    }
+
+    /**
+     * @return the fields to serialize
+     */
+    public Set<MessageField> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.dto;
+
+/**
+ * This is a term or hashtag from recent messages and its score, as reported by GET /trending. The score is the
+ * number of recent messages that used the term, with older uses counting for less.
+ *
+ */
+public class TrendingTerm {
+    private final String term;
+    private final double score;
+
+    /**
+     * A constructor with all fields.
+     * @param term
+     * @param score
+     */
+    public TrendingTerm(String term, double score) {
+        this.term = term;
+        this.score = score;
+    }
+
+    /**
+     * @return the term, with a leading # for hashtags
+     */
+    public String getTerm() {
+        return term;
+    }
+
+    /**
+     * @return the decayed number of recent uses of the term
+     */
+    public double getScore() {
+        return score;
+    }
+}
@@ -2,12 +2,17 @@ package com.example.entity;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * This is a class that models an Account.
  *
  */
 @Entity
 @Table(name="account")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account")
 public class Account {
     /**
      * An id for this Account. You should use this as the Entity's ID.
@@ -2,12 +2,22 @@ package com.example.entity;
 
 import javax.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * This is a class that models a Message.
  *
+ * The JSON form is written and read by MessageJson and MessageViewJson rather than by Jackson's bean binding, so
+ * Jackson annotations here, such as @JsonIgnore, are not consulted: a new field only reaches the JSON once those
+ * components handle it, and StreamingJsonTest fails until they do.
  */
 @Entity
 @Table(name="message")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "message")
 public class Message {
      /**
      * An id for this message which will be automatically generated by the database.
@@ -32,6 +42,21 @@ public class Message {
      */
     @Column (name="timePostedEpoch")
     private Long timePostedEpoch;
+    /**
+     * The version of this message, incremented by every update so that concurrent edits can be detected. It is
+     * sent to clients in the ETag header rather than in the JSON body.
+     */
+    @Version
+    @Column (name="version")
+    @JsonIgnore
+    private Integer version;
+    /**
+     * The epoch second this message was soft-deleted at, or null while it is live. A deleted message is hidden
+     * from every read until the purger removes its row, and the field is never part of the JSON body.
+     */
+    @Column (name="deletedEpoch")
+    @JsonIgnore
+    private Long deletedEpoch;
     /**
      * A default, no-args constructor, as well as correctly formatted getters and setters, are needed for
      * Jackson Objectmapper to work.
@@ -120,6 +145,38 @@ public class Message {
     public void setTimePostedEpoch(Long timePostedEpoch) {
         this.timePostedEpoch = timePostedEpoch;
     }
+    /**
+     * The version is not part of the JSON body; it is exposed through the ETag header.
+     * @return version
+     */
+    @JsonIgnore
+    public Integer getVersion() {
+        return version;
+    }
+    /**
+     * The version is not part of the JSON body; it is exposed through the ETag header.
+     * @param version
+     */
+    @JsonIgnore
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+    /**
+     * The deletion time is not part of the JSON body, and clients cannot set it.
+     * @return deletedEpoch
+     */
+    @JsonIgnore
+    public Long getDeletedEpoch() {
+        return deletedEpoch;
+    }
+    /**
+     * The deletion time is not part of the JSON body, and clients cannot set it.
+     * @param deletedEpoch
+     */
+    @JsonIgnore
+    public void setDeletedEpoch(Long deletedEpoch) {
+        this.deletedEpoch = deletedEpoch;
+    }
     /**
      * Overriding the default equals() method adds functionality to tell when two objects are identical, allowing
      * Assert.assertEquals and List.contains to function.
@@ -0,0 +1,100 @@
+package com.example.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.*;
+
+/**
+ * One row of the message_activity rollup: the number of messages an account posted within one time bucket.
+ */
+@Entity
+@Table(name="message_activity")
+@IdClass(MessageActivity.Key.class)
+public class MessageActivity {
+    @Id
+    @Column(name="accountId")
+    private Integer accountId;
+    @Id
+    @Column(name="bucketSeconds")
+    private Integer bucketSeconds;
+    @Id
+    @Column(name="bucketStart")
+    private Long bucketStart;
+    @Column(name="postCount")
+    private Integer postCount;
+
+    public MessageActivity(){
+    }
+
+    public MessageActivity(Integer accountId, Integer bucketSeconds, Long bucketStart, Integer postCount) {
+        this.accountId = accountId;
+        this.bucketSeconds = bucketSeconds;
+        this.bucketStart = bucketStart;
+        this.postCount = postCount;
+    }
+
+    public Integer getAccountId() {
+        return accountId;
+    }
+
+    public Integer getBucketSeconds() {
+        return bucketSeconds;
+    }
+
+    public Long getBucketStart() {
+        return bucketStart;
+    }
+
+    public Integer getPostCount() {
+        return postCount;
+    }
+
+    /**
+     * The composite primary key of a rollup row.
+     */
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer accountId;
+        private Integer bucketSeconds;
+        private Long bucketStart;
+
+        public Key(){
+        }
+
+        public Key(Integer accountId, Integer bucketSeconds, Long bucketStart) {
+            this.accountId = accountId;
+            this.bucketSeconds = bucketSeconds;
+            this.bucketStart = bucketStart;
+        }
+
+        public Integer getAccountId() {
+            return accountId;
+        }
+
+        public Integer getBucketSeconds() {
+            return bucketSeconds;
+        }
+
+        public Long getBucketStart() {
+            return bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return Objects.equals(accountId, other.accountId) && Objects.equals(bucketSeconds, other.bucketSeconds)
+                    && Objects.equals(bucketStart, other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, bucketSeconds, bucketStart);
+        }
+    }
+}
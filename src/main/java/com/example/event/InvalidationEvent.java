@@ -0,0 +1,71 @@
+package com.example.event;
+
+/**
+ * InvalidationEvent announces to the other nodes of a cluster that an entity has changed, so that they drop
+ * their cached copies of it. Each event carries the version of the entity after the change, so that a node can
+ * recognize an event it has already applied, or one that arrives after a newer one, and ignore it.
+ */
+public class InvalidationEvent {
+    /**
+     * The kind of entity that changed.
+     */
+    public enum EntityType {
+        MESSAGE, ACCOUNT
+    }
+
+    private final EntityType entityType;
+    private final int entityId;
+    private final long version;
+    private final String origin;
+
+    /**
+     * @param entityType the kind of entity that changed
+     * @param entityId the ID of the entity that changed
+     * @param version the version of the entity after the change
+     * @param origin the ID of the node the change was made on
+     */
+    public InvalidationEvent(EntityType entityType, int entityId, long version, String origin) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.version = version;
+        this.origin = origin;
+    }
+
+    /**
+     * @return the kind of entity that changed
+     */
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the ID of the entity that changed
+     */
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * @return the version of the entity after the change
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the ID of the node the change was made on
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationEvent{" +
+                "entityType=" + entityType +
+                ", entityId=" + entityId +
+                ", version=" + version +
+                ", origin='" + origin + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.event;
+
+import com.example.dto.MessageView;
+
+/**
+ * MessageChangedEvent is published by MessageService once a message has been created, updated or deleted.
+ * Listeners receive it after the change has committed.
+ */
+public class MessageChangedEvent {
+    /**
+     * The kind of change made to a message.
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final MessageView message;
+
+    /**
+     * @param type the kind of change
+     * @param message the message after the change, or as it was before deletion
+     */
+    public MessageChangedEvent(Type type, MessageView message) {
+        this.type = type;
+        this.message = message;
+    }
+
+    /**
+     * @return the kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the message after the change, or as it was before deletion
+     */
+    public MessageView getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.exception;
+
+/**
+ * Exception thrown when an edit targets a message that has been moved to the archive.
+ * Archived messages are read-only: they can be read and deleted, but not updated.
+ */
+public class ArchivedMessageException extends Exception{
+    public ArchivedMessageException(){
+        super(null, null, false, false);
+    }
+}
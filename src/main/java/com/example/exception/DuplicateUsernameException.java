@@ -3,7 +3,16 @@ package com.example.exception;
 /**
  * Exception thrown when a username already exists.
  * This exception is used to indicate that the username being registered or updated
- * is already taken by another account.
+ * is already taken by another account. Like the other validation failures it is a shared,
+ * stackless instance.
  */
-public class DuplicateUsernameException extends Exception{   
+public class DuplicateUsernameException extends Exception{
+    /**
+     * The shared instance to throw.
+     */
+    public static final DuplicateUsernameException INSTANCE = new DuplicateUsernameException();
+
+    private DuplicateUsernameException(){
+        super(null, null, false, false);
+    }
 }
@@ -3,7 +3,16 @@ package com.example.exception;
 /**
  * Exception thrown when account details are invalid.
  * This exception is used to indicate that the provided account details do not meet the required criteria
- * and thus cannot be processed.
+ * and thus cannot be processed. Every failed login throws it, so it is preallocated once and
+ * skips the stack trace.
  */
 public class InvalidAccountDetailsException extends Exception{
+    /**
+     * The shared instance to throw.
+     */
+    public static final InvalidAccountDetailsException INSTANCE = new InvalidAccountDetailsException();
+
+    private InvalidAccountDetailsException(){
+        super(null, null, false, false);
+    }
 }
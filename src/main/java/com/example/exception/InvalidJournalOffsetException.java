@@ -0,0 +1,24 @@
+package com.example.exception;
+
+/**
+ * Exception thrown when a journal offset cannot be read from.
+ * This exception is used to indicate that the offset does not start a record, or that the records
+ * at that offset have already been removed by retention.
+ */
+public class InvalidJournalOffsetException extends Exception{
+    private final boolean expired;
+
+    /**
+     * @param expired whether the offset was valid once but its records have since been removed by retention
+     */
+    public InvalidJournalOffsetException(boolean expired){
+        this.expired = expired;
+    }
+
+    /**
+     * @return whether the offset was valid once but its records have since been removed by retention
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+}
@@ -3,7 +3,30 @@ package com.example.exception;
 /**
  * Exception thrown when a message is invalid.
  * This exception is used to indicate that a message does not meet the required criteria
- * and thus cannot be processed.
+ * and thus cannot be processed. It carries no detail, so one preallocated instance is thrown
+ * everywhere and never fills in a stack trace.
  */
-public class InvalidMessageException extends Exception{  
+public class InvalidMessageException extends Exception{
+    /**
+     * The shared instance to throw.
+     */
+    public static final InvalidMessageException INSTANCE = new InvalidMessageException();
+
+    private InvalidMessageException(){
+        super(null, null, false, false);
+    }
+
+    private InvalidMessageException(boolean writableStackTrace){
+        super(null, null, true, writableStackTrace);
+    }
+
+    /**
+     * Creates a new instance that fills in the stack trace of the code throwing it, for tracing where invalid
+     * messages come from.
+     *
+     * @return a new InvalidMessageException
+     */
+    public static InvalidMessageException withStackTrace(){
+        return new InvalidMessageException(true);
+    }
 }
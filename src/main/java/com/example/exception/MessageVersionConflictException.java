@@ -0,0 +1,25 @@
+package com.example.exception;
+
+/**
+ * Exception thrown when an edit to a message conflicts with another edit.
+ * This exception is used to indicate that the message no longer has the version the client based its edit on,
+ * or that another writer changed the message while it was being updated.
+ */
+public class MessageVersionConflictException extends Exception{
+    private final boolean preconditionFailed;
+
+    /**
+     * @param preconditionFailed whether the edit was conditional on a version the message no longer has
+     */
+    public MessageVersionConflictException(boolean preconditionFailed){
+        super(null, null, false, false);
+        this.preconditionFailed = preconditionFailed;
+    }
+
+    /**
+     * @return whether the edit was conditional on a version the message no longer has
+     */
+    public boolean isPreconditionFailed() {
+        return preconditionFailed;
+    }
+}
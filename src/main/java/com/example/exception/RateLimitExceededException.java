@@ -0,0 +1,24 @@
+package com.example.exception;
+
+/**
+ * Exception thrown when a client or account has exhausted its rate limit for an endpoint.
+ * It is thrown for every rejected request under abusive traffic, so it does not capture a stack trace.
+ */
+public class RateLimitExceededException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    /**
+     * @param retryAfterSeconds how long the caller should wait before retrying, in seconds
+     */
+    public RateLimitExceededException(long retryAfterSeconds){
+        super(null, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return how long the caller should wait before retrying, in seconds
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.interceptor;
+
+import java.util.Map;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.service.AuditLog;
+
+/**
+ * AuditInterceptor publishes an audit record of every mutating call to the AuditLog once its response status is
+ * known. It runs ahead of the other interceptors, so calls they reject are audited as well.
+ */
+@Component
+public class AuditInterceptor implements HandlerInterceptor {
+    /**
+     * The request attribute holding the account a call acts as or on, set once the request body has been read.
+     */
+    public static final String PRINCIPAL_ATTRIBUTE = AuditInterceptor.class.getName() + ".principal";
+
+    private static final String START_ATTRIBUTE = AuditInterceptor.class.getName() + ".start";
+
+    private AuditLog auditLog;
+
+    /**
+     * Constructs an AuditInterceptor with the given AuditLog.
+     * 
+     * @param auditLog the log the records are published to
+     */
+    @Autowired
+    public AuditInterceptor(AuditLog auditLog){
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        if(request.getDispatcherType() != DispatcherType.ASYNC && handler instanceof HandlerMethod
+                && auditLog.action(((HandlerMethod) handler).getMethod().getName()) >= 0){
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex){
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if(start == null){
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        Object principal = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        auditLog.record(auditLog.action(((HandlerMethod) handler).getMethod().getName()), status, request.getRemoteAddr(),
+                principal == null ? null : principal.toString(), messageId(request), System.nanoTime() - (Long) start);
+    }
+
+    private static int messageId(HttpServletRequest request){
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if(variables instanceof Map){
+            Object messageId = ((Map<?, ?>) variables).get("messageId");
+            if(messageId != null){
+                try{
+                    return Integer.parseInt(messageId.toString());
+                }catch(NumberFormatException e){
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+}
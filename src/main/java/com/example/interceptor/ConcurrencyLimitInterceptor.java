@@ -0,0 +1,70 @@
+package com.example.interceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.example.service.ConcurrencyLimiter;
+
+/**
+ * ConcurrencyLimitInterceptor admits each request through the ConcurrencyLimiter, failing fast with
+ * 503 Service Unavailable once the limit is reached, and reports the latency of admitted requests back to it.
+ */
+@Component
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Constructs a ConcurrencyLimitInterceptor with the given ConcurrencyLimiter.
+     * 
+     * @param concurrencyLimiter the limiter that admits requests
+     */
+    @Autowired
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiter concurrencyLimiter){
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        if(request.getDispatcherType() == DispatcherType.ASYNC){
+            return true;
+        }
+        String method = request.getMethod();
+        if(!concurrencyLimiter.tryAcquire("GET".equals(method) || "HEAD".equals(method))){
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex){
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if(start != null){
+            request.removeAttribute(START_ATTRIBUTE);
+            concurrencyLimiter.release(System.nanoTime() - (Long) start);
+        }
+    }
+
+    /**
+     * Long-lived asynchronous requests release their slot as soon as the handler hands them off, and their
+     * duration is not fed into the limit.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler){
+        if(request.getAttribute(START_ATTRIBUTE) != null){
+            request.removeAttribute(START_ATTRIBUTE);
+            concurrencyLimiter.release(-1);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.interceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.service.RateLimiter;
+
+/**
+ * RateLimitInterceptor applies the per-IP rate limit of each endpoint before its handler runs.
+ * Per-account limits need the request body and are applied by RateLimitAdvice instead.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private RateLimiter rateLimiter;
+
+    /**
+     * Constructs a RateLimitInterceptor with the given RateLimiter.
+     * 
+     * @param rateLimiter the limiter holding the per-IP buckets
+     */
+    @Autowired
+    public RateLimitInterceptor(RateLimiter rateLimiter){
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler){
+        if(request.getDispatcherType() != DispatcherType.ASYNC && handler instanceof HandlerMethod){
+            rateLimiter.acquireForIp(((HandlerMethod) handler).getMethod().getName(), request.getRemoteAddr());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.example.entity.Account;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Streaming JSON serializer and deserializer for Account, matching Jackson's bean binding of its three fields.
+ */
+@JsonComponent
+public class AccountJson {
+    private static final String ACCOUNT_ID = "accountId";
+    private static final String USERNAME = "username";
+    private static final String PASSWORD = "password";
+
+    private static final SerializedString ACCOUNT_ID_NAME = new SerializedString(ACCOUNT_ID);
+    private static final SerializedString USERNAME_NAME = new SerializedString(USERNAME);
+    private static final SerializedString PASSWORD_NAME = new SerializedString(PASSWORD);
+
+    /**
+     * Writes an Account as a JSON object.
+     */
+    public static class Serializer extends JsonSerializer<Account> {
+        @Override
+        public void serialize(Account account, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(account);
+            JsonFields.writeInteger(gen, ACCOUNT_ID_NAME, account.getAccountId());
+            JsonFields.writeString(gen, USERNAME_NAME, account.getUsername());
+            JsonFields.writeString(gen, PASSWORD_NAME, account.getPassword());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads an Account from a JSON object.
+     */
+    public static class Deserializer extends JsonDeserializer<Account> {
+        @Override
+        public Account deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if(!p.isExpectedStartObjectToken()){
+                return (Account) ctxt.handleUnexpectedToken(Account.class, p);
+            }
+            Account account = new Account();
+            for(String name = p.nextFieldName(); name != null; name = p.nextFieldName()){
+                p.nextToken();
+                switch(name){
+                    case ACCOUNT_ID:
+                        account.setAccountId(JsonFields.readInteger(p, ctxt));
+                        break;
+                    case USERNAME:
+                        account.setUsername(JsonFields.readString(p, ctxt));
+                        break;
+                    case PASSWORD:
+                        account.setPassword(JsonFields.readString(p, ctxt));
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            return account;
+        }
+    }
+}
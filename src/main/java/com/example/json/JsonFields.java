@@ -0,0 +1,76 @@
+package com.example.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Reads and writes the field values shared by the streaming JSON components. Values are written exactly as
+ * Jackson's bean serializers write them, nulls included. Values in the common token types are read directly;
+ * anything else is handed to the standard deserializer of the type, so coercions and errors are unchanged.
+ */
+final class JsonFields {
+    private JsonFields(){
+    }
+
+    static void writeInteger(JsonGenerator gen, SerializableString name, Integer value) throws IOException {
+        gen.writeFieldName(name);
+        if(value == null){
+            gen.writeNull();
+        }else{
+            gen.writeNumber(value.intValue());
+        }
+    }
+
+    static void writeLong(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if(value == null){
+            gen.writeNull();
+        }else{
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if(value == null){
+            gen.writeNull();
+        }else{
+            gen.writeString(value);
+        }
+    }
+
+    static Integer readInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if(p.currentToken() == JsonToken.VALUE_NUMBER_INT && p.getNumberType() == JsonParser.NumberType.INT){
+            return p.getIntValue();
+        }
+        if(p.currentToken() == JsonToken.VALUE_NULL){
+            return null;
+        }
+        return ctxt.readValue(p, Integer.class);
+    }
+
+    static Long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if(p.currentToken() == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER){
+            return p.getLongValue();
+        }
+        if(p.currentToken() == JsonToken.VALUE_NULL){
+            return null;
+        }
+        return ctxt.readValue(p, Long.class);
+    }
+
+    static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if(p.currentToken() == JsonToken.VALUE_STRING){
+            return p.getText();
+        }
+        if(p.currentToken() == JsonToken.VALUE_NULL){
+            return null;
+        }
+        return ctxt.readValue(p, String.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Streaming JSON serializer and deserializer for Message, in place of Jackson's reflective bean binding. The
+ * output matches the bean serializer byte for byte: the four fields in declaration order, nulls included, and
+ * no version. Input fields other than the four are skipped, as the bean deserializer ignores unknown properties.
+ */
+@JsonComponent
+public class MessageJson {
+    static final String MESSAGE_ID = "messageId";
+    static final String POSTED_BY = "postedBy";
+    static final String MESSAGE_TEXT = "messageText";
+    static final String TIME_POSTED_EPOCH = "timePostedEpoch";
+
+    static final SerializedString MESSAGE_ID_NAME = new SerializedString(MESSAGE_ID);
+    static final SerializedString POSTED_BY_NAME = new SerializedString(POSTED_BY);
+    static final SerializedString MESSAGE_TEXT_NAME = new SerializedString(MESSAGE_TEXT);
+    static final SerializedString TIME_POSTED_EPOCH_NAME = new SerializedString(TIME_POSTED_EPOCH);
+
+    /**
+     * Writes a Message as a JSON object.
+     */
+    public static class Serializer extends JsonSerializer<Message> {
+        @Override
+        public void serialize(Message message, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(message);
+            JsonFields.writeInteger(gen, MESSAGE_ID_NAME, message.getMessageId());
+            JsonFields.writeInteger(gen, POSTED_BY_NAME, message.getPostedBy());
+            JsonFields.writeString(gen, MESSAGE_TEXT_NAME, message.getMessageText());
+            JsonFields.writeLong(gen, TIME_POSTED_EPOCH_NAME, message.getTimePostedEpoch());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a Message from a JSON object.
+     */
+    public static class Deserializer extends JsonDeserializer<Message> {
+        @Override
+        public Message deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if(!p.isExpectedStartObjectToken()){
+                return (Message) ctxt.handleUnexpectedToken(Message.class, p);
+            }
+            Message message = new Message();
+            for(String name = p.nextFieldName(); name != null; name = p.nextFieldName()){
+                p.nextToken();
+                switch(name){
+                    case MESSAGE_ID:
+                        message.setMessageId(JsonFields.readInteger(p, ctxt));
+                        break;
+                    case POSTED_BY:
+                        message.setPostedBy(JsonFields.readInteger(p, ctxt));
+                        break;
+                    case MESSAGE_TEXT:
+                        message.setMessageText(JsonFields.readString(p, ctxt));
+                        break;
+                    case TIME_POSTED_EPOCH:
+                        message.setTimePostedEpoch(JsonFields.readLong(p, ctxt));
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            }
+            return message;
+        }
+    }
+}
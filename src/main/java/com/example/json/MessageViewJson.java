@@ -0,0 +1,82 @@
+package com.example.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.example.dto.AuthorView;
+import com.example.dto.AuthoredMessageView;
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.dto.SparseMessageView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Streaming JSON serializer for MessageView, the element type of every message list response. A view is written
+ * exactly as a Message is; an AuthoredMessageView is followed by its author, and a SparseMessageView is cut down
+ * to its selected fields.
+ */
+@JsonComponent
+public class MessageViewJson {
+    private static final SerializedString AUTHOR_NAME = new SerializedString("author");
+    private static final SerializedString ACCOUNT_ID_NAME = new SerializedString("accountId");
+    private static final SerializedString USERNAME_NAME = new SerializedString("username");
+
+    /**
+     * Writes a MessageView, and the author of an AuthoredMessageView, as a JSON object.
+     */
+    public static class Serializer extends JsonSerializer<MessageView> {
+        @Override
+        public void serialize(MessageView message, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            if(message instanceof SparseMessageView){
+                writeSparse((SparseMessageView) message, gen);
+                return;
+            }
+            gen.writeStartObject(message);
+            gen.writeFieldName(MessageJson.MESSAGE_ID_NAME);
+            gen.writeNumber(message.getMessageId());
+            JsonFields.writeInteger(gen, MessageJson.POSTED_BY_NAME, message.getPostedBy());
+            JsonFields.writeString(gen, MessageJson.MESSAGE_TEXT_NAME, message.getMessageText());
+            JsonFields.writeLong(gen, MessageJson.TIME_POSTED_EPOCH_NAME, message.getTimePostedEpoch());
+            if(message instanceof AuthoredMessageView){
+                gen.writeFieldName(AUTHOR_NAME);
+                AuthorView author = ((AuthoredMessageView) message).getAuthor();
+                if(author == null){
+                    gen.writeNull();
+                }else{
+                    gen.writeStartObject(author);
+                    gen.writeFieldName(ACCOUNT_ID_NAME);
+                    gen.writeNumber(author.getAccountId());
+                    JsonFields.writeString(gen, USERNAME_NAME, author.getUsername());
+                    gen.writeEndObject();
+                }
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeSparse(SparseMessageView message, JsonGenerator gen) throws IOException {
+            gen.writeStartObject(message);
+            for(MessageField field : message.getFields()){
+                switch(field){
+                    case MESSAGE_ID:
+                        gen.writeFieldName(MessageJson.MESSAGE_ID_NAME);
+                        gen.writeNumber(message.getMessageId());
+                        break;
+                    case POSTED_BY:
+                        JsonFields.writeInteger(gen, MessageJson.POSTED_BY_NAME, message.getPostedBy());
+                        break;
+                    case MESSAGE_TEXT:
+                        JsonFields.writeString(gen, MessageJson.MESSAGE_TEXT_NAME, message.getMessageText());
+                        break;
+                    case TIME_POSTED_EPOCH:
+                        JsonFields.writeLong(gen, MessageJson.TIME_POSTED_EPOCH_NAME, message.getTimePostedEpoch());
+                        break;
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -2,8 +2,15 @@ package com.example.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import com.example.dto.AuthorView;
 import com.example.entity.Account;
 
 /**
@@ -29,6 +36,8 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
      * @return the Account entity if an account with the given username exists, or null if it does not exist
      */
     @Query("from Account where username = :username")
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                 @QueryHint(name = "org.hibernate.cacheRegion", value = "account-queries")})
     Account isAccount(@Param("username") String username);
 
     /**
@@ -38,5 +47,16 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
      * @return the Account entity if an account with the given accountId exists, or null if it does not exist
      */
     @Query("from Account where accountId = :accountId")
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                 @QueryHint(name = "org.hibernate.cacheRegion", value = "account-queries")})
     Account isAccount(@Param("accountId") int accountId);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the ID and username of several accounts in one query, without loading their passwords.
+     * 
+     * @param accountIds the IDs of the accounts to retrieve
+     * @return a list of the authors found, in no particular order
+     */
+    @Query("select new com.example.dto.AuthorView(a.accountId, a.username) from Account a where a.accountId in :accountIds")
+    List<AuthorView> getAuthors(@Param("accountIds") Collection<Integer> accountIds);
+}
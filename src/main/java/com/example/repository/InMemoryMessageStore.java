@@ -0,0 +1,673 @@
+package com.example.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.dto.SparseMessageView;
+import com.example.entity.Message;
+
+/**
+ * InMemoryMessageStore keeps every message on the heap, for deployments where key lookups through JPA are too
+ * slow. Messages are held in an int-keyed open-addressing map, with a primitive list of message IDs per author.
+ * Every change is appended to a write-ahead log before it is applied, and the whole store is periodically
+ * written to a snapshot, after which the older logs are deleted. On startup the newest snapshot is loaded and
+ * the logs written since are replayed; the very first start is seeded from the message table. Every message
+ * carries a version that each save increments, and updates may be made conditional on it.
+ */
+@Repository
+@ConditionalOnProperty(name = "message.store", havingValue = "memory")
+public class InMemoryMessageStore implements MessageStore, SmartInitializingSingleton {
+    private static final int SNAPSHOT_MAGIC = 0x4d534e50;
+    private static final int WAL_HEADER_BYTES = 8;
+    private static final int MAX_WAL_RECORD_BYTES = 1 + 4 + 1 + 4 + 8 + 4 + 2 + 0xffff;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private static final int NULL_POSTED_BY = 1;
+    private static final int NULL_TEXT = 2;
+    private static final int NULL_TIME = 4;
+    private static final int NULL_VERSION = 8;
+
+    private static final Comparator<MessageView> BY_ID = Comparator.comparingInt(MessageView::getMessageId);
+
+    private final MessageRepository messageRepository;
+    private final Path directory;
+    private final boolean forceWrites;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntObjectHashMap<MessageView> messagesById = new IntObjectHashMap<>(1024);
+    private final IntObjectHashMap<IntList> idsByAuthor = new IntObjectHashMap<>(256);
+    private final ByteBuffer walBuffer = ByteBuffer.allocateDirect(WAL_HEADER_BYTES + MAX_WAL_RECORD_BYTES);
+    private final Object snapshotLock = new Object();
+    private FileChannel wal;
+    private long generation;
+    private int nextId = 1;
+
+    /**
+     * Constructs an InMemoryMessageStore over the configured directory.
+     *
+     * @param messageRepository the message table, used to seed the store on its very first start
+     * @param directory the directory holding the write-ahead logs and snapshots
+     * @param forceWrites whether every log append is forced to the storage device before returning
+     */
+    @Autowired
+    public InMemoryMessageStore(MessageRepository messageRepository,
+                                @Value("${message.store.memory.directory:message-store}") String directory,
+                                @Value("${message.store.memory.force-writes:false}") boolean forceWrites){
+        this.messageRepository = messageRepository;
+        this.directory = Paths.get(directory);
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Opens the store once every singleton, including the one that runs data.sql, has been initialized, so that
+     * a first start can be seeded from the populated message table.
+     */
+    @Override
+    public void afterSingletonsInstantiated(){
+        try{
+            open();
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the newest snapshot, replays the write-ahead logs written after it, and takes a fresh snapshot so
+     * that the store starts from a single clean log.
+     *
+     * @throws IOException if the snapshot or logs cannot be read
+     */
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        TreeMap<Long, Path> logs = list(WAL_PREFIX, WAL_SUFFIX);
+        long from = 0;
+        if(snapshots.isEmpty()){
+            for(MessageView message : messageRepository.getMessageViews()){
+                apply(message);
+            }
+        }else{
+            from = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue());
+        }
+        for(Path log : logs.tailMap(from, true).values()){
+            replay(log);
+        }
+        generation = Math.max(from, logs.isEmpty() ? 0 : logs.lastKey());
+        snapshot();
+    }
+
+    /**
+     * Takes a final snapshot and closes the write-ahead log.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if(wal == null){
+            return;
+        }
+        snapshot();
+        lock.writeLock().lock();
+        try{
+            wal.close();
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Periodically writes a snapshot of the store, so that the write-ahead log replayed on startup stays short.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Scheduled(initialDelayString = "${message.store.memory.snapshot-interval-ms:300000}", fixedDelayString = "${message.store.memory.snapshot-interval-ms:300000}")
+    public void snapshot() throws IOException {
+        synchronized(snapshotLock){
+            long snapshotGeneration;
+            List<MessageView> messages = new ArrayList<>();
+            int snapshotNextId;
+            lock.writeLock().lock();
+            try{
+                // Changes after this point go to the new log, which is replayed on top of this snapshot.
+                snapshotGeneration = generation + 1;
+                FileChannel next = FileChannel.open(file(WAL_PREFIX, snapshotGeneration, WAL_SUFFIX),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if(wal != null){
+                    wal.force(false);
+                    wal.close();
+                }
+                wal = next;
+                generation = snapshotGeneration;
+                messagesById.forEachValue(messages::add);
+                snapshotNextId = nextId;
+            }finally{
+                lock.writeLock().unlock();
+            }
+
+            Path snapshot = file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX);
+            Path partial = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try(FileOutputStream file = new FileOutputStream(partial.toFile())){
+                BufferedOutputStream buffered = new BufferedOutputStream(file, 1 << 16);
+                CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(snapshotNextId);
+                out.writeInt(messages.size());
+                for(MessageView message : messages){
+                    writeMessage(out, message);
+                }
+                out.flush();
+                new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+                buffered.flush();
+                file.getFD().sync();
+            }
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for(Path old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(snapshotGeneration).values()){
+                Files.deleteIfExists(old);
+            }
+            for(Path old : list(WAL_PREFIX, WAL_SUFFIX).headMap(snapshotGeneration).values()){
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    @Override
+    public Message save(Message message){
+        lock.writeLock().lock();
+        try{
+            int messageId = message.getMessageId() != null ? message.getMessageId() : nextId;
+            MessageView existing = messagesById.get(messageId);
+            if(existing != null && message.getVersion() != null && !message.getVersion().equals(existing.getVersion())){
+                throw new ObjectOptimisticLockingFailureException(Message.class, messageId);
+            }
+            return toMessage(put(new MessageView(messageId, message.getPostedBy(), message.getMessageText(),
+                    message.getTimePostedEpoch(), nextVersion(existing))));
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Message updateText(int messageId, String messageText, Integer expectedVersion){
+        lock.writeLock().lock();
+        try{
+            MessageView existing = messagesById.get(messageId);
+            if(existing == null){
+                return null;
+            }
+            if(expectedVersion != null && !expectedVersion.equals(existing.getVersion())){
+                throw new ObjectOptimisticLockingFailureException(Message.class, messageId);
+            }
+            if(messageText.equals(existing.getMessageText())){
+                // Like a JPA flush with nothing dirty, an edit that changes nothing keeps the version.
+                return toMessage(existing);
+            }
+            return toMessage(put(new MessageView(messageId, existing.getPostedBy(), messageText,
+                    existing.getTimePostedEpoch(), nextVersion(existing))));
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Message> findById(int messageId){
+        lock.readLock().lock();
+        try{
+            return Optional.ofNullable(toMessage(messagesById.get(messageId)));
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Message> findAllByIdInOrder(List<Integer> messageIds){
+        List<Message> messages = new ArrayList<>(messageIds.size());
+        lock.readLock().lock();
+        try{
+            for(Integer messageId : messageIds){
+                messages.add(toMessage(messagesById.get(messageId)));
+            }
+        }finally{
+            lock.readLock().unlock();
+        }
+        return messages;
+    }
+
+    @Override
+    public List<MessageView> getMessageViews(){
+        return scan(message -> true);
+    }
+
+    @Override
+    public List<MessageView> getMessageViews(int accountId){
+        return byAuthor(accountId, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<MessageView> getMessageViewsBetween(long since, long until){
+        return scan(message -> message.getTimePostedEpoch() != null
+                && message.getTimePostedEpoch() >= since && message.getTimePostedEpoch() < until);
+    }
+
+    @Override
+    public List<MessageView> getMessageViewsBetween(int accountId, long since, long until){
+        return byAuthor(accountId, since, until);
+    }
+
+    /**
+     * The messages are already in memory, so selecting fields saves nothing here but the bytes written.
+     */
+    @Override
+    public List<MessageView> getSparseMessageViews(Set<MessageField> fields, Integer accountId, long since, long until){
+        boolean ranged = since != Long.MIN_VALUE || until != Long.MAX_VALUE;
+        List<MessageView> messages = accountId != null ? byAuthor(accountId, since, until)
+                : ranged ? getMessageViewsBetween(since, until) : getMessageViews();
+        messages.replaceAll(message -> new SparseMessageView(message, fields));
+        return messages;
+    }
+
+    @Override
+    public List<Integer> getMessageIds(){
+        return ids(getMessageViews());
+    }
+
+    @Override
+    public List<Integer> getMessageIds(int accountId){
+        return ids(getMessageViews(accountId));
+    }
+
+    @Override
+    public List<Integer> getMessageIdsBetween(long since, long until){
+        return ids(getMessageViewsBetween(since, until));
+    }
+
+    @Override
+    public List<Integer> getMessageIdsBetween(int accountId, long since, long until){
+        return ids(getMessageViewsBetween(accountId, since, until));
+    }
+
+    /**
+     * The write lock is held from the scan until the messages are removed, so no other change to the store is made
+     * while the destination takes them.
+     */
+    @Override
+    public List<Message> moveMessagesBefore(long cutoff, int limit, Consumer<List<Message>> destination){
+        lock.writeLock().lock();
+        try{
+            List<MessageView> views = scan(message -> message.getTimePostedEpoch() != null && message.getTimePostedEpoch() < cutoff);
+            List<Message> messages = new ArrayList<>(Math.min(limit, views.size()));
+            for(int i = 0; i < views.size() && i < limit; i++){
+                messages.add(toMessage(views.get(i)));
+            }
+            if(!messages.isEmpty()){
+                destination.accept(messages);
+                for(Message message : messages){
+                    remove(message.getMessageId());
+                }
+            }
+            return messages;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Message message){
+        lock.writeLock().lock();
+        try{
+            MessageView existing = messagesById.get(message.getMessageId());
+            if(existing == null || message.getVersion() != null && !message.getVersion().equals(existing.getVersion())){
+                throw new ObjectOptimisticLockingFailureException(Message.class, message.getMessageId());
+            }
+            remove(message.getMessageId());
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<MessageView> deleteByPostedBy(int accountId, long since, long until, int limit){
+        lock.writeLock().lock();
+        try{
+            List<MessageView> messages = byAuthor(accountId, since, until);
+            messages = new ArrayList<>(messages.subList(0, Math.min(limit, messages.size())));
+            for(MessageView message : messages){
+                remove(message.getMessageId());
+            }
+            return messages;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deleting from memory is already cheap, so this engine never leaves tombstones and there is nothing to purge.
+     */
+    @Override
+    public int purgeDeleted(int limit){
+        return 0;
+    }
+
+    private static List<Integer> ids(List<MessageView> messages){
+        List<Integer> ids = new ArrayList<>(messages.size());
+        for(MessageView message : messages){
+            ids.add(message.getMessageId());
+        }
+        return ids;
+    }
+
+    private MessageView put(MessageView message){
+        walBuffer.clear().position(WAL_HEADER_BYTES);
+        walBuffer.put(OP_PUT);
+        writeMessage(walBuffer, message);
+        appendToLog();
+        apply(message);
+        return message;
+    }
+
+    private static int nextVersion(MessageView existing){
+        return existing == null || existing.getVersion() == null ? 0 : existing.getVersion() + 1;
+    }
+
+    private void remove(int messageId){
+        if(messagesById.get(messageId) == null){
+            return;
+        }
+        walBuffer.clear().position(WAL_HEADER_BYTES);
+        walBuffer.put(OP_REMOVE).putInt(messageId);
+        appendToLog();
+        unapply(messageId);
+    }
+
+    private List<MessageView> scan(Predicate<MessageView> filter){
+        List<MessageView> messages = new ArrayList<>();
+        lock.readLock().lock();
+        try{
+            messagesById.forEachValue(message -> {
+                if(filter.test(message)){
+                    messages.add(message);
+                }
+            });
+        }finally{
+            lock.readLock().unlock();
+        }
+        messages.sort(BY_ID);
+        return messages;
+    }
+
+    private List<MessageView> byAuthor(int accountId, long since, long until){
+        List<MessageView> messages = new ArrayList<>();
+        lock.readLock().lock();
+        try{
+            IntList ids = idsByAuthor.get(accountId);
+            for(int i = 0; ids != null && i < ids.size; i++){
+                MessageView message = messagesById.get(ids.items[i]);
+                Long time = message.getTimePostedEpoch();
+                if((since == Long.MIN_VALUE && until == Long.MAX_VALUE) || (time != null && time >= since && time < until)){
+                    messages.add(message);
+                }
+            }
+        }finally{
+            lock.readLock().unlock();
+        }
+        messages.sort(BY_ID);
+        return messages;
+    }
+
+    private void apply(MessageView message){
+        MessageView previous = messagesById.put(message.getMessageId(), message);
+        if(previous != null && previous.getPostedBy() != null && !previous.getPostedBy().equals(message.getPostedBy())){
+            idsByAuthor.get(previous.getPostedBy()).remove(previous.getMessageId());
+        }
+        if(message.getPostedBy() != null && (previous == null || !message.getPostedBy().equals(previous.getPostedBy()))){
+            IntList ids = idsByAuthor.get(message.getPostedBy());
+            if(ids == null){
+                ids = new IntList();
+                idsByAuthor.put(message.getPostedBy(), ids);
+            }
+            ids.add(message.getMessageId());
+        }
+        nextId = Math.max(nextId, message.getMessageId() + 1);
+    }
+
+    private void unapply(int messageId){
+        MessageView previous = messagesById.remove(messageId);
+        if(previous != null && previous.getPostedBy() != null){
+            IntList ids = idsByAuthor.get(previous.getPostedBy());
+            ids.remove(messageId);
+            if(ids.size == 0){
+                idsByAuthor.remove(previous.getPostedBy());
+            }
+        }
+    }
+
+    private void appendToLog(){
+        int end = walBuffer.position();
+        walBuffer.flip().position(WAL_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(walBuffer);
+        walBuffer.putInt(0, end - WAL_HEADER_BYTES).putInt(4, (int) crc.getValue()).position(0).limit(end);
+        try{
+            while(walBuffer.hasRemaining()){
+                wal.write(walBuffer);
+            }
+            if(forceWrites){
+                wal.force(false);
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay(Path log) throws IOException {
+        byte[] header = new byte[WAL_HEADER_BYTES];
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log), 1 << 16))){
+            while(true){
+                try{
+                    in.readFully(header);
+                }catch(EOFException e){
+                    return;
+                }
+                ByteBuffer head = ByteBuffer.wrap(header);
+                int length = head.getInt();
+                int checksum = head.getInt();
+                if(length <= 0 || length > MAX_WAL_RECORD_BYTES){
+                    return;
+                }
+                byte[] body = new byte[length];
+                try{
+                    in.readFully(body);
+                }catch(EOFException e){
+                    // A torn record at the tail: everything before it was acknowledged, it was not.
+                    return;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if((int) crc.getValue() != checksum){
+                    return;
+                }
+                ByteBuffer record = ByteBuffer.wrap(body);
+                byte op = record.get();
+                if(op == OP_PUT){
+                    apply(readMessage(record));
+                }else if(op == OP_REMOVE){
+                    unapply(record.getInt());
+                }
+            }
+        }
+    }
+
+    private void readSnapshot(Path snapshot) throws IOException {
+        try(CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16), new CRC32())){
+            DataInputStream in = new DataInputStream(checked);
+            if(in.readInt() != SNAPSHOT_MAGIC){
+                throw new IOException("not a message store snapshot: " + snapshot);
+            }
+            int snapshotNextId = in.readInt();
+            int count = in.readInt();
+            for(int i = 0; i < count; i++){
+                int messageId = in.readInt();
+                int flags = in.readByte();
+                int postedBy = in.readInt();
+                long timePostedEpoch = in.readLong();
+                int version = in.readInt();
+                byte[] text = new byte[in.readUnsignedShort()];
+                in.readFully(text);
+                apply(toView(messageId, flags, postedBy, timePostedEpoch, version, text));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if(new DataInputStream(checked).readInt() != expected){
+                throw new IOException("corrupt message store snapshot: " + snapshot);
+            }
+            nextId = Math.max(nextId, snapshotNextId);
+        }
+    }
+
+    private TreeMap<Long, Path> list(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)){
+            for(Path file : stream){
+                String name = file.getFileName().toString();
+                files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+            }
+        }
+        return files;
+    }
+
+    private Path file(String prefix, long generation, String suffix){
+        return directory.resolve(String.format("%s%020d%s", prefix, generation, suffix));
+    }
+
+    private static void writeMessage(ByteBuffer out, MessageView message){
+        byte[] text = textBytes(message);
+        out.putInt(message.getMessageId())
+                .put((byte) flags(message))
+                .putInt(message.getPostedBy() == null ? 0 : message.getPostedBy())
+                .putLong(message.getTimePostedEpoch() == null ? 0 : message.getTimePostedEpoch())
+                .putInt(message.getVersion() == null ? 0 : message.getVersion())
+                .putShort((short) text.length)
+                .put(text);
+    }
+
+    private static void writeMessage(DataOutputStream out, MessageView message) throws IOException {
+        byte[] text = textBytes(message);
+        out.writeInt(message.getMessageId());
+        out.writeByte(flags(message));
+        out.writeInt(message.getPostedBy() == null ? 0 : message.getPostedBy());
+        out.writeLong(message.getTimePostedEpoch() == null ? 0 : message.getTimePostedEpoch());
+        out.writeInt(message.getVersion() == null ? 0 : message.getVersion());
+        out.writeShort(text.length);
+        out.write(text);
+    }
+
+    private static MessageView readMessage(ByteBuffer in){
+        int messageId = in.getInt();
+        int flags = in.get();
+        int postedBy = in.getInt();
+        long timePostedEpoch = in.getLong();
+        int version = in.getInt();
+        byte[] text = new byte[in.getShort() & 0xffff];
+        in.get(text);
+        return toView(messageId, flags, postedBy, timePostedEpoch, version, text);
+    }
+
+    /**
+     * Builds a message from its stored fields.
+     */
+    private static MessageView toView(int messageId, int flags, int postedBy, long timePostedEpoch, int version, byte[] text){
+        return new MessageView(messageId,
+                (flags & NULL_POSTED_BY) != 0 ? null : postedBy,
+                (flags & NULL_TEXT) != 0 ? null : new String(text, StandardCharsets.UTF_8),
+                (flags & NULL_TIME) != 0 ? null : timePostedEpoch,
+                (flags & NULL_VERSION) != 0 ? null : version);
+    }
+
+    private static byte[] textBytes(MessageView message){
+        return message.getMessageText() == null ? new byte[0] : message.getMessageText().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int flags(MessageView message){
+        return (message.getPostedBy() == null ? NULL_POSTED_BY : 0)
+                | (message.getMessageText() == null ? NULL_TEXT : 0)
+                | (message.getTimePostedEpoch() == null ? NULL_TIME : 0)
+                | (message.getVersion() == null ? NULL_VERSION : 0);
+    }
+
+    private static Message toMessage(MessageView message){
+        return message == null ? null : message.toMessage();
+    }
+
+    /**
+     * A growable list of primitive ints, holding the message IDs of one author.
+     */
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        private void add(int value){
+            if(size == items.length){
+                items = Arrays.copyOf(items, size << 1);
+            }
+            items[size++] = value;
+        }
+
+        private void remove(int value){
+            for(int i = 0; i < size; i++){
+                if(items[i] == value){
+                    System.arraycopy(items, i + 1, items, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.repository;
+
+import java.util.Arrays;
+
+/**
+ * IntIntHashMap is an open-addressing hash map from primitive int keys to non-negative int values, laid out
+ * like IntObjectHashMap but with both keys and values unboxed. A free slot holds the value -1. It is not
+ * thread-safe.
+ */
+final class IntIntHashMap {
+    static final int MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeAt;
+
+    IntIntHashMap(int expectedSize){
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR) - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size(){
+        return size;
+    }
+
+    int get(int key){
+        for(int slot = slot(key); values[slot] != MISSING; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    int put(int key, int value){
+        int slot = slot(key);
+        for(; values[slot] != MISSING; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size > resizeAt){
+            rehash(keys.length << 1);
+        }
+        return MISSING;
+    }
+
+    int remove(int key){
+        for(int slot = slot(key); values[slot] != MISSING; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return MISSING;
+    }
+
+    private void shiftBack(int hole){
+        for(int slot = (hole + 1) & mask; values[slot] != MISSING; slot = (slot + 1) & mask){
+            int home = slot(keys[slot]);
+            boolean reachable = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if(!reachable){
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        values[hole] = MISSING;
+    }
+
+    private int slot(int key){
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void rehash(int capacity){
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for(int i = 0; i < oldValues.length; i++){
+            if(oldValues[i] != MISSING){
+                int slot = slot(oldKeys[i]);
+                while(values[slot] != MISSING){
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity){
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * IntObjectHashMap is an open-addressing hash map from primitive int keys to non-null values. Keys are kept
+ * unboxed in a flat array and probed linearly, and removals shift the following entries back instead of
+ * leaving tombstones. It is not thread-safe.
+ */
+final class IntObjectHashMap<V> {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeAt;
+
+    IntObjectHashMap(int expectedSize){
+        int capacity = Integer.highestOneBit(Math.max(8, (int) (expectedSize / LOAD_FACTOR) - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size(){
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key){
+        for(int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(int key, V value){
+        int slot = slot(key);
+        for(; values[slot] != null; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size > resizeAt){
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int key){
+        for(int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask){
+            if(keys[slot] == key){
+                V previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action){
+        for(Object value : values){
+            if(value != null){
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private void shiftBack(int hole){
+        for(int slot = (hole + 1) & mask; values[slot] != null; slot = (slot + 1) & mask){
+            int home = slot(keys[slot]);
+            boolean reachable = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if(!reachable){
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private int slot(int key){
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void rehash(int capacity){
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for(int i = 0; i < oldValues.length; i++){
+            if(oldValues[i] != null){
+                int slot = slot(oldKeys[i]);
+                while(values[slot] != null){
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity){
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
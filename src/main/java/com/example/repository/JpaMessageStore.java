@@ -0,0 +1,193 @@
+package com.example.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+
+/**
+ * JpaMessageStore keeps messages in the message table through the MessageRepository. It is the default
+ * MessageStore. With message.delete.mode=soft a delete only stamps the row with its deletion time, leaving the row
+ * and its index entries for the MessagePurger to remove in the background.
+ */
+@Repository
+@ConditionalOnProperty(name = "message.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaMessageStore implements MessageStore {
+    private MessageRepository messageRepository;
+    private boolean softDelete;
+
+    /**
+     * Constructs a JpaMessageStore over the given MessageRepository.
+     * 
+     * @param messageRepository the repository holding the messages
+     * @param deleteMode hard to delete rows as messages are deleted, or soft to leave tombstones
+     */
+    @Autowired
+    public JpaMessageStore(MessageRepository messageRepository, @Value("${message.delete.mode:hard}") String deleteMode){
+        this.messageRepository = messageRepository;
+        this.softDelete = "soft".equalsIgnoreCase(deleteMode);
+    }
+
+    @Override
+    public Message save(Message message){
+        return messageRepository.save(message);
+    }
+
+    /**
+     * Loads the message and checks its version, then flushes the new text, which Hibernate writes with an update
+     * conditional on the version it read. A writer that committed in between makes that update fail.
+     */
+    @Override
+    @Transactional
+    public Message updateText(int messageId, String messageText, Integer expectedVersion){
+        Message message = findById(messageId).orElse(null);
+        if(message == null){
+            return null;
+        }
+        if(expectedVersion != null && !expectedVersion.equals(message.getVersion())){
+            throw new ObjectOptimisticLockingFailureException(Message.class, messageId);
+        }
+        message.setMessageText(messageText);
+        messageRepository.flush();
+        return message;
+    }
+
+    @Override
+    public Optional<Message> findById(int messageId){
+        return messageRepository.findById(messageId).filter(message -> message.getDeletedEpoch() == null);
+    }
+
+    /**
+     * Loads by ID bypass the deleted filter of the queries, so tombstones are blanked out here.
+     */
+    @Override
+    public List<Message> findAllByIdInOrder(List<Integer> messageIds){
+        List<Message> messages = messageRepository.findAllByIdInOrder(messageIds);
+        messages.replaceAll(message -> message == null || message.getDeletedEpoch() != null ? null : message);
+        return messages;
+    }
+
+    @Override
+    public List<MessageView> getMessageViews(){
+        return messageRepository.getMessageViews();
+    }
+
+    @Override
+    public List<MessageView> getMessageViews(int accountId){
+        return messageRepository.getMessageViews(accountId);
+    }
+
+    @Override
+    public List<MessageView> getMessageViewsBetween(long since, long until){
+        return messageRepository.getMessageViewsBetween(since, until);
+    }
+
+    @Override
+    public List<MessageView> getMessageViewsBetween(int accountId, long since, long until){
+        return messageRepository.getMessageViewsBetween(accountId, since, until);
+    }
+
+    @Override
+    public List<MessageView> getSparseMessageViews(Set<MessageField> fields, Integer accountId, long since, long until){
+        return messageRepository.getSparseMessageViews(fields, accountId, since, until);
+    }
+
+    @Override
+    public List<Integer> getMessageIds(){
+        return messageRepository.getMessageIds();
+    }
+
+    @Override
+    public List<Integer> getMessageIds(int accountId){
+        return messageRepository.getMessageIds(accountId);
+    }
+
+    @Override
+    public List<Integer> getMessageIdsBetween(long since, long until){
+        return messageRepository.getMessageIdsBetween(since, until);
+    }
+
+    @Override
+    public List<Integer> getMessageIdsBetween(int accountId, long since, long until){
+        return messageRepository.getMessageIdsBetween(accountId, since, until);
+    }
+
+    /**
+     * Locks the messages first, as deleteByPostedBy does, and deletes them in the same transaction.
+     */
+    @Override
+    @Transactional
+    public List<Message> moveMessagesBefore(long cutoff, int limit, Consumer<List<Message>> destination){
+        List<Message> messages = messageRepository.lockMessagesBefore(cutoff, PageRequest.of(0, limit));
+        if(!messages.isEmpty()){
+            destination.accept(messages);
+            messageRepository.deleteAllInBatch(messages);
+        }
+        return messages;
+    }
+
+    /**
+     * A soft delete is a single statement setting the deletion time, conditional on the version like any other
+     * update, so of two concurrent deletes only one succeeds and the other fails as a lost race.
+     */
+    @Override
+    public void delete(Message message){
+        if(softDelete){
+            int version = message.getVersion() == null ? 0 : message.getVersion();
+            if(messageRepository.softDeleteById(message.getMessageId(), version, Instant.now().getEpochSecond()) == 0){
+                throw new ObjectOptimisticLockingFailureException(Message.class, message.getMessageId());
+            }
+        }else{
+            messageRepository.delete(message);
+        }
+    }
+
+    /**
+     * Locks the messages first, so their versions are current, then deletes them with a single statement.
+     */
+    @Override
+    @Transactional
+    public List<MessageView> deleteByPostedBy(int accountId, long since, long until, int limit){
+        Pageable page = PageRequest.of(0, limit);
+        List<Message> messages = since == Long.MIN_VALUE && until == Long.MAX_VALUE
+                ? messageRepository.lockMessages(accountId, page)
+                : messageRepository.lockMessagesBetween(accountId, since, until, page);
+        if(messages.isEmpty()){
+            return List.of();
+        }
+        List<Integer> messageIds = new ArrayList<>(messages.size());
+        List<MessageView> views = new ArrayList<>(messages.size());
+        for(Message message : messages){
+            messageIds.add(message.getMessageId());
+            views.add(MessageView.from(message));
+        }
+        if(softDelete){
+            messageRepository.softDeleteAllById(messageIds, Instant.now().getEpochSecond());
+        }else{
+            messageRepository.bulkDeleteByIds(messageIds);
+        }
+        return views;
+    }
+
+    @Override
+    @Transactional
+    public int purgeDeleted(int limit){
+        List<Integer> messageIds = messageRepository.getDeletedMessageIds(PageRequest.of(0, limit));
+        return messageIds.isEmpty() ? 0 : messageRepository.purgeDeleted(messageIds);
+    }
+}
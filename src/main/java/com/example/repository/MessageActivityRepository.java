@@ -0,0 +1,63 @@
+package com.example.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.ActivityBucket;
+import com.example.entity.MessageActivity;
+
+import java.util.List;
+
+/**
+ * MessageActivityRepository is a Spring Data JPA repository for the message_activity rollup, which counts the
+ * messages of each account per time bucket.
+ */
+public interface MessageActivityRepository extends JpaRepository<MessageActivity, MessageActivity.Key> {
+
+    /**
+     * Creates an empty bucket unless it already exists. Two callers may race to create the same bucket, in which
+     * case one of them fails on the primary key.
+     * 
+     * @param accountId the ID of the account
+     * @param bucketSeconds the length of the bucket in seconds
+     * @param bucketStart the epoch second the bucket starts at
+     * @return the number of buckets created, 0 or 1
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into message_activity (accountId, bucketSeconds, bucketStart, postCount) "
+            + "select :accountId, :bucketSeconds, :bucketStart, 0 from dual where not exists "
+            + "(select 1 from message_activity where accountId = :accountId and bucketSeconds = :bucketSeconds and bucketStart = :bucketStart)",
+            nativeQuery = true)
+    int createBucket(@Param("accountId") int accountId, @Param("bucketSeconds") int bucketSeconds, @Param("bucketStart") long bucketStart);
+
+    /**
+     * Adds to the count of an existing bucket.
+     * 
+     * @param accountId the ID of the account
+     * @param bucketSeconds the length of the bucket in seconds
+     * @param bucketStart the epoch second the bucket starts at
+     * @param delta the number of messages to add, negative to remove
+     * @return the number of buckets updated, 0 if it does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query("update MessageActivity a set a.postCount = a.postCount + :delta "
+            + "where a.accountId = :accountId and a.bucketSeconds = :bucketSeconds and a.bucketStart = :bucketStart")
+    int addToBucket(@Param("accountId") int accountId, @Param("bucketSeconds") int bucketSeconds, @Param("bucketStart") long bucketStart,
+                    @Param("delta") int delta);
+
+    /**
+     * Retrieves the non-empty buckets of one length for an account, oldest first.
+     * 
+     * @param accountId the ID of the account
+     * @param bucketSeconds the length of the buckets in seconds
+     * @return the start and count of each bucket
+     */
+    @Query("select new com.example.dto.ActivityBucket(a.bucketStart, a.postCount) from MessageActivity a "
+            + "where a.accountId = :accountId and a.bucketSeconds = :bucketSeconds and a.postCount > 0 order by a.bucketStart")
+    List<ActivityBucket> getBuckets(@Param("accountId") int accountId, @Param("bucketSeconds") int bucketSeconds);
+}
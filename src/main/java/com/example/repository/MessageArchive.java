@@ -0,0 +1,425 @@
+package com.example.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.example.entity.Message;
+
+/**
+ * MessageArchive is the cold storage tier for messages that have aged out of the message table.
+ * Messages are appended in deflate-compressed blocks to append-only segment files on local disk. An in-memory
+ * index by messageId and postedBy, rebuilt from the segments on startup, locates the block holding each message.
+ * Deleting archived messages appends a tombstone block naming them, which drops them from the index now and
+ * again whenever the index is rebuilt, so no read returns them.
+ */
+@Repository
+public class MessageArchive {
+    private static final int BLOCK_MAGIC = 0x4d415243;
+    private static final int TOMBSTONE_MAGIC = 0x4d415244;
+    private static final int BLOCK_HEADER_BYTES = 20;
+    private static final int MAX_BLOCK_RECORDS = 128;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".arc";
+
+    private static final int NULL_POSTED_BY = 1;
+    private static final int NULL_TEXT = 2;
+    private static final int NULL_TIME = 4;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+
+    private final Map<Integer, Long> blockById = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> idsByAuthor = new ConcurrentHashMap<>();
+    private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+    private int activeSegment;
+
+    /**
+     * Constructs a MessageArchive over the configured directory.
+     *
+     * @param enabled whether the archive tier is enabled; a disabled archive is always empty and never touches disk
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size in bytes after which a new segment file is started
+     */
+    public MessageArchive(@Value("${message.archive.enabled:false}") boolean enabled,
+                          @Value("${message.archive.directory:archive}") String directory,
+                          @Value("${message.archive.segment-size:67108864}") long segmentSize){
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = Math.min(segmentSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Opens the existing segment files and rebuilds the index from them. A torn block at the end of the
+     * newest segment, left behind by a crash mid-append, is truncated away.
+     *
+     * @throws IOException if the segment files cannot be read
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if(!enabled){
+            return;
+        }
+        Files.createDirectories(directory);
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)){
+            for(Path file : stream){
+                String name = file.getFileName().toString();
+                files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        for(Map.Entry<Integer, Path> file : files.entrySet()){
+            int segment = file.getKey();
+            FileChannel channel = FileChannel.open(file.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(segment, channel);
+            long offset = 0;
+            Block block;
+            while((block = readBlock(channel, offset)) != null){
+                if(block.tombstone){
+                    unindex(block.messages);
+                }else{
+                    index(block.messages, location(segment, offset));
+                }
+                offset += block.length;
+            }
+            if(offset < channel.size()){
+                channel.truncate(offset);
+            }
+        }
+        activeSegment = files.isEmpty() ? 0 : files.lastKey();
+        if(files.isEmpty()){
+            roll();
+        }
+    }
+
+    /**
+     * Closes all open segment files.
+     *
+     * @throws IOException if a segment file cannot be closed
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for(FileChannel channel : segments.values()){
+            channel.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * Returns whether the archive tier is enabled.
+     *
+     * @return true if messages may be archived and read back from disk
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends messages to the archive and forces them to disk before returning, so that the caller may then
+     * remove them from the message table.
+     *
+     * @param messages the messages to archive
+     * @throws IOException if the messages cannot be written
+     */
+    public synchronized void append(List<Message> messages) throws IOException {
+        if(!enabled){
+            throw new IllegalStateException("message archive is disabled");
+        }
+        for(int from = 0; from < messages.size(); from += MAX_BLOCK_RECORDS){
+            List<Message> block = messages.subList(from, Math.min(from + MAX_BLOCK_RECORDS, messages.size()));
+            index(block, write(encodeBlock(block, BLOCK_MAGIC)));
+        }
+    }
+
+    /**
+     * Deletes archived messages by appending tombstones for them, forced to disk before the messages are dropped
+     * from the index. Only the ID and author of each message are written to the tombstone. Messages that are not
+     * in the archive, or have already been deleted, are skipped.
+     *
+     * @param messages the archived messages to delete
+     * @return the messages that were deleted
+     * @throws IOException if the tombstones cannot be written
+     */
+    public synchronized List<Message> delete(List<Message> messages) throws IOException {
+        List<Message> deleted = new ArrayList<>();
+        List<Message> tombstones = new ArrayList<>();
+        for(Message message : messages){
+            if(blockById.containsKey(message.getMessageId())){
+                deleted.add(message);
+                tombstones.add(new Message(message.getMessageId(), message.getPostedBy(), null, null));
+            }
+        }
+        for(int from = 0; from < tombstones.size(); from += MAX_BLOCK_RECORDS){
+            write(encodeBlock(tombstones.subList(from, Math.min(from + MAX_BLOCK_RECORDS, tombstones.size())), TOMBSTONE_MAGIC));
+        }
+        unindex(tombstones);
+        return deleted;
+    }
+
+    /**
+     * Retrieves an archived message by its ID.
+     *
+     * @param messageId the ID of the message to retrieve
+     * @return the archived Message, or null if it is not in the archive
+     */
+    public Message find(int messageId){
+        Long location = blockById.get(messageId);
+        if(location == null){
+            return null;
+        }
+        for(Message message : readBlock(location)){
+            if(message.getMessageId() == messageId){
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves all archived messages posted by a specific account.
+     *
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @return a list of archived messages posted by the specified account, oldest first
+     */
+    public List<Message> findByPostedBy(int accountId){
+        int[] ids = idsByAuthor.get(accountId);
+        if(ids == null){
+            return new ArrayList<>();
+        }
+        Map<Long, List<Integer>> idsByBlock = new LinkedHashMap<>();
+        for(int id : ids){
+            Long location = blockById.get(id);
+            if(location != null){
+                idsByBlock.computeIfAbsent(location, k -> new ArrayList<>()).add(id);
+            }
+        }
+        List<Message> messages = new ArrayList<>();
+        for(Map.Entry<Long, List<Integer>> block : idsByBlock.entrySet()){
+            for(Message message : readBlock(block.getKey())){
+                if(block.getValue().contains(message.getMessageId())){
+                    messages.add(message);
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Writes an encoded block to the end of the active segment, rolling to a new one if it would not fit, and
+     * forces it to disk.
+     *
+     * @return the location of the block
+     */
+    private long write(ByteBuffer encoded) throws IOException {
+        FileChannel channel = segments.get(activeSegment);
+        long offset = channel.size();
+        if(offset > 0 && offset + encoded.remaining() > segmentSize){
+            channel.force(false);
+            channel = roll();
+            offset = 0;
+        }
+        long position = offset;
+        while(encoded.hasRemaining()){
+            position += channel.write(encoded, position);
+        }
+        channel.force(false);
+        return location(activeSegment, offset);
+    }
+
+    private FileChannel roll() throws IOException {
+        activeSegment++;
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, activeSegment, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(activeSegment, channel);
+        return channel;
+    }
+
+    private void index(List<Message> messages, long location){
+        for(Message message : messages){
+            int messageId = message.getMessageId();
+            blockById.put(messageId, location);
+            if(message.getPostedBy() != null){
+                idsByAuthor.compute(message.getPostedBy(), (author, ids) -> {
+                    if(ids == null){
+                        return new int[]{messageId};
+                    }
+                    for(int id : ids){
+                        if(id == messageId){
+                            return ids;
+                        }
+                    }
+                    int[] grown = Arrays.copyOf(ids, ids.length + 1);
+                    grown[ids.length] = messageId;
+                    return grown;
+                });
+            }
+        }
+    }
+
+    private void unindex(List<Message> messages){
+        for(Message message : messages){
+            int messageId = message.getMessageId();
+            blockById.remove(messageId);
+            if(message.getPostedBy() != null){
+                idsByAuthor.computeIfPresent(message.getPostedBy(), (author, ids) -> {
+                    int[] remaining = Arrays.stream(ids).filter(id -> id != messageId).toArray();
+                    return remaining.length == 0 ? null : remaining;
+                });
+            }
+        }
+    }
+
+    private List<Message> readBlock(long location){
+        FileChannel channel = segments.get((int) (location >>> 32));
+        try{
+            Block block = channel == null ? null : readBlock(channel, location & 0xffffffffL);
+            if(block == null){
+                throw new IOException("corrupt archive block at " + Long.toHexString(location));
+            }
+            return block.messages;
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long location(int segment, long offset){
+        return ((long) segment << 32) | offset;
+    }
+
+    private static ByteBuffer encodeBlock(List<Message> messages, int magic) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(raw);
+        for(Message message : messages){
+            int flags = (message.getPostedBy() == null ? NULL_POSTED_BY : 0)
+                    | (message.getMessageText() == null ? NULL_TEXT : 0)
+                    | (message.getTimePostedEpoch() == null ? NULL_TIME : 0);
+            out.writeInt(message.getMessageId());
+            out.writeByte(flags);
+            out.writeInt(message.getPostedBy() == null ? 0 : message.getPostedBy());
+            out.writeLong(message.getTimePostedEpoch() == null ? 0 : message.getTimePostedEpoch());
+            byte[] text = message.getMessageText() == null ? new byte[0] : message.getMessageText().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(text.length);
+            out.write(text);
+        }
+        out.flush();
+        byte[] rawBytes = raw.toByteArray();
+
+        Deflater deflater = new Deflater();
+        deflater.setInput(rawBytes);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(rawBytes.length / 2 + 64);
+        byte[] chunk = new byte[4096];
+        while(!deflater.finished()){
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        byte[] compressedBytes = compressed.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(compressedBytes);
+
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + compressedBytes.length);
+        block.putInt(magic).putInt(messages.size()).putInt(rawBytes.length).putInt(compressedBytes.length)
+                .putInt((int) crc.getValue()).put(compressedBytes).flip();
+        return block;
+    }
+
+    private static Block readBlock(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        if(!readFully(channel, header, offset) || (header.getInt(0) != BLOCK_MAGIC && header.getInt(0) != TOMBSTONE_MAGIC)){
+            return null;
+        }
+        int count = header.getInt(4);
+        int rawLength = header.getInt(8);
+        int compressedLength = header.getInt(12);
+        int checksum = header.getInt(16);
+        if(count < 0 || rawLength < 0 || compressedLength < 0 || offset + BLOCK_HEADER_BYTES + compressedLength > channel.size()){
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(compressedLength);
+        if(!readFully(channel, payload, offset + BLOCK_HEADER_BYTES)){
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if((int) crc.getValue() != checksum){
+            return null;
+        }
+
+        byte[] rawBytes = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try{
+            inflater.setInput(payload.array());
+            inflater.inflate(rawBytes);
+        }catch(DataFormatException e){
+            return null;
+        }finally{
+            inflater.end();
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(rawBytes));
+        List<Message> messages = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            int messageId = in.readInt();
+            int flags = in.readByte();
+            int postedBy = in.readInt();
+            long timePostedEpoch = in.readLong();
+            byte[] text = new byte[in.readUnsignedShort()];
+            in.readFully(text);
+            messages.add(new Message(messageId,
+                    (flags & NULL_POSTED_BY) != 0 ? null : postedBy,
+                    (flags & NULL_TEXT) != 0 ? null : new String(text, StandardCharsets.UTF_8),
+                    (flags & NULL_TIME) != 0 ? null : timePostedEpoch));
+        }
+        return new Block(messages, BLOCK_HEADER_BYTES + compressedLength, header.getInt(0) == TOMBSTONE_MAGIC);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, offset + buffer.position()) < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Block {
+        private final List<Message> messages;
+        private final long length;
+        private final boolean tombstone;
+
+        private Block(List<Message> messages, long length, boolean tombstone){
+            this.messages = messages;
+            this.length = length;
+            this.tombstone = tombstone;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.example.dto.JournalBatch;
+import com.example.dto.JournalRecord;
+import com.example.dto.MessageView;
+import com.example.event.MessageChangedEvent;
+import com.example.exception.InvalidJournalOffsetException;
+
+/**
+ * MessageJournal is an append-only log of every change made to a message, for consumers that need to follow
+ * the message table without querying it. Records are written straight into memory-mapped segment files, and
+ * a record's offset is its byte position in the journal as a whole. Each segment starts with a header giving
+ * the format of its records, and is named after its own offset, so a consumer's offset leads directly to the
+ * segment and position to read from; reading from the offset of a segment reads from its first record. Every
+ * record carries the version of the message, since records are appended after each commit by the committing
+ * thread, and two changes of one message may be journaled in the opposite order to their commits; a consumer
+ * should skip a record whose version is not newer than the last one it applied for that message.
+ */
+@Repository
+public class MessageJournal {
+    private static final int SEGMENT_MAGIC = 0x4d4a524e;
+    private static final int SEGMENT_FORMAT = 2;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int RECORD_FIXED_BYTES = 1 + 8 + 4 + 1 + 4 + 8 + 4 + 2;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int NULL_POSTED_BY = 1;
+    private static final int NULL_TEXT = 2;
+    private static final int NULL_TIME = 4;
+    private static final int NULL_VERSION = 8;
+
+    private static final MessageChangedEvent.Type[] TYPES = MessageChangedEvent.Type.values();
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceWrites;
+
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Segment active;
+    private volatile long endOffset;
+
+    /**
+     * Constructs a MessageJournal over the configured directory.
+     *
+     * @param enabled whether the journal is enabled; a disabled journal is always empty and never touches disk
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size in bytes of each memory-mapped segment file
+     * @param forceWrites whether every append is forced to the storage device before returning
+     */
+    public MessageJournal(@Value("${message.journal.enabled:false}") boolean enabled,
+                          @Value("${message.journal.directory:journal}") String directory,
+                          @Value("${message.journal.segment-size:16777216}") int segmentSize,
+                          @Value("${message.journal.force-writes:false}") boolean forceWrites){
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Maps the existing segment files and finds the end of the journal. A torn record at the end of the
+     * newest segment, left behind by a crash mid-append, is zeroed out.
+     *
+     * @throws IOException if the segment files cannot be mapped, or one is not in the current format
+     */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if(!enabled){
+            return;
+        }
+        Files.createDirectories(directory);
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)){
+            for(Path file : stream){
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = new Segment(base, file, Files.size(file));
+                segment.checkHeader();
+                segment.recover();
+                segments.put(base, segment);
+            }
+        }
+        if(segments.isEmpty()){
+            active = roll(0);
+        }else{
+            active = segments.lastEntry().getValue();
+            active.clearTail();
+        }
+        endOffset = active.base + active.limit;
+    }
+
+    /**
+     * Closes all mapped segment files.
+     *
+     * @throws IOException if a segment file cannot be closed
+     */
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        for(Segment segment : segments.values()){
+            segment.channel.close();
+        }
+    }
+
+    /**
+     * Returns whether the journal is enabled.
+     *
+     * @return true if changes are journaled to disk
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the oldest offset still retained.
+     *
+     * @return the offset of the first record of the oldest segment
+     */
+    public long getStartOffset(){
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? 0 : first.getKey();
+    }
+
+    /**
+     * Returns the offset the next record will be appended at.
+     *
+     * @return the end of the journal
+     */
+    public long getEndOffset(){
+        return endOffset;
+    }
+
+    /**
+     * Appends a change record to the journal.
+     *
+     * @param type the kind of change
+     * @param timestamp when the change was made, in epoch milliseconds
+     * @param message the message after the change, or as it was before deletion
+     * @return the offset the record was written at
+     * @throws IOException if a new segment file cannot be created
+     */
+    public synchronized long append(MessageChangedEvent.Type type, long timestamp, MessageView message) throws IOException {
+        if(!enabled){
+            throw new IllegalStateException("message journal is disabled");
+        }
+        byte[] text = message.getMessageText() == null ? new byte[0] : message.getMessageText().getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_FIXED_BYTES + text.length;
+        if(SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES + length > segmentSize){
+            throw new IllegalArgumentException("journal record does not fit in a segment");
+        }
+        if(active.limit + RECORD_HEADER_BYTES + length > active.capacity){
+            if(forceWrites){
+                active.buffer.force();
+            }
+            active = roll(active.base + active.limit);
+        }
+
+        ByteBuffer body = active.buffer.duplicate();
+        body.position(active.limit + RECORD_HEADER_BYTES);
+        int flags = (message.getPostedBy() == null ? NULL_POSTED_BY : 0)
+                | (message.getMessageText() == null ? NULL_TEXT : 0)
+                | (message.getTimePostedEpoch() == null ? NULL_TIME : 0)
+                | (message.getVersion() == null ? NULL_VERSION : 0);
+        body.put((byte) type.ordinal())
+                .putLong(timestamp)
+                .putInt(message.getMessageId())
+                .put((byte) flags)
+                .putInt(message.getPostedBy() == null ? 0 : message.getPostedBy())
+                .putLong(message.getTimePostedEpoch() == null ? 0 : message.getTimePostedEpoch())
+                .putInt(message.getVersion() == null ? 0 : message.getVersion())
+                .putShort((short) text.length)
+                .put(text);
+        body.limit(body.position()).position(active.limit + RECORD_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        // The length is written last, so a reader that sees it also sees a complete record.
+        active.buffer.putInt(active.limit + 4, (int) crc.getValue());
+        active.buffer.putInt(active.limit, length);
+        if(forceWrites){
+            active.buffer.force();
+        }
+
+        long offset = active.base + active.limit;
+        active.limit += RECORD_HEADER_BYTES + length;
+        active.lastTimestamp = timestamp;
+        endOffset = active.base + active.limit;
+        return offset;
+    }
+
+    /**
+     * Reads records from the journal, following on into newer segments as each one is exhausted.
+     *
+     * @param offset the offset of the first record to read
+     * @param maxRecords the maximum number of records to read
+     * @return the records read, in journal order, and the offset to continue from; empty at the end of the journal
+     * @throws InvalidJournalOffsetException if the offset does not start a record or has been removed by retention
+     */
+    public JournalBatch read(long offset, int maxRecords) throws InvalidJournalOffsetException {
+        long end = endOffset;
+        List<JournalRecord> records = new ArrayList<>();
+        if(!enabled || offset == end){
+            return new JournalBatch(getStartOffset(), end, offset, records);
+        }
+        if(offset < 0 || offset > end){
+            throw new InvalidJournalOffsetException(false);
+        }
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        if(entry == null){
+            throw new InvalidJournalOffsetException(true);
+        }
+        Segment segment = entry.getValue();
+        int position = offset == segment.base ? SEGMENT_HEADER_BYTES : (int) (offset - segment.base);
+        while(records.size() < maxRecords){
+            if(position >= segment.limit){
+                Map.Entry<Long, Segment> next = segments.higherEntry(segment.base);
+                if(next == null){
+                    break;
+                }
+                segment = next.getValue();
+                position = SEGMENT_HEADER_BYTES;
+                continue;
+            }
+            JournalRecord record = segment.read(position);
+            if(record == null){
+                throw new InvalidJournalOffsetException(false);
+            }
+            records.add(record);
+            position += RECORD_HEADER_BYTES + segment.buffer.getInt(position);
+        }
+        return new JournalBatch(getStartOffset(), end, segment.base + position, records);
+    }
+
+    /**
+     * Removes the oldest segments until the journal is within the given size, and every segment whose newest
+     * record is older than the given time. The segment being appended to is never removed.
+     *
+     * @param maxBytes the maximum number of record bytes to retain
+     * @param minTimestamp the epoch millisecond time before which whole segments are removed
+     * @return the number of segments removed
+     * @throws IOException if a segment file cannot be deleted
+     */
+    public int enforceRetention(long maxBytes, long minTimestamp) throws IOException {
+        Segment current;
+        synchronized(this){
+            current = active;
+        }
+        long retained = 0;
+        for(Segment segment : segments.values()){
+            retained += segment.limit;
+        }
+        int removed = 0;
+        for(Segment segment : segments.values()){
+            if(segment == current || (retained <= maxBytes && segment.lastTimestamp >= minTimestamp)){
+                break;
+            }
+            segments.remove(segment.base);
+            retained -= segment.limit;
+            // Readers still holding the mapping keep working; the pages are released once it is unreachable.
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+            removed++;
+        }
+        return removed;
+    }
+
+    private Segment roll(long base) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, base, SEGMENT_SUFFIX));
+        Segment segment = new Segment(base, file, segmentSize);
+        segment.writeHeader();
+        segments.put(base, segment);
+        return segment;
+    }
+
+    private static final class Segment {
+        private final long base;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private volatile int limit;
+        private volatile long lastTimestamp;
+
+        private Segment(long base, Path file, long size) throws IOException {
+            this.base = base;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.capacity = (int) Math.min(Integer.MAX_VALUE, size);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        private void writeHeader(){
+            buffer.putInt(0, SEGMENT_MAGIC);
+            buffer.putInt(4, SEGMENT_FORMAT);
+            limit = SEGMENT_HEADER_BYTES;
+        }
+
+        private void checkHeader() throws IOException {
+            if(capacity < SEGMENT_HEADER_BYTES || buffer.getInt(0) != SEGMENT_MAGIC || buffer.getInt(4) != SEGMENT_FORMAT){
+                throw new IOException("not a message journal segment in format " + SEGMENT_FORMAT + ": " + file);
+            }
+        }
+
+        private void recover(){
+            int position = SEGMENT_HEADER_BYTES;
+            JournalRecord record;
+            while((record = read(position)) != null){
+                lastTimestamp = record.getTimestamp();
+                position += RECORD_HEADER_BYTES + buffer.getInt(position);
+            }
+            limit = position;
+            if(lastTimestamp == 0){
+                lastTimestamp = System.currentTimeMillis();
+            }
+        }
+
+        private void clearTail(){
+            int end = (int) Math.min(capacity, (long) limit + RECORD_HEADER_BYTES + RECORD_FIXED_BYTES + 0xffff);
+            for(int position = limit; position < end; position++){
+                buffer.put(position, (byte) 0);
+            }
+        }
+
+        private JournalRecord read(int position){
+            if(position < SEGMENT_HEADER_BYTES || position + RECORD_HEADER_BYTES > capacity){
+                return null;
+            }
+            int length = buffer.getInt(position);
+            if(length < RECORD_FIXED_BYTES || position + RECORD_HEADER_BYTES + length > capacity){
+                return null;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.limit(position + RECORD_HEADER_BYTES + length).position(position + RECORD_HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if((int) crc.getValue() != buffer.getInt(position + 4)){
+                return null;
+            }
+            int type = body.get();
+            long timestamp = body.getLong();
+            int messageId = body.getInt();
+            int flags = body.get();
+            int postedBy = body.getInt();
+            long timePostedEpoch = body.getLong();
+            int version = body.getInt();
+            int textLength = body.getShort() & 0xffff;
+            if(type < 0 || type >= TYPES.length || textLength != body.remaining()){
+                return null;
+            }
+            byte[] text = new byte[textLength];
+            body.get(text);
+            MessageView message = new MessageView(messageId,
+                    (flags & NULL_POSTED_BY) != 0 ? null : postedBy,
+                    (flags & NULL_TEXT) != 0 ? null : new String(text, StandardCharsets.UTF_8),
+                    (flags & NULL_TIME) != 0 ? null : timePostedEpoch,
+                    (flags & NULL_VERSION) != 0 ? null : version);
+            return new JournalRecord(base + position, TYPES[type], timestamp, message);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import com.example.dto.MessageView;
 import com.example.entity.Message;
 
 import java.util.List;
@@ -11,8 +19,9 @@ import java.util.List;
 /**
  * MessageRepository is a Spring Data JPA repository for managing Message entities.
  * It provides methods to perform CRUD operations and custom queries on the Message table.
+ * Every query except the purge queries leaves out soft-deleted messages.
  */
-public interface MessageRepository extends JpaRepository<Message, Integer> {
+public interface MessageRepository extends JpaRepository<Message, Integer>, MessageRepositoryCustom {
 
     /**
      * Retrieves all messages posted by a specific account.
@@ -20,9 +29,182 @@ public interface MessageRepository extends JpaRepository<Message, Integer> {
      * @param accountId the ID of the account whose messages are to be retrieved
      * @return a list of Message entities posted by the specified account
      */
-    @Query("from Message where postedBy = :accountId")
+    @Query("from Message where postedBy = :accountId and deletedEpoch is null")
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                 @QueryHint(name = "org.hibernate.cacheRegion", value = "message-queries")})
     List<Message> getAllMessages(@Param("accountId") int accountId);
 
+    /**
+     * Retrieves a read-only view of every message.
+     * 
+     * @return a list of MessageView projections of all messages
+     */
+    @Query("select new com.example.dto.MessageView(m.messageId, m.postedBy, m.messageText, m.timePostedEpoch, m.version) from Message m where m.deletedEpoch is null")
+    List<MessageView> getMessageViews();
+
+    /**
+     * Retrieves a read-only view of every message posted by a specific account.
+     * 
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @return a list of MessageView projections of the messages posted by the specified account
+     */
+    @Query("select new com.example.dto.MessageView(m.messageId, m.postedBy, m.messageText, m.timePostedEpoch, m.version) from Message m where m.postedBy = :accountId and m.deletedEpoch is null")
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                 @QueryHint(name = "org.hibernate.cacheRegion", value = "message-queries")})
+    List<MessageView> getMessageViews(@Param("accountId") int accountId);
+
+    /**
+     * Retrieves a read-only view of every message posted within a time range.
+     * 
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of MessageView projections of the messages posted within the range
+     */
+    @Query("select new com.example.dto.MessageView(m.messageId, m.postedBy, m.messageText, m.timePostedEpoch, m.version) from Message m where m.timePostedEpoch >= :since and m.timePostedEpoch < :until and m.deletedEpoch is null")
+    List<MessageView> getMessageViewsBetween(@Param("since") long since, @Param("until") long until);
+
+    /**
+     * Retrieves a read-only view of every message posted by a specific account within a time range.
+     * 
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of MessageView projections of the messages posted by the specified account within the range
+     */
+    @Query("select new com.example.dto.MessageView(m.messageId, m.postedBy, m.messageText, m.timePostedEpoch, m.version) from Message m where m.postedBy = :accountId and m.timePostedEpoch >= :since and m.timePostedEpoch < :until and m.deletedEpoch is null")
+    List<MessageView> getMessageViewsBetween(@Param("accountId") int accountId, @Param("since") long since, @Param("until") long until);
+
+    /**
+     * Retrieves the ID of every message, without reading the messages themselves.
+     * 
+     * @return a list of the IDs of all messages, in messageId order
+     */
+    @Query("select m.messageId from Message m where m.deletedEpoch is null order by m.messageId")
+    List<Integer> getMessageIds();
+
+    /**
+     * Retrieves the ID of every message posted by a specific account, from the postedBy index alone.
+     * 
+     * @param accountId the ID of the account whose message IDs are to be retrieved
+     * @return a list of the IDs of the messages posted by the specified account, in messageId order
+     */
+    @Query("select m.messageId from Message m where m.postedBy = :accountId and m.deletedEpoch is null order by m.messageId")
+    List<Integer> getMessageIds(@Param("accountId") int accountId);
+
+    /**
+     * Retrieves the ID of every message posted within a time range, from the timePostedEpoch index alone.
+     * 
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of the IDs of the messages posted within the range, in messageId order
+     */
+    @Query("select m.messageId from Message m where m.timePostedEpoch >= :since and m.timePostedEpoch < :until and m.deletedEpoch is null order by m.messageId")
+    List<Integer> getMessageIdsBetween(@Param("since") long since, @Param("until") long until);
+
+    /**
+     * Retrieves the ID of every message posted by a specific account within a time range, from the
+     * postedBy and timePostedEpoch index alone.
+     * 
+     * @param accountId the ID of the account whose message IDs are to be retrieved
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of the IDs of the messages posted by the specified account within the range, in messageId order
+     */
+    @Query("select m.messageId from Message m where m.postedBy = :accountId and m.timePostedEpoch >= :since and m.timePostedEpoch < :until and m.deletedEpoch is null order by m.messageId")
+    List<Integer> getMessageIdsBetween(@Param("accountId") int accountId, @Param("since") long since, @Param("until") long until);
+
+    /**
+     * Retrieves and locks the oldest messages posted before a cutoff, so that they can be archived and deleted
+     * without a concurrent edit or delete slipping in between.
+     * 
+     * @param cutoff the exclusive upper bound on timePostedEpoch
+     * @param pageable the page of messages to lock
+     * @return a list of Message entities posted before the cutoff, in messageId order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("from Message m where m.timePostedEpoch < :cutoff and m.deletedEpoch is null order by m.messageId")
+    List<Message> lockMessagesBefore(@Param("cutoff") long cutoff, Pageable pageable);
+
+    /**
+     * Retrieves and locks the oldest messages posted by a specific account, so that they can be deleted without
+     * a concurrent edit or delete slipping in between.
+     * 
+     * @param accountId the ID of the account whose messages are to be locked
+     * @param pageable the page of messages to lock
+     * @return a list of Message entities posted by the specified account, in messageId order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("from Message m where m.postedBy = :accountId and m.deletedEpoch is null order by m.messageId")
+    List<Message> lockMessages(@Param("accountId") int accountId, Pageable pageable);
+
+    /**
+     * Retrieves and locks the oldest messages posted by a specific account within a time range.
+     * 
+     * @param accountId the ID of the account whose messages are to be locked
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @param pageable the page of messages to lock
+     * @return a list of Message entities posted by the specified account within the range, in messageId order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("from Message m where m.postedBy = :accountId and m.timePostedEpoch >= :since and m.timePostedEpoch < :until and m.deletedEpoch is null order by m.messageId")
+    List<Message> lockMessagesBetween(@Param("accountId") int accountId, @Param("since") long since, @Param("until") long until, Pageable pageable);
+
+    /**
+     * Deletes several messages in one statement, unlike CrudRepository.deleteAllById, which loads and deletes
+     * them one at a time.
+     * 
+     * @param messageIds the IDs of the messages to delete
+     * @return the number of messages deleted
+     */
+    @Modifying
+    @Query("delete from Message m where m.messageId in :messageIds")
+    int bulkDeleteByIds(@Param("messageIds") List<Integer> messageIds);
+
+    /**
+     * Soft-deletes a message with a single-column update conditional on the version it was read at, incrementing
+     * the version so that an edit or delete that read it earlier fails.
+     * 
+     * @param messageId the ID of the message to soft-delete
+     * @param version the version the message must still have
+     * @param deletedEpoch the epoch second to stamp it with
+     * @return 1 if the message was soft-deleted, or 0 if it has changed or been deleted since it was read
+     */
+    @Modifying
+    @Query("update Message m set m.deletedEpoch = :deletedEpoch, m.version = m.version + 1 where m.messageId = :messageId and m.version = :version and m.deletedEpoch is null")
+    int softDeleteById(@Param("messageId") int messageId, @Param("version") int version, @Param("deletedEpoch") long deletedEpoch);
+
+    /**
+     * Soft-deletes several messages in one statement, incrementing their versions so that an edit or delete
+     * that read them earlier fails.
+     * 
+     * @param messageIds the IDs of the messages to soft-delete
+     * @param deletedEpoch the epoch second to stamp them with
+     * @return the number of messages soft-deleted
+     */
+    @Modifying
+    @Query("update Message m set m.deletedEpoch = :deletedEpoch, m.version = m.version + 1 where m.messageId in :messageIds and m.deletedEpoch is null")
+    int softDeleteAllById(@Param("messageIds") List<Integer> messageIds, @Param("deletedEpoch") long deletedEpoch);
+
+    /**
+     * Retrieves the IDs of the longest soft-deleted messages, from the deletedEpoch index alone.
+     * 
+     * @param pageable the page of IDs to retrieve
+     * @return a list of the IDs of soft-deleted messages, in deletion order
+     */
+    @Query("select m.messageId from Message m where m.deletedEpoch is not null order by m.deletedEpoch, m.messageId")
+    List<Integer> getDeletedMessageIds(Pageable pageable);
+
+    /**
+     * Removes the rows of soft-deleted messages.
+     * 
+     * @param messageIds the IDs of the messages to remove; any that are not soft-deleted are kept
+     * @return the number of rows removed
+     */
+    @Modifying
+    @Query("delete from Message m where m.deletedEpoch is not null and m.messageId in :messageIds")
+    int purgeDeleted(@Param("messageIds") List<Integer> messageIds);
+
     /**
      * Updates the text of a specific message.
      * 
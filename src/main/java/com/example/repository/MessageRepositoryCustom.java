@@ -0,0 +1,37 @@
+package com.example.repository;
+
+import java.util.List;
+import java.util.Set;
+
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+
+/**
+ * MessageRepositoryCustom declares the MessageRepository queries that cannot be expressed as Spring Data
+ * query methods. They are implemented by MessageRepositoryImpl.
+ */
+public interface MessageRepositoryCustom {
+
+    /**
+     * Retrieves the messages with the given IDs in a single round trip, serving any that are already in the
+     * second-level cache from there.
+     * 
+     * @param messageIds the IDs of the messages to retrieve
+     * @return a list aligned with messageIds, holding null wherever no such message exists
+     */
+    List<Message> findAllByIdInOrder(List<Integer> messageIds);
+
+    /**
+     * Retrieves views of messages holding only the selected fields, with a query that reads only the selected
+     * columns and the messageId.
+     * 
+     * @param fields the fields to read
+     * @param accountId the ID of the account whose messages are to be retrieved, or null for every account
+     * @param since the inclusive lower bound on timePostedEpoch, or Long.MIN_VALUE with until Long.MAX_VALUE for
+     *        no range at all
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of SparseMessageViews of the messages, in messageId order
+     */
+    List<MessageView> getSparseMessageViews(Set<MessageField> fields, Integer accountId, long since, long until);
+}
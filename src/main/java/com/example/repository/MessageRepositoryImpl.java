@@ -0,0 +1,96 @@
+package com.example.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.hibernate.Session;
+
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.dto.SparseMessageView;
+import com.example.entity.Message;
+
+/**
+ * MessageRepositoryImpl implements the MessageRepositoryCustom queries directly against the EntityManager.
+ * Spring Data merges it into the MessageRepository bean.
+ */
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Message> findAllByIdInOrder(List<Integer> messageIds){
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Message.class)
+                .withBatchSize(Math.max(1, messageIds.size()))
+                .enableOrderedReturn(true)
+                .multiLoad(messageIds);
+    }
+
+    /**
+     * Builds the select list from the fields with the Criteria API. The filter values are bound as parameters,
+     * so each combination of fields and filters compiles to one statement however the values vary.
+     */
+    @Override
+    public List<MessageView> getSparseMessageViews(Set<MessageField> fields, Integer accountId, long since, long until){
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Message> message = query.from(Message.class);
+        Path<Integer> messageId = message.get(MessageField.MESSAGE_ID.getName());
+
+        List<Selection<?>> columns = new ArrayList<>();
+        columns.add(messageId);
+        for(MessageField field : fields){
+            if(field != MessageField.MESSAGE_ID){
+                columns.add(message.get(field.getName()).alias(field.getName()));
+            }
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.isNull(message.get("deletedEpoch")));
+        ParameterExpression<Integer> postedBy = builder.parameter(Integer.class);
+        if(accountId != null){
+            predicates.add(builder.equal(message.get(MessageField.POSTED_BY.getName()), postedBy));
+        }
+        boolean ranged = since != Long.MIN_VALUE || until != Long.MAX_VALUE;
+        ParameterExpression<Long> from = builder.parameter(Long.class);
+        ParameterExpression<Long> to = builder.parameter(Long.class);
+        if(ranged){
+            Path<Long> timePostedEpoch = message.get(MessageField.TIME_POSTED_EPOCH.getName());
+            predicates.add(builder.greaterThanOrEqualTo(timePostedEpoch, from));
+            predicates.add(builder.lessThan(timePostedEpoch, to));
+        }
+        query.multiselect(columns).where(predicates.toArray(new Predicate[0])).orderBy(builder.asc(messageId));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if(accountId != null){
+            typedQuery.setParameter(postedBy, accountId);
+        }
+        if(ranged){
+            typedQuery.setParameter(from, since).setParameter(to, until);
+        }
+        List<Tuple> rows = typedQuery.getResultList();
+        List<MessageView> views = new ArrayList<>(rows.size());
+        for(Tuple row : rows){
+            views.add(new SparseMessageView(row.get(0, Integer.class),
+                    fields.contains(MessageField.POSTED_BY) ? row.get(MessageField.POSTED_BY.getName(), Integer.class) : null,
+                    fields.contains(MessageField.MESSAGE_TEXT) ? row.get(MessageField.MESSAGE_TEXT.getName(), String.class) : null,
+                    fields.contains(MessageField.TIME_POSTED_EPOCH) ? row.get(MessageField.TIME_POSTED_EPOCH.getName(), Long.class) : null,
+                    fields));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+
+/**
+ * MessageStore is the storage engine that MessageService keeps messages in. It mirrors the MessageRepository
+ * operations the service relies on, so that the JPA repository and the in-memory engine are interchangeable.
+ * The engine is selected with the message.store property: jpa (the default) or memory. An engine may delete a
+ * message by leaving a tombstone that no read returns, which purgeDeleted later removes.
+ */
+public interface MessageStore {
+
+    /**
+     * Saves a message, generating its ID if it has none. Saving over an existing message increments its version.
+     * 
+     * @param message the message to save
+     * @return the saved message, with its ID and version
+     */
+    Message save(Message message);
+
+    /**
+     * Replaces the text of a message if it still has the expected version, incrementing the version.
+     * 
+     * @param messageId the ID of the message to update
+     * @param messageText the new text of the message
+     * @param expectedVersion the version the message must still have, or null to update it whatever its version
+     * @return the updated message with its new version, or null if there is no message with that ID
+     * @throws OptimisticLockingFailureException if the message does not have the expected version, or was changed
+     *         by another writer between being read and written
+     */
+    Message updateText(int messageId, String messageText, Integer expectedVersion);
+
+    /**
+     * Retrieves a message by its ID.
+     * 
+     * @param messageId the ID of the message to retrieve
+     * @return the message, or empty if there is none with that ID
+     */
+    Optional<Message> findById(int messageId);
+
+    /**
+     * Retrieves the messages with the given IDs.
+     * 
+     * @param messageIds the IDs of the messages to retrieve
+     * @return a list aligned with messageIds, holding null wherever no such message exists
+     */
+    List<Message> findAllByIdInOrder(List<Integer> messageIds);
+
+    /**
+     * Retrieves a read-only view of every message.
+     * 
+     * @return a list of views of all messages
+     */
+    List<MessageView> getMessageViews();
+
+    /**
+     * Retrieves a read-only view of every message posted by a specific account.
+     * 
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @return a list of views of the messages posted by the specified account
+     */
+    List<MessageView> getMessageViews(int accountId);
+
+    /**
+     * Retrieves a read-only view of every message posted within a time range.
+     * 
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of views of the messages posted within the range
+     */
+    List<MessageView> getMessageViewsBetween(long since, long until);
+
+    /**
+     * Retrieves a read-only view of every message posted by a specific account within a time range.
+     * 
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of views of the messages posted by the specified account within the range
+     */
+    List<MessageView> getMessageViewsBetween(int accountId, long since, long until);
+
+    /**
+     * Retrieves views of messages holding only the selected fields, optionally only those posted by one account
+     * or within a time range, reading no more of each message than the engine needs to.
+     * 
+     * @param fields the fields to retrieve
+     * @param accountId the ID of the account whose messages are to be retrieved, or null for every account
+     * @param since the inclusive lower bound on timePostedEpoch, or Long.MIN_VALUE with until Long.MAX_VALUE for
+     *        no range at all
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of SparseMessageViews of the messages, in messageId order
+     */
+    List<MessageView> getSparseMessageViews(Set<MessageField> fields, Integer accountId, long since, long until);
+
+    /**
+     * Retrieves the ID of every message.
+     * 
+     * @return a list of the IDs of all messages
+     */
+    List<Integer> getMessageIds();
+
+    /**
+     * Retrieves the ID of every message posted by a specific account.
+     * 
+     * @param accountId the ID of the account whose message IDs are to be retrieved
+     * @return a list of the IDs of the messages posted by the specified account
+     */
+    List<Integer> getMessageIds(int accountId);
+
+    /**
+     * Retrieves the ID of every message posted within a time range.
+     * 
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of the IDs of the messages posted within the range
+     */
+    List<Integer> getMessageIdsBetween(long since, long until);
+
+    /**
+     * Retrieves the ID of every message posted by a specific account within a time range.
+     * 
+     * @param accountId the ID of the account whose message IDs are to be retrieved
+     * @param since the inclusive lower bound on timePostedEpoch
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @return a list of the IDs of the messages posted by the specified account within the range
+     */
+    List<Integer> getMessageIdsBetween(int accountId, long since, long until);
+
+    /**
+     * Moves the oldest messages posted before a cutoff out of the store, never leaving tombstones. The messages
+     * are held from being read until they are deleted, so an edit or delete of one of them in between waits for
+     * the move and then fails, rather than being lost.
+     * 
+     * @param cutoff the exclusive upper bound on timePostedEpoch
+     * @param limit the maximum number of messages to move
+     * @param destination receives the messages, in messageId order, before they are deleted; if it throws, none
+     *        of them are deleted
+     * @return the messages moved
+     */
+    List<Message> moveMessagesBefore(long cutoff, int limit, Consumer<List<Message>> destination);
+
+    /**
+     * Deletes a message if it still has the version it was read with, so that of two concurrent deletes of the same
+     * message only one succeeds.
+     * 
+     * @param message the message to delete, as it was read
+     * @throws OptimisticLockingFailureException if the message no longer exists, or no longer has the version it
+     *         was read with
+     */
+    void delete(Message message);
+
+    /**
+     * Deletes the oldest messages posted by a specific account, optionally within a time range, as one set of
+     * rows rather than one message at a time.
+     * 
+     * @param accountId the ID of the account whose messages are to be deleted
+     * @param since the inclusive lower bound on timePostedEpoch, or Long.MIN_VALUE with until Long.MAX_VALUE for
+     *        every message of the account
+     * @param until the exclusive upper bound on timePostedEpoch
+     * @param limit the maximum number of messages to delete
+     * @return views of the deleted messages, in messageId order
+     */
+    List<MessageView> deleteByPostedBy(int accountId, long since, long until, int limit);
+
+    /**
+     * Removes the tombstones of some deleted messages.
+     * 
+     * @param limit the maximum number of tombstones to remove
+     * @return the number of tombstones removed
+     */
+    int purgeDeleted(int limit);
+}
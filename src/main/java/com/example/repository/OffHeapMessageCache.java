@@ -0,0 +1,489 @@
+package com.example.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.MessageView;
+import com.example.event.MessageChangedEvent;
+
+/**
+ * OffHeapMessageCache is a cache tier that keeps serialized messages outside the Java heap, so that a large
+ * working set adds nothing for the garbage collector to trace. Records are stored in fixed-size slots carved out
+ * of direct ByteBuffer slabs. Each slab belongs to one size class, and slabs are handed to size classes on demand
+ * until the configured capacity is reached. From then on each size class evicts with the clock algorithm. The
+ * cache is split into independently locked segments, each indexed by a primitive int map from messageId to slot.
+ * It is kept current by the committed MessageChangedEvents, and by invalidations from other nodes. Events are
+ * published by each request thread after its own commit, so they can arrive out of order: a changed copy only
+ * replaces a cached one with a lower version, and a deletion or invalidation leaves a version floor behind, below
+ * which no copy of the message is cached again, so a copy older than a change that has been seen never comes back.
+ * The floors are kept on the heap, so each segment holds a bounded number of them: a segment whose floor table is
+ * full drops every message and floor it holds, which is conservative, since the next lookup of any of them goes to
+ * the store.
+ */
+@Component
+public class OffHeapMessageCache {
+    private static final int[] SLOT_SIZES = {64, 128, 256, 512, 1024};
+    private static final int RECORD_FIXED_BYTES = 4 + 1 + 4 + 8 + 4 + 2;
+    private static final int SLOT_BITS = 28;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    private static final int NULL_POSTED_BY = 1;
+    private static final int NULL_TEXT = 2;
+    private static final int NULL_TIME = 4;
+    private static final int NULL_VERSION = 8;
+
+    private final boolean enabled;
+    private final Segment[] segments;
+    private final AtomicLong removals = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder floorOverflows = new LongAdder();
+
+    /**
+     * Constructs an OffHeapMessageCache with the configured capacity.
+     *
+     * @param enabled whether the cache is enabled; a disabled cache never allocates and always misses
+     * @param capacityBytes the most off-heap memory the cache may allocate, in bytes
+     * @param slabSize the size of each direct buffer allocated, in bytes
+     * @param segmentCount the number of independently locked segments, rounded up to a power of two
+     * @param floorTableSize the number of version floors remembered across all segments
+     */
+    public OffHeapMessageCache(@Value("${message.cache.offheap.enabled:true}") boolean enabled,
+                               @Value("${message.cache.offheap.capacity-bytes:67108864}") long capacityBytes,
+                               @Value("${message.cache.offheap.slab-size:1048576}") int slabSize,
+                               @Value("${message.cache.offheap.segments:16}") int segmentCount,
+                               @Value("${message.cache.offheap.floor-table-size:100000}") int floorTableSize){
+        this.enabled = enabled;
+        int count = Integer.highestOneBit(Math.max(1, segmentCount - 1)) << 1;
+        long segmentCapacity = capacityBytes / count;
+        int segmentSlabSize = (int) Math.max(SLOT_SIZES[SLOT_SIZES.length - 1], Math.min(slabSize, segmentCapacity));
+        int segmentFloors = Math.max(1, floorTableSize / count);
+        this.segments = new Segment[count];
+        for(int i = 0; i < count; i++){
+            segments[i] = new Segment(segmentCapacity, segmentSlabSize, segmentFloors);
+        }
+    }
+
+    /**
+     * Returns whether the cache is enabled.
+     *
+     * @return true if messages are cached off-heap
+     */
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * Retrieves a cached message.
+     *
+     * @param messageId the ID of the message to retrieve
+     * @return the cached message, or null if it is not cached
+     */
+    public MessageView get(int messageId){
+        if(!enabled){
+            return null;
+        }
+        MessageView message = segment(messageId).get(messageId);
+        (message == null ? misses : hits).increment();
+        return message;
+    }
+
+    /**
+     * Returns a stamp to take before loading messages to fill the cache with, so that a message removed while
+     * it was being loaded is not put back.
+     *
+     * @return the current stamp
+     */
+    public long stamp(){
+        return removals.get();
+    }
+
+    /**
+     * Caches a message that was loaded from the store, unless it is already cached or a message has been
+     * removed from the cache since the stamp was taken.
+     *
+     * @param message the loaded message
+     * @param stamp the stamp taken before the message was loaded
+     */
+    public void fill(MessageView message, long stamp){
+        if(enabled){
+            segment(message.getMessageId()).put(message, false, stamp);
+        }
+    }
+
+    /**
+     * Keeps the cache current with a committed message change. A change older than the cached copy is ignored, and
+     * a deletion refuses every copy of the message up to its last version.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event){
+        if(!enabled){
+            return;
+        }
+        MessageView message = event.getMessage();
+        if(event.getType() == MessageChangedEvent.Type.DELETED){
+            if(message.getVersion() == null){
+                remove(message.getMessageId());
+            }else{
+                invalidate(message.getMessageId(), message.getVersion() + 1);
+            }
+        }else{
+            segment(message.getMessageId()).put(message, true, 0);
+        }
+    }
+
+    /**
+     * Removes a message from the cache.
+     *
+     * @param messageId the ID of the message to remove
+     */
+    public void remove(int messageId){
+        if(enabled){
+            removals.incrementAndGet();
+            segment(messageId).remove(messageId);
+        }
+    }
+
+    /**
+     * Removes a message that changed on another node, and refuses every copy of it older than the change.
+     *
+     * @param messageId the ID of the message that changed
+     * @param version the version of the message after the change; a deleted message has the version after its last
+     */
+    public void invalidate(int messageId, int version){
+        if(enabled){
+            removals.incrementAndGet();
+            segment(messageId).invalidate(messageId, version);
+        }
+    }
+
+    /**
+     * Removes every message from the cache, for when changes made on other nodes may have been missed. Version
+     * floors are kept.
+     */
+    public void clear(){
+        if(enabled){
+            removals.incrementAndGet();
+            for(Segment segment : segments){
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the cache, its size, and the number of version floors it holds.
+     *
+     * @return the statistics, keyed by name
+     */
+    public Map<String, Long> getStatistics(){
+        long entries = 0;
+        long allocatedBytes = 0;
+        long floors = 0;
+        for(Segment segment : segments){
+            segment.lock.lock();
+            try{
+                entries += segment.index.size();
+                allocatedBytes += segment.allocatedBytes;
+                floors += segment.floors.size();
+            }finally{
+                segment.lock.unlock();
+            }
+        }
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("hitCount", hits.sum());
+        statistics.put("missCount", misses.sum());
+        statistics.put("evictionCount", evictions.sum());
+        statistics.put("entryCount", entries);
+        statistics.put("allocatedBytes", allocatedBytes);
+        statistics.put("floorCount", floors);
+        statistics.put("floorOverflowCount", floorOverflows.sum());
+        return statistics;
+    }
+
+    private Segment segment(int messageId){
+        return segments[(messageId * 0x9E3779B9) & (segments.length - 1)];
+    }
+
+    private static int sizeClass(int recordLength){
+        for(int sizeClass = 0; sizeClass < SLOT_SIZES.length; sizeClass++){
+            if(recordLength <= SLOT_SIZES[sizeClass]){
+                return sizeClass;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One independently locked part of the cache, with its own index, slabs and share of the capacity.
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final IntIntHashMap index = new IntIntHashMap(1024);
+        private IntIntHashMap floors = new IntIntHashMap(16);
+        private final SizeClass[] sizeClasses = new SizeClass[SLOT_SIZES.length];
+        private final long capacity;
+        private final int slabSize;
+        private final int floorCapacity;
+        private long allocatedBytes;
+
+        private Segment(long capacity, int slabSize, int floorCapacity){
+            this.capacity = capacity;
+            this.slabSize = slabSize;
+            this.floorCapacity = floorCapacity;
+            for(int i = 0; i < SLOT_SIZES.length; i++){
+                sizeClasses[i] = new SizeClass(SLOT_SIZES[i], slabSize / SLOT_SIZES[i]);
+            }
+        }
+
+        private MessageView get(int messageId){
+            lock.lock();
+            try{
+                int location = index.get(messageId);
+                if(location == IntIntHashMap.MISSING){
+                    return null;
+                }
+                SizeClass sizeClass = sizeClasses[location >>> SLOT_BITS];
+                int slot = location & SLOT_MASK;
+                sizeClass.referenced[slot] = true;
+                return read(sizeClass.slab(slot), sizeClass.offset(slot));
+            }finally{
+                lock.unlock();
+            }
+        }
+
+        private void put(MessageView message, boolean replace, long stamp){
+            byte[] text = message.getMessageText() == null ? new byte[0] : message.getMessageText().getBytes(StandardCharsets.UTF_8);
+            int classIndex = sizeClass(RECORD_FIXED_BYTES + text.length);
+            lock.lock();
+            try{
+                if(!replace && (index.get(message.getMessageId()) != IntIntHashMap.MISSING || removals.get() != stamp)){
+                    return;
+                }
+                int floor = floors.get(message.getMessageId());
+                if(floor != IntIntHashMap.MISSING){
+                    if(message.getVersion() == null || message.getVersion() < floor){
+                        return;
+                    }
+                    floors.remove(message.getMessageId());
+                }
+                if(replace && !isNewer(message)){
+                    return;
+                }
+                removeLocked(message.getMessageId());
+                if(classIndex < 0){
+                    return;
+                }
+                SizeClass sizeClass = sizeClasses[classIndex];
+                int slot = allocate(sizeClass);
+                if(slot < 0){
+                    return;
+                }
+                write(sizeClass.slab(slot), sizeClass.offset(slot), message, text);
+                sizeClass.keys[slot] = message.getMessageId();
+                sizeClass.occupied[slot] = true;
+                sizeClass.referenced[slot] = false;
+                index.put(message.getMessageId(), (classIndex << SLOT_BITS) | slot);
+            }finally{
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns whether a changed copy is newer than the cached copy of the message, if any. Copies without a
+         * version cannot be ordered, so they are taken as newer.
+         */
+        private boolean isNewer(MessageView message){
+            int location = index.get(message.getMessageId());
+            if(location == IntIntHashMap.MISSING || message.getVersion() == null){
+                return true;
+            }
+            SizeClass sizeClass = sizeClasses[location >>> SLOT_BITS];
+            int offset = sizeClass.offset(location & SLOT_MASK);
+            ByteBuffer slab = sizeClass.slab(location & SLOT_MASK);
+            return (slab.get(offset + 4) & NULL_VERSION) != 0 || slab.getInt(offset + 17) < message.getVersion();
+        }
+
+        private void remove(int messageId){
+            lock.lock();
+            try{
+                removeLocked(messageId);
+            }finally{
+                lock.unlock();
+            }
+        }
+
+        private void invalidate(int messageId, int version){
+            lock.lock();
+            try{
+                removeLocked(messageId);
+                int floor = floors.get(messageId);
+                if(floor == IntIntHashMap.MISSING && floors.size() >= floorCapacity){
+                    clearLocked();
+                    floors = new IntIntHashMap(16);
+                    floorOverflows.increment();
+                }
+                if(floor == IntIntHashMap.MISSING || floor < version){
+                    floors.put(messageId, version);
+                }
+            }finally{
+                lock.unlock();
+            }
+        }
+
+        private void clear(){
+            lock.lock();
+            try{
+                clearLocked();
+            }finally{
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases every slot of the segment. Version floors are kept.
+         */
+        private void clearLocked(){
+            for(SizeClass sizeClass : sizeClasses){
+                int slots = sizeClass.slabs.size() * sizeClass.slotsPerSlab;
+                for(int slot = 0; slot < slots; slot++){
+                    if(sizeClass.occupied[slot]){
+                        index.remove(sizeClass.keys[slot]);
+                        sizeClass.release(slot);
+                    }
+                }
+            }
+        }
+
+        private void removeLocked(int messageId){
+            int location = index.remove(messageId);
+            if(location != IntIntHashMap.MISSING){
+                sizeClasses[location >>> SLOT_BITS].release(location & SLOT_MASK);
+            }
+        }
+
+        /**
+         * Finds a slot for a new record: a free one, else one from a newly allocated slab while capacity remains,
+         * else the first slot the clock hand finds that has not been referenced since it last passed.
+         */
+        private int allocate(SizeClass sizeClass){
+            if(sizeClass.freeCount == 0 && allocatedBytes + slabSize <= capacity){
+                sizeClass.grow();
+                allocatedBytes += slabSize;
+            }
+            if(sizeClass.freeCount > 0){
+                return sizeClass.free[--sizeClass.freeCount];
+            }
+            int slots = sizeClass.slabs.size() * sizeClass.slotsPerSlab;
+            if(slots == 0){
+                return -1;
+            }
+            while(true){
+                int slot = sizeClass.hand;
+                sizeClass.hand = (sizeClass.hand + 1) % slots;
+                if(sizeClass.referenced[slot]){
+                    sizeClass.referenced[slot] = false;
+                }else if(sizeClass.occupied[slot]){
+                    index.remove(sizeClass.keys[slot]);
+                    sizeClass.occupied[slot] = false;
+                    evictions.increment();
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * The slabs of one slot size within a segment, with the per-slot bookkeeping kept in primitive arrays.
+     */
+    private static final class SizeClass {
+        private final int slotSize;
+        private final int slotsPerSlab;
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private int[] keys = new int[0];
+        private boolean[] occupied = new boolean[0];
+        private boolean[] referenced = new boolean[0];
+        private int[] free = new int[0];
+        private int freeCount;
+        private int hand;
+
+        private SizeClass(int slotSize, int slotsPerSlab){
+            this.slotSize = slotSize;
+            this.slotsPerSlab = slotsPerSlab;
+        }
+
+        private void grow(){
+            int first = slabs.size() * slotsPerSlab;
+            int slots = first + slotsPerSlab;
+            slabs.add(ByteBuffer.allocateDirect(slotsPerSlab * slotSize));
+            keys = Arrays.copyOf(keys, slots);
+            occupied = Arrays.copyOf(occupied, slots);
+            referenced = Arrays.copyOf(referenced, slots);
+            free = Arrays.copyOf(free, slots);
+            for(int slot = slots - 1; slot >= first; slot--){
+                free[freeCount++] = slot;
+            }
+        }
+
+        private void release(int slot){
+            occupied[slot] = false;
+            referenced[slot] = false;
+            free[freeCount++] = slot;
+        }
+
+        private ByteBuffer slab(int slot){
+            return slabs.get(slot / slotsPerSlab);
+        }
+
+        private int offset(int slot){
+            return (slot % slotsPerSlab) * slotSize;
+        }
+    }
+
+    private static void write(ByteBuffer slab, int offset, MessageView message, byte[] text){
+        int flags = (message.getPostedBy() == null ? NULL_POSTED_BY : 0)
+                | (message.getMessageText() == null ? NULL_TEXT : 0)
+                | (message.getTimePostedEpoch() == null ? NULL_TIME : 0)
+                | (message.getVersion() == null ? NULL_VERSION : 0);
+        slab.putInt(offset, message.getMessageId());
+        slab.put(offset + 4, (byte) flags);
+        slab.putInt(offset + 5, message.getPostedBy() == null ? 0 : message.getPostedBy());
+        slab.putLong(offset + 9, message.getTimePostedEpoch() == null ? 0 : message.getTimePostedEpoch());
+        slab.putInt(offset + 17, message.getVersion() == null ? 0 : message.getVersion());
+        slab.putShort(offset + 21, (short) text.length);
+        ByteBuffer body = slab.duplicate();
+        body.position(offset + RECORD_FIXED_BYTES);
+        body.put(text);
+    }
+
+    private static MessageView read(ByteBuffer slab, int offset){
+        int messageId = slab.getInt(offset);
+        int flags = slab.get(offset + 4);
+        int postedBy = slab.getInt(offset + 5);
+        long timePostedEpoch = slab.getLong(offset + 9);
+        int version = slab.getInt(offset + 17);
+        byte[] text = new byte[slab.getShort(offset + 21) & 0xffff];
+        ByteBuffer body = slab.duplicate();
+        body.position(offset + RECORD_FIXED_BYTES);
+        body.get(text);
+        return new MessageView(messageId,
+                (flags & NULL_POSTED_BY) != 0 ? null : postedBy,
+                (flags & NULL_TEXT) != 0 ? null : new String(text, StandardCharsets.UTF_8),
+                (flags & NULL_TIME) != 0 ? null : timePostedEpoch,
+                (flags & NULL_VERSION) != 0 ? null : version);
+    }
+}
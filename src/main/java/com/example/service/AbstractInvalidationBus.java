@@ -0,0 +1,79 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.event.InvalidationEvent;
+
+/**
+ * The node ID, listeners and counters shared by the InvalidationBus implementations.
+ */
+abstract class AbstractInvalidationBus implements InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(AbstractInvalidationBus.class);
+
+    private final String nodeId;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    protected final LongAdder published = new LongAdder();
+    protected final LongAdder received = new LongAdder();
+    protected final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param nodeId the ID of this node, or blank for a random one
+     */
+    protected AbstractInvalidationBus(String nodeId){
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    @Override
+    public String getNodeId(){
+        return nodeId;
+    }
+
+    @Override
+    public void subscribe(Listener listener){
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Long> getStatistics(){
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("publishedCount", published.sum());
+        statistics.put("receivedCount", received.sum());
+        statistics.put("droppedCount", dropped.sum());
+        return statistics;
+    }
+
+    /**
+     * Hands an event received from another node to the listeners.
+     */
+    protected void deliver(InvalidationEvent event){
+        received.increment();
+        for(Listener listener : listeners){
+            try{
+                listener.onInvalidation(event);
+            }catch(RuntimeException e){
+                log.error("Could not apply {}", event, e);
+            }
+        }
+    }
+
+    /**
+     * Tells the listeners that events from another node may have been lost.
+     */
+    protected void resync(){
+        for(Listener listener : listeners){
+            try{
+                listener.onResync();
+            }catch(RuntimeException e){
+                log.error("Could not resynchronize after lost invalidations", e);
+            }
+        }
+    }
+}
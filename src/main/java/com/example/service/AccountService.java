@@ -1,28 +1,42 @@
 package com.example.service;
 
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.example.exception.*;
 import com.example.entity.Account;
+import com.example.event.InvalidationEvent;
 import com.example.repository.AccountRepository;
 
 /**
  * AccountService is a service class responsible for handling business logic related to Account entities.
- * It interacts with the AccountRepository to perform various operations related to accounts.
+ * It interacts with the AccountRepository to perform various operations related to accounts, and announces new
+ * accounts to the other nodes on the InvalidationBus, so that they drop cached lookups that found no such account.
  */
 @Service
 public class AccountService {
+    /**
+     * The name of the unique constraint on account.username in data.sql.
+     */
+    private static final String USERNAME_CONSTRAINT = "ACCOUNT_USERNAME_UNIQUE";
+
     private AccountRepository accountRepository;
+    private InvalidationBus invalidationBus;
 
     /**
-     * Constructs an AccountService with the given AccountRepository.
+     * Constructs an AccountService with the given AccountRepository and InvalidationBus.
      * 
      * @param accountRepository the repository used to perform account-related database operations
+     * @param invalidationBus the bus that new accounts are announced to the other nodes on
      */
     @Autowired
-    public AccountService(AccountRepository accountRepository){
+    public AccountService(AccountRepository accountRepository, InvalidationBus invalidationBus){
         this.accountRepository = accountRepository;
+        this.invalidationBus = invalidationBus;
     }
 
     /**
@@ -35,7 +49,9 @@ public class AccountService {
     }
 
     /**
-     * Registers a new account after validating the account details.
+     * Registers a new account after validating the account details. The account is inserted straight away and
+     * the unique constraint on username decides between concurrent sign-ups with the same name, so there is no
+     * separate existence check to race with.
      * 
      * @param account the Account entity to be registered
      * @return the registered Account entity
@@ -43,15 +59,26 @@ public class AccountService {
      * @throws InvalidAccountDetailsException if the username is blank or the password is too short
      */
     public Account registerAccount(Account account) throws DuplicateUsernameException, InvalidAccountDetailsException{
-        if(isAccount(account.getUsername())){
-            throw new DuplicateUsernameException();
+        if(account.getUsername() == null || account.getUsername().isBlank()
+                || account.getPassword() == null || account.getPassword().length() < 4){
+            throw InvalidAccountDetailsException.INSTANCE;
         }
 
-        if(account.getUsername().isBlank() || account.getPassword().length() < 4){
-            throw new InvalidAccountDetailsException();
+        // Always insert: an accountId from the client must not turn registration into an update.
+        account.setAccountId(null);
+        Account registeredAccount;
+        try{
+            registeredAccount = accountRepository.saveAndFlush(account);
+        }catch(DataIntegrityViolationException e){
+            if(violatesUsernameConstraint(e)){
+                throw DuplicateUsernameException.INSTANCE;
+            }
+            throw e;
         }
-
-        return accountRepository.save(account);
+        // Accounts never change once registered, so the first version is the only one.
+        invalidationBus.publish(new InvalidationEvent(InvalidationEvent.EntityType.ACCOUNT, registeredAccount.getAccountId(), 0,
+                invalidationBus.getNodeId()));
+        return registeredAccount;
     }
 
     /**
@@ -64,7 +91,7 @@ public class AccountService {
     public Account verifyAccount(Account account) throws InvalidAccountDetailsException{
         Account verifiedAccount = accountRepository.verifyAccountDetails(account.getUsername(), account.getPassword());
         if(verifiedAccount == null){
-            throw new InvalidAccountDetailsException();
+            throw InvalidAccountDetailsException.INSTANCE;
         }
         return verifiedAccount;
     }
@@ -87,5 +114,15 @@ public class AccountService {
      */
     public boolean isAccount(int accountId){
         return accountRepository.isAccount(accountId) != null;
-    } 
+    }
+
+    private static boolean violatesUsernameConstraint(DataIntegrityViolationException e){
+        for(Throwable cause = e; cause != null; cause = cause.getCause()){
+            if(cause instanceof ConstraintViolationException){
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                return constraint != null && constraint.toUpperCase(Locale.ROOT).contains(USERNAME_CONSTRAINT);
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,382 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * AuditLog is a service class responsible for writing an audit record of every mutating call to rolling files,
+ * off the request threads. Request threads claim a slot of a preallocated ring buffer with a compare-and-set,
+ * fill in its fixed fields and publish it; they never take a lock or touch the disk. A single writer thread drains
+ * the published records in batches, appends them to the current file as JSON lines, and forces the file to disk
+ * according to the fsync policy. When the ring is full, a record is either dropped and counted, or its request
+ * thread waits for a free slot, depending on the overflow strategy.
+ */
+@Service
+public class AuditLog {
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    /**
+     * The handler methods whose calls are audited, in the order of their action codes.
+     */
+    private static final List<String> ACTIONS = Arrays.asList("postAccount", "postLogin", "postMessage", "patchMessage", "deleteMessage",
+                                                                "deleteMessagesById");
+
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * When the writer forces the audit file to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** Never; the operating system writes the file back in its own time. */
+        NEVER,
+        /** After every batch of records is written. */
+        BATCH,
+        /** At most once per fsync interval. */
+        INTERVAL
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final boolean blockWhenFull;
+    private final int batchSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final long[] timestamps;
+    private final byte[] actions;
+    private final int[] statuses;
+    private final int[] subjects;
+    private final long[] durations;
+    private final String[] clients;
+    private final String[] principals;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+    private FileChannel file;
+    private long fileBytes;
+    private long lastFsync;
+    private boolean unsynced;
+
+    /**
+     * Constructs an AuditLog with the configured ring buffer and files.
+     *
+     * @param enabled whether calls are audited
+     * @param directory the directory holding the audit files
+     * @param capacity the number of records the ring buffer holds, rounded up to a power of two
+     * @param overflow what happens to a record when the ring buffer is full: drop or block
+     * @param batchSize the most records written to the file at once
+     * @param fsyncPolicy when the file is forced to the storage device: never, batch or interval
+     * @param fsyncIntervalMs the least time between forces under the interval policy
+     * @param maxFileBytes the size after which a new audit file is started
+     * @param maxFiles the number of audit files kept before the oldest are removed
+     */
+    public AuditLog(@Value("${audit.enabled:true}") boolean enabled,
+                    @Value("${audit.directory:audit}") String directory,
+                    @Value("${audit.ring-buffer-size:8192}") int capacity,
+                    @Value("${audit.overflow:drop}") String overflow,
+                    @Value("${audit.batch-size:256}") int batchSize,
+                    @Value("${audit.fsync:interval}") String fsyncPolicy,
+                    @Value("${audit.fsync-interval-ms:1000}") long fsyncIntervalMs,
+                    @Value("${audit.max-file-bytes:67108864}") long maxFileBytes,
+                    @Value("${audit.max-files:100}") int maxFiles){
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.blockWhenFull = "block".equalsIgnoreCase(overflow);
+        this.batchSize = Math.max(1, batchSize);
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicy.toUpperCase(Locale.ROOT));
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.published = new AtomicLongArray(this.capacity);
+        for(int i = 0; i < this.capacity; i++){
+            published.set(i, -1);
+        }
+        this.timestamps = new long[this.capacity];
+        this.actions = new byte[this.capacity];
+        this.statuses = new int[this.capacity];
+        this.subjects = new int[this.capacity];
+        this.durations = new long[this.capacity];
+        this.clients = new String[this.capacity];
+        this.principals = new String[this.capacity];
+        this.lastFsync = System.nanoTime();
+    }
+
+    /**
+     * Starts the writer thread.
+     *
+     * @throws IOException if the audit directory cannot be created
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if(!enabled){
+            return;
+        }
+        Files.createDirectories(directory);
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer thread once it has written every record published so far.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if(writer == null){
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Returns the action code of a handler method.
+     *
+     * @param handlerMethod the name of the controller method handling the call
+     * @return the action code, or -1 if calls to the method are not audited or auditing is disabled
+     */
+    public int action(String handlerMethod){
+        return enabled ? ACTIONS.indexOf(handlerMethod) : -1;
+    }
+
+    /**
+     * Publishes an audit record of a call. This never blocks unless the ring buffer is full and the overflow
+     * strategy is block.
+     *
+     * @param action the action code of the call, from action(String)
+     * @param status the HTTP status code of the response
+     * @param client the address of the client
+     * @param principal the account the call acted as or on, such as a username or postedBy, or null if unknown
+     * @param subject the ID of the message the call addressed, or -1 if none
+     * @param durationNanos how long the call took
+     * @return true if the record was published, or false if it was dropped
+     */
+    public boolean record(int action, int status, String client, String principal, int subject, long durationNanos){
+        long sequence;
+        while(true){
+            sequence = claimed.get();
+            if(sequence - consumed >= capacity){
+                if(!blockWhenFull){
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if(claimed.compareAndSet(sequence, sequence + 1)){
+                break;
+            }
+        }
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.currentTimeMillis();
+        actions[slot] = (byte) action;
+        statuses[slot] = status;
+        subjects[slot] = subject;
+        durations[slot] = durationNanos;
+        clients[slot] = client;
+        principals[slot] = principal;
+        // The ordered write makes the fields above visible to the writer before the slot reads as published.
+        published.lazySet(slot, sequence);
+        return true;
+    }
+
+    /**
+     * Returns the counters of the audit log.
+     *
+     * @return the number of records published, written, dropped and waiting, and the number of fsyncs
+     */
+    public Map<String, Long> getStatistics(){
+        long claimedCount = claimed.get();
+        long consumedCount = consumed;
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("publishedCount", claimedCount);
+        statistics.put("writtenCount", written.get());
+        statistics.put("droppedCount", dropped.sum());
+        statistics.put("pendingCount", claimedCount - consumedCount);
+        statistics.put("fsyncCount", fsyncs.get());
+        return statistics;
+    }
+
+    private void drain(){
+        StringBuilder batch = new StringBuilder(batchSize * 160);
+        while(true){
+            long next = consumed;
+            int count = 0;
+            batch.setLength(0);
+            while(count < batchSize && published.get((int) ((next + count) & mask)) == next + count){
+                int slot = (int) ((next + count) & mask);
+                format(batch, slot);
+                clients[slot] = null;
+                principals[slot] = null;
+                count++;
+            }
+            if(count > 0){
+                write(batch, count);
+                consumed = next + count;
+                continue;
+            }
+            if(!running && claimed.get() == consumed){
+                break;
+            }
+            forceIfDue();
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        closeFile();
+    }
+
+    private void format(StringBuilder out, int slot){
+        out.append("{\"time\":\"").append(Instant.ofEpochMilli(timestamps[slot]))
+                .append("\",\"action\":\"").append(ACTIONS.get(actions[slot]))
+                .append("\",\"status\":").append(statuses[slot])
+                .append(",\"client\":");
+        appendString(out, clients[slot]);
+        out.append(",\"principal\":");
+        appendString(out, principals[slot]);
+        out.append(",\"subject\":");
+        if(subjects[slot] < 0){
+            out.append("null");
+        }else{
+            out.append(subjects[slot]);
+        }
+        out.append(",\"durationMicros\":").append(TimeUnit.NANOSECONDS.toMicros(durations[slot])).append("}\n");
+    }
+
+    private static void appendString(StringBuilder out, String value){
+        if(value == null){
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                out.append('\\').append(c);
+            }else if(c < 0x20){
+                out.append(String.format("\\u%04x", (int) c));
+            }else{
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private void write(StringBuilder batch, int count){
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+        try{
+            if(file == null || fileBytes >= maxFileBytes){
+                roll();
+            }
+            while(bytes.hasRemaining()){
+                fileBytes += file.write(bytes);
+            }
+            unsynced = true;
+            if(fsyncPolicy == FsyncPolicy.BATCH){
+                force();
+            }else{
+                forceIfDue();
+            }
+            written.addAndGet(count);
+        }catch(IOException e){
+            dropped.add(count);
+            log.error("Could not write {} audit records", count, e);
+        }
+    }
+
+    private void forceIfDue(){
+        if(unsynced && fsyncPolicy == FsyncPolicy.INTERVAL && System.nanoTime() - lastFsync >= fsyncIntervalNanos){
+            try{
+                force();
+            }catch(IOException e){
+                log.error("Could not force the audit log to disk", e);
+            }
+        }
+    }
+
+    private void force() throws IOException {
+        file.force(false);
+        unsynced = false;
+        lastFsync = System.nanoTime();
+        fsyncs.incrementAndGet();
+    }
+
+    /**
+     * Closes the current file and starts a new one, removing the oldest files beyond the retained count.
+     */
+    private void roll() throws IOException {
+        closeFile();
+        Path next = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, System.currentTimeMillis(), FILE_SUFFIX));
+        file = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = file.size();
+        TreeMap<String, Path> files = new TreeMap<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)){
+            for(Path existing : stream){
+                files.put(existing.getFileName().toString(), existing);
+            }
+        }
+        while(files.size() > maxFiles){
+            Files.deleteIfExists(files.pollFirstEntry().getValue());
+        }
+    }
+
+    private void closeFile(){
+        if(file == null){
+            return;
+        }
+        try{
+            if(unsynced && fsyncPolicy != FsyncPolicy.NEVER){
+                force();
+            }
+            file.close();
+        }catch(IOException e){
+            log.error("Could not close the audit log", e);
+        }
+        file = null;
+    }
+}
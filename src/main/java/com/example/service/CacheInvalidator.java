@@ -0,0 +1,140 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.event.InvalidationEvent;
+import com.example.repository.OffHeapMessageCache;
+
+/**
+ * CacheInvalidator applies the InvalidationEvents of the other nodes to the caches of this one: the off-heap
+ * message cache, the message list response cache, and the Hibernate entity and query caches. It remembers the
+ * newest version it has applied for each entity, in a table bounded to the most recently changed entities, and
+ * ignores any event that is not newer, so duplicated or reordered deliveries have no effect.
+ */
+@Service
+public class CacheInvalidator implements InvalidationBus.Listener {
+    private static final String MESSAGE_QUERY_REGION = "message-queries";
+    private static final String ACCOUNT_QUERY_REGION = "account-queries";
+
+    private InvalidationBus invalidationBus;
+    private OffHeapMessageCache messageCache;
+    private MessageResponseCache responseCache;
+    private Cache entityCache;
+    private final Map<Long, Long> versions;
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    /**
+     * Constructs a CacheInvalidator over the caches of this node.
+     *
+     * @param invalidationBus the bus the events of the other nodes arrive on
+     * @param messageCache the off-heap message cache
+     * @param responseCache the message list response cache
+     * @param entityManagerFactory the factory whose second-level and query caches are evicted
+     * @param versionTableSize the number of entities whose newest applied version is remembered
+     */
+    @Autowired
+    public CacheInvalidator(InvalidationBus invalidationBus, OffHeapMessageCache messageCache, MessageResponseCache responseCache,
+                            EntityManagerFactory entityManagerFactory,
+                            @Value("${invalidation.version-table-size:100000}") int versionTableSize){
+        this.invalidationBus = invalidationBus;
+        this.messageCache = messageCache;
+        this.responseCache = responseCache;
+        this.entityCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.versions = new LinkedHashMap<Long, Long>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest){
+                return size() > versionTableSize;
+            }
+        };
+    }
+
+    /**
+     * Starts receiving the events of the other nodes.
+     */
+    @PostConstruct
+    public void subscribe(){
+        invalidationBus.subscribe(this);
+    }
+
+    /**
+     * Drops the cached copies of an entity that changed on another node, unless a change at least as new has
+     * already been applied.
+     *
+     * @param event the event
+     */
+    @Override
+    public void onInvalidation(InvalidationEvent event){
+        if(invalidationBus.getNodeId().equals(event.getOrigin()) || !advance(event)){
+            ignored.increment();
+            return;
+        }
+        switch(event.getEntityType()){
+            case MESSAGE:
+                messageCache.invalidate(event.getEntityId(), (int) event.getVersion());
+                responseCache.invalidate();
+                entityCache.evictEntityData(Message.class, event.getEntityId());
+                entityCache.evictQueryRegion(MESSAGE_QUERY_REGION);
+                break;
+            case ACCOUNT:
+                entityCache.evictEntityData(Account.class, event.getEntityId());
+                entityCache.evictQueryRegion(ACCOUNT_QUERY_REGION);
+                break;
+        }
+        applied.increment();
+    }
+
+    /**
+     * Drops everything cached, since changes made on another node may have been missed.
+     */
+    @Override
+    public void onResync(){
+        messageCache.clear();
+        responseCache.invalidate();
+        entityCache.evictAllRegions();
+        resyncs.increment();
+    }
+
+    /**
+     * Returns the counters of the invalidator and of the bus it listens to.
+     *
+     * @return the numbers of events applied and ignored and of resyncs, with the bus counters, keyed by name
+     */
+    public Map<String, Long> getStatistics(){
+        Map<String, Long> statistics = new LinkedHashMap<>(invalidationBus.getStatistics());
+        statistics.put("appliedCount", applied.sum());
+        statistics.put("ignoredCount", ignored.sum());
+        statistics.put("resyncCount", resyncs.sum());
+        return statistics;
+    }
+
+    /**
+     * Records the version of the event as the newest applied for its entity, if it is newer than the last one.
+     */
+    private boolean advance(InvalidationEvent event){
+        long key = ((long) event.getEntityType().ordinal() << 32) | (event.getEntityId() & 0xffffffffL);
+        synchronized(versions){
+            Long newest = versions.get(key);
+            if(newest != null && newest >= event.getVersion()){
+                return false;
+            }
+            versions.put(key, event.getVersion());
+            return true;
+        }
+    }
+}
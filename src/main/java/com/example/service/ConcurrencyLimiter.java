@@ -0,0 +1,145 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ConcurrencyLimiter is a service class responsible for adaptive load shedding. It bounds the number of
+ * requests in flight, and adjusts that bound from observed latency with a gradient rule: while short-term
+ * latency stays near the long-term baseline the limit grows, and once requests start queueing behind a slow
+ * database the limit shrinks in proportion. Writes may only use part of the limit, so reads keep being served
+ * when bulk writes pile up.
+ */
+@Service
+public class ConcurrencyLimiter {
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double writeShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedReads = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * Constructs a ConcurrencyLimiter with the configured bounds.
+     * 
+     * @param enabled whether requests are limited at all
+     * @param initialLimit the concurrency limit before any latency has been observed
+     * @param minLimit the lowest the limit may shrink to
+     * @param maxLimit the highest the limit may grow to
+     * @param tolerance how many times the baseline latency is tolerated before the limit shrinks
+     * @param writeShare the fraction of the limit that writes may occupy
+     */
+    public ConcurrencyLimiter(@Value("${concurrency.enabled:true}") boolean enabled,
+                              @Value("${concurrency.initial-limit:100}") int initialLimit,
+                              @Value("${concurrency.min-limit:10}") int minLimit,
+                              @Value("${concurrency.max-limit:1000}") int maxLimit,
+                              @Value("${concurrency.tolerance:2.0}") double tolerance,
+                              @Value("${concurrency.write-share:0.8}") double writeShare){
+        this.enabled = enabled;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.writeShare = writeShare;
+    }
+
+    /**
+     * Admits a request if the current limit allows it.
+     * 
+     * @param read whether the request only reads
+     * @return true if the request was admitted and must later be released, false if it must be shed
+     */
+    public boolean tryAcquire(boolean read){
+        if(!enabled){
+            return true;
+        }
+        int bound = read ? (int) limit : (int) (limit * writeShare);
+        while(true){
+            int current = inFlight.get();
+            if(current >= bound){
+                (read ? rejectedReads : rejectedWrites).increment();
+                return false;
+            }
+            if(inFlight.compareAndSet(current, current + 1)){
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and feeds its latency into the limit.
+     * 
+     * @param latencyNanos the latency of the request, or a negative value if it should not be sampled
+     */
+    public void release(long latencyNanos){
+        if(!enabled){
+            return;
+        }
+        int current = inFlight.getAndDecrement();
+        if(latencyNanos >= 0){
+            sample(latencyNanos, current);
+        }
+    }
+
+    /**
+     * Returns the current limit, the number of requests in flight and the number of shed requests.
+     * 
+     * @return the limiter statistics, keyed by name
+     */
+    public Map<String, Long> getStatistics(){
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("limit", (long) limit);
+        statistics.put("inFlight", (long) inFlight.get());
+        statistics.put("rejectedReads", rejectedReads.sum());
+        statistics.put("rejectedWrites", rejectedWrites.sum());
+        return statistics;
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     * 
+     * @return the number of admitted requests not yet released
+     */
+    public int getInFlight(){
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long latencyNanos, int inFlightAtCompletion){
+        if(longRtt == 0){
+            shortRtt = latencyNanos;
+            longRtt = latencyNanos;
+            return;
+        }
+        shortRtt += (latencyNanos - shortRtt) * SHORT_RTT_WEIGHT;
+        longRtt += (latencyNanos - longRtt) * LONG_RTT_WEIGHT;
+        // Let the baseline catch up after a sustained drop in latency rather than staying pessimistic.
+        if(longRtt > shortRtt * tolerance){
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        // Don't grow the limit while the service is not even using it.
+        if(inFlightAtCompletion < current / 2){
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.service;
+
+import java.util.Arrays;
+
+/**
+ * CountMinSketch estimates how often each int key has been seen, in a fixed amount of memory. Each of its rows
+ * hashes the key to one counter; the estimate is the smallest of those counters, which may overcount because of
+ * collisions but never undercounts. It is not thread-safe.
+ */
+final class CountMinSketch {
+    private static final int[] SEEDS = {0x9747b28c, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f, 0x165667b1, 0xd3a2646c, 0xfd7046c5, 0xb55a4f09};
+
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+
+    CountMinSketch(int depth, int width){
+        this.depth = Math.min(depth, SEEDS.length);
+        int columns = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = columns - 1;
+        this.counters = new long[this.depth * columns];
+    }
+
+    void add(int key){
+        for(int row = 0; row < depth; row++){
+            counters[index(row, key)]++;
+        }
+    }
+
+    long estimate(int key){
+        long estimate = Long.MAX_VALUE;
+        for(int row = 0; row < depth; row++){
+            estimate = Math.min(estimate, counters[index(row, key)]);
+        }
+        return estimate;
+    }
+
+    void clear(){
+        Arrays.fill(counters, 0);
+    }
+
+    private int index(int row, int key){
+        int hash = key ^ SEEDS[row];
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return row * (mask + 1) + (hash & mask);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.service;
+
+import java.util.Map;
+
+import com.example.event.InvalidationEvent;
+
+/**
+ * An InvalidationBus carries InvalidationEvents between the nodes of a cluster. The implementation is chosen
+ * with invalidation.bus: loopback, the default, connects the nodes running in the same JVM, and socket connects
+ * nodes over TCP.
+ */
+public interface InvalidationBus {
+    /**
+     * Receives the events published by the other nodes.
+     */
+    interface Listener {
+        /**
+         * Called with each event published by another node.
+         *
+         * @param event the event
+         */
+        void onInvalidation(InvalidationEvent event);
+
+        /**
+         * Called when events from another node may have been lost, so that everything cached has to be dropped.
+         */
+        void onResync();
+    }
+
+    /**
+     * Returns the ID of this node, which the events it publishes carry as their origin.
+     *
+     * @return the node ID
+     */
+    String getNodeId();
+
+    /**
+     * Sends an event to every other node. This never blocks on the network.
+     *
+     * @param event the event to send
+     */
+    void publish(InvalidationEvent event);
+
+    /**
+     * Registers a listener for the events of the other nodes.
+     *
+     * @param listener the listener
+     */
+    void subscribe(Listener listener);
+
+    /**
+     * Returns the counters of the bus.
+     *
+     * @return the number of events published, received and dropped, keyed by name
+     */
+    Map<String, Long> getStatistics();
+}
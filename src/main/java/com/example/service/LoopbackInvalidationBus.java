@@ -0,0 +1,59 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.example.event.InvalidationEvent;
+
+/**
+ * LoopbackInvalidationBus connects the nodes running in the same JVM, such as several application contexts in a
+ * test. Events are handed to the other nodes directly on the publishing thread. A single node has no one to
+ * send to, so this is also the bus of a standalone deployment.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.bus", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationBus extends AbstractInvalidationBus {
+    private static final List<LoopbackInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a LoopbackInvalidationBus for a node.
+     *
+     * @param nodeId the ID of this node, or blank for a random one
+     */
+    public LoopbackInvalidationBus(@Value("${invalidation.node-id:}") String nodeId){
+        super(nodeId);
+    }
+
+    /**
+     * Joins the nodes of this JVM.
+     */
+    @PostConstruct
+    public void open(){
+        NODES.add(this);
+    }
+
+    /**
+     * Leaves the nodes of this JVM.
+     */
+    @PreDestroy
+    public void close(){
+        NODES.remove(this);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event){
+        published.increment();
+        for(LoopbackInvalidationBus node : NODES){
+            if(node != this){
+                node.deliver(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.dto.AccountActivity;
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.entity.MessageActivity;
+import com.example.repository.MessageActivityRepository;
+
+/**
+ * MessageActivityService is a service class responsible for the posting histogram of each account. Rather than
+ * grouping an account's messages on every request, it keeps a count per account and UTC hour and day in the
+ * message_activity rollup, adjusted as messages are added and deleted, so a histogram costs one row per bucket
+ * however many messages the account has posted. Archived messages stay counted.
+ */
+@Service
+public class MessageActivityService {
+    private static final int HOUR_SECONDS = 3600;
+    private static final int DAY_SECONDS = 86400;
+    private static final int[] BUCKET_SECONDS = {HOUR_SECONDS, DAY_SECONDS};
+
+    private MessageActivityRepository messageActivityRepository;
+
+    /**
+     * Constructs a MessageActivityService with the given MessageActivityRepository.
+     * 
+     * @param messageActivityRepository the repository holding the rollup
+     */
+    @Autowired
+    public MessageActivityService(MessageActivityRepository messageActivityRepository){
+        this.messageActivityRepository = messageActivityRepository;
+    }
+
+    /**
+     * Makes sure the buckets a message falls into exist. Called before the transaction that adds the message, so
+     * that losing a race to create a bucket fails only its own statement, not the caller's transaction.
+     * 
+     * @param message the message about to be added
+     */
+    public void prepare(Message message){
+        if(!isCounted(message)){
+            return;
+        }
+        for(int bucketSeconds : BUCKET_SECONDS){
+            try{
+                messageActivityRepository.createBucket(message.getPostedBy(), bucketSeconds, bucketStart(message.getTimePostedEpoch(), bucketSeconds));
+            }catch(DataIntegrityViolationException e){
+                // Another writer created the bucket first, which is all that was needed.
+            }
+        }
+    }
+
+    /**
+     * Counts a message that is being added or deleted, in the transaction that adds or deletes it.
+     * 
+     * @param message the message
+     * @param delta 1 for a message being added, -1 for one being deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Message message, int delta){
+        if(!isCounted(message)){
+            return;
+        }
+        for(int bucketSeconds : BUCKET_SECONDS){
+            messageActivityRepository.addToBucket(message.getPostedBy(), bucketSeconds, bucketStart(message.getTimePostedEpoch(), bucketSeconds), delta);
+        }
+    }
+
+    /**
+     * Uncounts messages being deleted together, in the transaction that deletes them, with one update per
+     * bucket rather than per message.
+     * 
+     * @param messages the messages being deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void uncountAll(List<MessageView> messages){
+        Map<MessageActivity.Key, Integer> counts = new HashMap<>();
+        for(MessageView message : messages){
+            if(message.getPostedBy() == null || message.getTimePostedEpoch() == null){
+                continue;
+            }
+            for(int bucketSeconds : BUCKET_SECONDS){
+                counts.merge(new MessageActivity.Key(message.getPostedBy(), bucketSeconds, bucketStart(message.getTimePostedEpoch(), bucketSeconds)), 1, Integer::sum);
+            }
+        }
+        counts.forEach((key, count) -> messageActivityRepository.addToBucket(key.getAccountId(), key.getBucketSeconds(), key.getBucketStart(), -count));
+    }
+
+    /**
+     * Retrieves the posting histogram of an account.
+     * 
+     * @param accountId the ID of the account
+     * @return the account's message counts per hour and per day, oldest first
+     */
+    @Transactional(readOnly = true)
+    public AccountActivity getActivity(int accountId){
+        return new AccountActivity(accountId,
+                messageActivityRepository.getBuckets(accountId, HOUR_SECONDS),
+                messageActivityRepository.getBuckets(accountId, DAY_SECONDS));
+    }
+
+    private static boolean isCounted(Message message){
+        return message.getPostedBy() != null && message.getTimePostedEpoch() != null;
+    }
+
+    private static long bucketStart(long epochSecond, int bucketSeconds){
+        return Math.floorDiv(epochSecond, bucketSeconds) * bucketSeconds;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.entity.Message;
+import com.example.repository.MessageArchive;
+import com.example.repository.MessageStore;
+
+/**
+ * MessageArchiver is a background service that moves aged messages out of the MessageStore and into the
+ * MessageArchive, keeping the hot store and its indexes small. Archived messages drop out of the message list,
+ * so each batch moved marks the cached list stale.
+ */
+@Service
+public class MessageArchiver {
+    private static final Logger log = LoggerFactory.getLogger(MessageArchiver.class);
+
+    private MessageStore messageStore;
+    private MessageArchive messageArchive;
+    private MessageResponseCache responseCache;
+    private Duration maxAge;
+    private int batchSize;
+
+    /**
+     * Constructs a MessageArchiver with the given MessageStore, MessageArchive and MessageResponseCache.
+     * 
+     * @param messageStore the store holding the hot messages
+     * @param messageArchive the cold tier that aged messages are moved into
+     * @param responseCache the cache of the serialized message list
+     * @param maxAgeDays the age in days after which a message is archived
+     * @param batchSize the number of messages moved per round trip
+     */
+    @Autowired
+    public MessageArchiver(MessageStore messageStore, MessageArchive messageArchive, MessageResponseCache responseCache,
+                           @Value("${message.archive.max-age-days:90}") long maxAgeDays,
+                           @Value("${message.archive.batch-size:500}") int batchSize){
+        this.messageStore = messageStore;
+        this.messageArchive = messageArchive;
+        this.responseCache = responseCache;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Periodically archives every message older than the configured maximum age.
+     */
+    @Scheduled(initialDelayString = "${message.archive.interval-ms:60000}", fixedDelayString = "${message.archive.interval-ms:60000}")
+    public void archiveAgedMessages(){
+        if(!messageArchive.isEnabled()){
+            return;
+        }
+        try{
+            int archived = archiveMessagesBefore(Instant.now().minus(maxAge).getEpochSecond());
+            if(archived > 0){
+                log.info("Archived {} messages", archived);
+            }
+        }catch(IOException e){
+            log.error("Message archival failed", e);
+        }
+    }
+
+    /**
+     * Archives every message posted before the given time. Each batch is held in the store while it is forced to
+     * disk, and only then removed, so an edit or delete made meanwhile is not lost, and a crash can at worst leave
+     * a message in both tiers, never in neither.
+     * 
+     * @param cutoff the exclusive upper bound on timePostedEpoch of the messages to archive
+     * @return the number of messages archived
+     * @throws IOException if the archive cannot be written
+     */
+    public int archiveMessagesBefore(long cutoff) throws IOException {
+        int archived = 0;
+        List<Message> batch;
+        do{
+            try{
+                batch = messageStore.moveMessagesBefore(cutoff, batchSize, this::append);
+            }catch(UncheckedIOException e){
+                throw e.getCause();
+            }
+            if(!batch.isEmpty()){
+                responseCache.invalidate();
+                archived += batch.size();
+            }
+        }while(batch.size() == batchSize);
+        return archived;
+    }
+
+    private void append(List<Message> batch){
+        try{
+            messageArchive.append(batch);
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+}
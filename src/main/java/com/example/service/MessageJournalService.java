@@ -0,0 +1,105 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.JournalBatch;
+import com.example.event.MessageChangedEvent;
+import com.example.exception.InvalidJournalOffsetException;
+import com.example.repository.MessageJournal;
+
+/**
+ * MessageJournalService is a service class responsible for recording every committed message change in the
+ * MessageJournal, letting consumers tail it by offset, and removing old segments once they fall outside the
+ * configured retention.
+ */
+@Service
+public class MessageJournalService {
+    private static final Logger log = LoggerFactory.getLogger(MessageJournalService.class);
+
+    public static final int MAX_RECORDS_PER_READ = 1000;
+
+    private MessageJournal messageJournal;
+    private long retentionBytes;
+    private Duration retentionAge;
+
+    /**
+     * Constructs a MessageJournalService with the given MessageJournal.
+     * 
+     * @param messageJournal the journal the changes are appended to
+     * @param retentionBytes the number of record bytes retained before the oldest segments are removed
+     * @param retentionHours the age in hours after which a segment is removed
+     */
+    @Autowired
+    public MessageJournalService(MessageJournal messageJournal,
+                                 @Value("${message.journal.retention-bytes:1073741824}") long retentionBytes,
+                                 @Value("${message.journal.retention-hours:168}") long retentionHours){
+        this.messageJournal = messageJournal;
+        this.retentionBytes = retentionBytes;
+        this.retentionAge = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Returns whether the journal is enabled.
+     * 
+     * @return true if changes are journaled
+     */
+    public boolean isEnabled(){
+        return messageJournal.isEnabled();
+    }
+
+    /**
+     * Appends a committed message change to the journal.
+     * 
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event){
+        if(!messageJournal.isEnabled()){
+            return;
+        }
+        try{
+            messageJournal.append(event.getType(), System.currentTimeMillis(), event.getMessage());
+        }catch(IOException e){
+            log.error("Could not journal {} of message {}", event.getType(), event.getMessage().getMessageId(), e);
+        }
+    }
+
+    /**
+     * Reads the records of the journal from the given offset.
+     * 
+     * @param offset the offset to read from, as returned in the nextOffset of a previous batch
+     * @param limit the maximum number of records to return, capped at MAX_RECORDS_PER_READ
+     * @return the records read and the offset to continue from
+     * @throws InvalidJournalOffsetException if the offset does not start a record or has been removed by retention
+     */
+    public JournalBatch read(long offset, int limit) throws InvalidJournalOffsetException {
+        return messageJournal.read(offset, Math.max(1, Math.min(limit, MAX_RECORDS_PER_READ)));
+    }
+
+    /**
+     * Periodically removes the journal segments that fall outside the configured retention.
+     */
+    @Scheduled(initialDelayString = "${message.journal.retention-interval-ms:60000}", fixedDelayString = "${message.journal.retention-interval-ms:60000}")
+    public void enforceRetention(){
+        if(!messageJournal.isEnabled()){
+            return;
+        }
+        try{
+            int removed = messageJournal.enforceRetention(retentionBytes, System.currentTimeMillis() - retentionAge.toMillis());
+            if(removed > 0){
+                log.info("Removed {} journal segments", removed);
+            }
+        }catch(IOException e){
+            log.error("Journal retention failed", e);
+        }
+    }
+}
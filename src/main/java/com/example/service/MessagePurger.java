@@ -0,0 +1,120 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.repository.MessageStore;
+
+/**
+ * MessagePurger is a background service that removes the tombstones soft-deleted messages leave in the
+ * MessageStore. It works in small batches with a pause between them, and stops for the round whenever more
+ * requests are in flight than the configured threshold, so the row and index deletes it issues stay out of the
+ * way of request traffic. Tombstones are already hidden from every read, so nothing cached changes when they go.
+ */
+@Service
+public class MessagePurger {
+    private static final Logger log = LoggerFactory.getLogger(MessagePurger.class);
+
+    private MessageStore messageStore;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private boolean enabled;
+    private int batchSize;
+    private long pauseMs;
+    private int maxInFlight;
+
+    private final LongAdder purged = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    /**
+     * Constructs a MessagePurger over the given MessageStore.
+     *
+     * @param messageStore the store holding the tombstones
+     * @param concurrencyLimiter the limiter whose in-flight count measures the request load
+     * @param enabled whether tombstones are purged in the background
+     * @param batchSize the number of tombstones removed per batch
+     * @param pauseMs how long to wait between batches
+     * @param maxInFlight the most requests in flight at which a batch is still started
+     */
+    @Autowired
+    public MessagePurger(MessageStore messageStore, ConcurrencyLimiter concurrencyLimiter,
+                         @Value("${message.purge.enabled:true}") boolean enabled,
+                         @Value("${message.purge.batch-size:100}") int batchSize,
+                         @Value("${message.purge.pause-ms:50}") long pauseMs,
+                         @Value("${message.purge.max-in-flight:10}") int maxInFlight){
+        this.messageStore = messageStore;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = pauseMs;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Periodically purges the tombstones left since the last round.
+     */
+    @Scheduled(initialDelayString = "${message.purge.interval-ms:10000}", fixedDelayString = "${message.purge.interval-ms:10000}")
+    public void purgeDeletedMessages(){
+        if(!enabled){
+            return;
+        }
+        try{
+            int count = purge();
+            if(count > 0){
+                log.info("Purged {} deleted messages", count);
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }catch(RuntimeException e){
+            log.error("Purging deleted messages failed", e);
+        }
+    }
+
+    /**
+     * Purges tombstones batch by batch until none are left or the request load rises above the threshold.
+     *
+     * @return the number of tombstones purged
+     * @throws InterruptedException if interrupted while pausing between batches
+     */
+    public int purge() throws InterruptedException {
+        int count = 0;
+        while(true){
+            if(concurrencyLimiter.getInFlight() > maxInFlight){
+                deferred.increment();
+                return count;
+            }
+            int batch = messageStore.purgeDeleted(batchSize);
+            if(batch == 0){
+                return count;
+            }
+            batches.increment();
+            purged.add(batch);
+            count += batch;
+            if(batch < batchSize){
+                return count;
+            }
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    /**
+     * Returns the counters of the purger.
+     *
+     * @return the numbers of tombstones purged, of batches, and of rounds cut short by the request load
+     */
+    public Map<String, Long> getStatistics(){
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("purgedCount", purged.sum());
+        statistics.put("batchCount", batches.sum());
+        statistics.put("deferredCount", deferred.sum());
+        return statistics;
+    }
+}
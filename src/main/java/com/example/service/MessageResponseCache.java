@@ -0,0 +1,146 @@
+package com.example.service;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * MessageResponseCache is a service class responsible for caching the serialized body of the full message list.
+ * The body is stamped with the message generation it was built at. Every change to the messages bumps the
+ * generation, which makes the cached body stale without touching it. A stale body is rebuilt by the first
+ * caller to ask for it; callers that arrive while it is being built wait for that build and share its bytes
+ * rather than querying and serializing the list again.
+ */
+@Service
+public class MessageResponseCache {
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Build> building = new AtomicReference<>();
+    private volatile Build built;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private final LongAdder sharedBuilds = new LongAdder();
+
+    /**
+     * Constructs a MessageResponseCache that serializes with the given ObjectMapper.
+     *
+     * @param enabled whether bodies are cached; a disabled cache builds the body for every caller
+     * @param objectMapper the mapper the message converters use, so cached bodies match uncached ones byte for byte
+     */
+    @Autowired
+    public MessageResponseCache(@Value("${message.response-cache.enabled:true}") boolean enabled, ObjectMapper objectMapper){
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Marks every cached body stale. Called after each committed change to the messages.
+     */
+    public void invalidate(){
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns the serialized body for the current generation, building it from the loader at most once.
+     *
+     * @param loader loads the value to serialize
+     * @return the JSON body
+     * @throws UncheckedIOException if the value cannot be serialized
+     */
+    public byte[] get(Supplier<?> loader){
+        if(!enabled){
+            return serialize(loader.get());
+        }
+        while(true){
+            long current = generation.get();
+            Build cached = built;
+            if(cached != null && cached.generation == current){
+                hits.increment();
+                return cached.result.join();
+            }
+            Build inFlight = building.get();
+            if(inFlight != null && inFlight.generation == current){
+                sharedBuilds.increment();
+                return await(inFlight);
+            }
+            Build build = new Build(current);
+            if(!building.compareAndSet(inFlight, build)){
+                continue;
+            }
+            builds.increment();
+            try{
+                // The generation is read before loading, so a change that commits during the load leaves this
+                // body stale rather than letting it pass for the newer generation.
+                build.result.complete(serialize(loader.get()));
+                Build previous = built;
+                if(previous == null || previous.generation < build.generation){
+                    built = build;
+                }
+            }catch(RuntimeException e){
+                build.result.completeExceptionally(e);
+                throw e;
+            }finally{
+                building.compareAndSet(build, null);
+            }
+            return build.result.join();
+        }
+    }
+
+    /**
+     * Returns the counters of the cache.
+     *
+     * @return the current generation, the number of calls served from the cache, the number of builds, and the
+     *         number of calls that waited for another caller's build
+     */
+    public Map<String, Long> getStatistics(){
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("generation", generation.get());
+        statistics.put("hitCount", hits.sum());
+        statistics.put("buildCount", builds.sum());
+        statistics.put("sharedBuildCount", sharedBuilds.sum());
+        return statistics;
+    }
+
+    private byte[] serialize(Object value){
+        try{
+            return objectMapper.writeValueAsBytes(value);
+        }catch(JsonProcessingException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] await(Build build){
+        try{
+            return build.result.join();
+        }catch(CompletionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Build {
+        private final long generation;
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private Build(long generation){
+            this.generation = generation;
+        }
+    }
+}
@@ -1,44 +1,118 @@
 package com.example.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.dto.AuthorView;
+import com.example.dto.AuthoredMessageView;
+import com.example.dto.MessageField;
+import com.example.dto.MessageView;
+import com.example.dto.SparseMessageView;
 import com.example.entity.Message;
+import com.example.event.InvalidationEvent;
+import com.example.event.MessageChangedEvent;
+import com.example.exception.ArchivedMessageException;
 import com.example.exception.InvalidMessageException;
+import com.example.exception.MessageVersionConflictException;
 import com.example.repository.AccountRepository;
-import com.example.repository.MessageRepository;
+import com.example.repository.MessageArchive;
+import com.example.repository.MessageStore;
+import com.example.repository.OffHeapMessageCache;
 
 /**
  * MessageService is a service class responsible for handling business logic related to Message entities.
- * It interacts with the MessageRepository and AccountRepository to perform various operations related to messages.
+ * It interacts with the MessageStore and AccountRepository to perform various operations related to messages,
+ * and falls through to the MessageArchive for messages that have been moved to cold storage.
+ * Message lookups and the list endpoints are served from the OffHeapMessageCache where possible.
+ * Every change to a message is published as a MessageChangedEvent, marks the cached message list stale, and is
+ * announced to the other nodes on the InvalidationBus, once the change has committed. Adding or deleting a message
+ * adjusts the poster's activity counts in the same transaction. Edits are checked against the message
+ * version instead of locking the message, so concurrent editors never wait on each other.
  */
 @Service
 public class MessageService {
-    private MessageRepository messageRepository;
+    /**
+     * The largest number of messages that may be retrieved by ID in one request.
+     */
+    public static final int MAX_MESSAGES_PER_LOOKUP = 500;
+
+    private MessageStore messageStore;
     private AccountRepository accountRepository;
+    private MessageArchive messageArchive;
+    private OffHeapMessageCache messageCache;
+    private MessageResponseCache responseCache;
+    private ApplicationEventPublisher eventPublisher;
+    private InvalidationBus invalidationBus;
+    private MessageActivityService activityService;
+    private TransactionTemplate transactionTemplate;
+    private int updateAttempts;
+    private int deleteChunkSize;
+    private boolean rejectionStackTraces;
 
     /**
-     * Constructs a MessageService with the given MessageRepository and AccountRepository.
+     * Constructs a MessageService with the given MessageStore, AccountRepository, MessageArchive and caches.
      * 
-     * @param messageRepository the repository used to perform message-related database operations
+     * @param messageStore the storage engine used to perform message-related operations
      * @param accountRepository the repository used to perform account-related database operations
+     * @param messageArchive the cold tier holding messages that have aged out of the message table
+     * @param messageCache the off-heap cache tier in front of the store
+     * @param responseCache the cache of the serialized message list, invalidated by every change
+     * @param eventPublisher the publisher that message changes are announced through
+     * @param invalidationBus the bus that message changes are announced to the other nodes on
+     * @param activityService the service keeping the posting counts of each account
+     * @param transactionManager the manager of the transactions that pair a message change with its counts
+     * @param retryUpdates whether an unconditional edit that loses a race with another edit is applied again
+     * @param maxUpdateAttempts the most times an unconditional edit is attempted when retries are enabled
+     * @param deleteChunkSize the most messages an account-wide delete removes per statement
+     * @param rejectionStackTraces whether invalid messages are rejected with a new exception carrying its stack trace
      */
     @Autowired
-    public MessageService(MessageRepository messageRepository, AccountRepository accountRepository){
-        this.messageRepository = messageRepository;
+    public MessageService(MessageStore messageStore, AccountRepository accountRepository, MessageArchive messageArchive,
+                          OffHeapMessageCache messageCache, MessageResponseCache responseCache,
+                          ApplicationEventPublisher eventPublisher, InvalidationBus invalidationBus,
+                          MessageActivityService activityService, PlatformTransactionManager transactionManager,
+                          @Value("${message.update.retry.enabled:false}") boolean retryUpdates,
+                          @Value("${message.update.retry.max-attempts:3}") int maxUpdateAttempts,
+                          @Value("${message.bulk-delete.chunk-size:500}") int deleteChunkSize,
+                          @Value("${message.validation.stack-traces:false}") boolean rejectionStackTraces){
+        this.messageStore = messageStore;
         this.accountRepository = accountRepository;
+        this.messageArchive = messageArchive;
+        this.messageCache = messageCache;
+        this.responseCache = responseCache;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.activityService = activityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.updateAttempts = retryUpdates ? Math.max(1, maxUpdateAttempts) : 1;
+        this.deleteChunkSize = Math.max(1, deleteChunkSize);
+        this.rejectionStackTraces = rejectionStackTraces;
     }
 
     /**
-     * Returns the MessageRepository used by this service.
+     * Returns the MessageStore used by this service.
      * 
-     * @return the MessageRepository
+     * @return the MessageStore
      */
-    public MessageRepository getMessageRepository() {
-        return messageRepository;
+    public MessageStore getMessageStore() {
+        return messageStore;
     }
 
     /**
@@ -50,71 +124,422 @@ public class MessageService {
      */
     public Message addMessage(Message message) throws InvalidMessageException {
         if(message.getMessageText().isBlank() || message.getMessageText().length() > 255 || accountRepository.isAccount(message.getPostedBy()) == null){
-            throw new InvalidMessageException();
+            throw rejection();
         }
 
-        return messageRepository.save(message);
+        activityService.prepare(message);
+        Message addedMessage = transactionTemplate.execute(status -> {
+            Message saved = messageStore.save(message);
+            activityService.record(saved, 1);
+            return saved;
+        });
+        publish(MessageChangedEvent.Type.CREATED, addedMessage);
+        return addedMessage;
     }
 
     /**
-     * Retrieves a message by its ID.
+     * Retrieves a message by its ID, from the cache, else from the store, else from the archive.
      * 
      * @param messageId the ID of the message to retrieve
      * @return the Message entity if found, or null if not found
      */
     public Message getMessage(int messageId){
-        return messageRepository.findById(messageId).orElse(null);
+        MessageView cached = messageCache.get(messageId);
+        if(cached != null){
+            return cached.toMessage();
+        }
+        long stamp = messageCache.stamp();
+        Message message = messageStore.findById(messageId).orElse(null);
+        if(message == null){
+            message = messageArchive.find(messageId);
+        }
+        if(message != null){
+            messageCache.fill(MessageView.from(message), stamp);
+        }
+        return message;
+    }
+
+    /**
+     * Retrieves the messages with the given IDs, from the cache where possible and in a single round trip to the
+     * store for the rest, falling through to the archive for any that are not in the store.
+     * 
+     * @param messageIds the IDs of the messages to retrieve
+     * @return a list of views of the messages found, in the order of messageIds
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getMessages(List<Integer> messageIds){
+        return hydrate(messageIds, true);
+    }
+
+    /**
+     * Attaches its author to each message. The authors are looked up by a single projection query for every
+     * MAX_MESSAGES_PER_LOOKUP distinct authors, however many messages there are, and never include passwords.
+     * 
+     * @param messages the messages whose authors are wanted
+     * @return a list of views of the same messages, in the same order, each with its author
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> withAuthors(List<MessageView> messages){
+        Set<Integer> authorIds = new LinkedHashSet<>();
+        for(MessageView message : messages){
+            if(message.getPostedBy() != null){
+                authorIds.add(message.getPostedBy());
+            }
+        }
+        Map<Integer, AuthorView> authors = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(authorIds);
+        for(int from = 0; from < ids.size(); from += MAX_MESSAGES_PER_LOOKUP){
+            for(AuthorView author : accountRepository.getAuthors(ids.subList(from, Math.min(from + MAX_MESSAGES_PER_LOOKUP, ids.size())))){
+                authors.put(author.getAccountId(), author);
+            }
+        }
+        List<MessageView> authored = new ArrayList<>(messages.size());
+        for(MessageView message : messages){
+            authored.add(new AuthoredMessageView(message, message.getPostedBy() == null ? null : authors.get(message.getPostedBy())));
+        }
+        return authored;
+    }
+
+    /**
+     * Retrieves a read-only view of all messages.
+     * 
+     * @return a list of views of all messages
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessages(){
+        if(messageCache.isEnabled()){
+            return hydrate(messageStore.getMessageIds(), false);
+        }
+        return messageStore.getMessageViews();
     }
 
     /**
-     * Retrieves all messages.
+     * Retrieves a read-only view of all messages posted within a time range.
      * 
-     * @return a list of all Message entities
+     * @param since the inclusive lower bound on timePostedEpoch, or null for no lower bound
+     * @param until the exclusive upper bound on timePostedEpoch, or null for no upper bound
+     * @return a list of views of the messages posted within the range
      */
-    public List<Message> getAllMessages(){
-        return messageRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessages(Long since, Long until){
+        if(since == null && until == null){
+            return getAllMessages();
+        }
+        if(messageCache.isEnabled()){
+            return hydrate(messageStore.getMessageIdsBetween(lowerBound(since), upperBound(until)), false);
+        }
+        return messageStore.getMessageViewsBetween(lowerBound(since), upperBound(until));
     }
 
     /**
-     * Retrieves all messages posted by a specific account.
+     * Retrieves only the selected fields of all messages, or of those posted by a specific account, optionally
+     * restricted to a time range. The store reads just the columns behind the fields, so the cache tiers are
+     * bypassed. As with the complete views, archived messages are included for a single account.
+     * 
+     * @param fields the fields to retrieve
+     * @param accountId the ID of the account whose messages are to be retrieved, or null for every account
+     * @param since the inclusive lower bound on timePostedEpoch, or null for no lower bound
+     * @param until the exclusive upper bound on timePostedEpoch, or null for no upper bound
+     * @return a list of views of the messages that serialize to the selected fields only
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getMessageFields(Set<MessageField> fields, Integer accountId, Long since, Long until){
+        long from = lowerBound(since);
+        long to = upperBound(until);
+        List<MessageView> hot = messageStore.getSparseMessageViews(fields, accountId, from, to);
+        if(accountId == null){
+            return hot;
+        }
+        List<Message> archived = messageArchive.findByPostedBy(accountId);
+        if(since != null || until != null){
+            archived.removeIf(message -> message.getTimePostedEpoch() == null
+                    || message.getTimePostedEpoch() < from || message.getTimePostedEpoch() >= to);
+        }
+        List<MessageView> messages = withArchived(archived, hot);
+        if(!archived.isEmpty()){
+            messages.replaceAll(message -> message instanceof SparseMessageView ? message : new SparseMessageView(message, fields));
+        }
+        return messages;
+    }
+
+    /**
+     * Retrieves a read-only view of all messages posted by a specific account, including archived ones.
+     * 
+     * @param accountId the ID of the account whose messages are to be retrieved
+     * @return a list of views of the messages posted by the specified account
+     */
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessagesById(int accountId){
+        List<MessageView> hot = messageCache.isEnabled()
+                ? hydrate(messageStore.getMessageIds(accountId), false)
+                : messageStore.getMessageViews(accountId);
+        return withArchived(messageArchive.findByPostedBy(accountId), hot);
+    }
+
+    /**
+     * Retrieves a read-only view of all messages posted by a specific account within a time range,
+     * including archived ones.
      * 
      * @param accountId the ID of the account whose messages are to be retrieved
-     * @return a list of Message entities posted by the specified account
+     * @param since the inclusive lower bound on timePostedEpoch, or null for no lower bound
+     * @param until the exclusive upper bound on timePostedEpoch, or null for no upper bound
+     * @return a list of views of the messages posted by the specified account within the range
      */
-    public List<Message> getAllMessagesById(int accountId){
-        return messageRepository.getAllMessages(accountId);
+    @Transactional(readOnly = true)
+    public List<MessageView> getAllMessagesById(int accountId, Long since, Long until){
+        if(since == null && until == null){
+            return getAllMessagesById(accountId);
+        }
+        long from = lowerBound(since);
+        long to = upperBound(until);
+        List<Message> archived = messageArchive.findByPostedBy(accountId);
+        archived.removeIf(message -> message.getTimePostedEpoch() == null
+                || message.getTimePostedEpoch() < from || message.getTimePostedEpoch() >= to);
+        List<MessageView> hot = messageCache.isEnabled()
+                ? hydrate(messageStore.getMessageIdsBetween(accountId, from, to), false)
+                : messageStore.getMessageViewsBetween(accountId, from, to);
+        return withArchived(archived, hot);
     }
 
     /**
-     * Deletes a message by its ID.
+     * Deletes a message by its ID, from the store and from the archive, whichever holds it.
      * 
      * @param messageId the ID of the message to delete
      * @return the deleted Message entity if it was found and deleted, or null if not found
      */
     public Message deleteMessage(int messageId){
-        Optional<Message> optionalMessage = messageRepository.findById(messageId);
-        if(optionalMessage.isPresent()){
-            Message deletedMessage = optionalMessage.get();
-            messageRepository.delete(deletedMessage);
-            return deletedMessage;
+        Message deletedMessage;
+        try{
+            deletedMessage = transactionTemplate.execute(status -> {
+                Optional<Message> optionalMessage = messageStore.findById(messageId);
+                optionalMessage.ifPresent(messageStore::delete);
+                Message archived = messageArchive.find(messageId);
+                List<Message> deletedArchived = archived == null ? List.of() : deleteArchived(List.of(archived));
+                Message deleted = optionalMessage.orElse(deletedArchived.isEmpty() ? null : archived);
+                if(deleted != null){
+                    activityService.record(deleted, -1);
+                }
+                return deleted;
+            });
+        }catch(OptimisticLockingFailureException e){
+            // A concurrent delete of the same message committed first, and only that one is counted.
+            return null;
         }
-        return null;
+        if(deletedMessage != null){
+            publish(MessageChangedEvent.Type.DELETED, deletedMessage);
+        }
+        return deletedMessage;
     }
 
     /**
-     * Updates the text of a specific message.
+     * Deletes every message posted by a specific account, optionally only those within a time range, from the
+     * store and from the archive. The messages are deleted in chunks, each a single statement in a transaction of
+     * its own, so a large account never holds locks for long. The activity counts are adjusted once per bucket
+     * and the message list cache once per chunk. Each deleted message is still announced on its own, so
+     * subscribers and other nodes see every one.
+     * 
+     * @param accountId the ID of the account whose messages are to be deleted
+     * @param since the inclusive lower bound on timePostedEpoch, or null for no lower bound
+     * @param until the exclusive upper bound on timePostedEpoch, or null for no upper bound
+     * @return the number of messages deleted
+     */
+    public int deleteAllMessagesById(int accountId, Long since, Long until){
+        long from = lowerBound(since);
+        long to = upperBound(until);
+        int deleted = 0;
+        Set<Integer> deletedIds = new HashSet<>();
+        List<MessageView> chunk;
+        do{
+            chunk = transactionTemplate.execute(status -> {
+                List<MessageView> messages = messageStore.deleteByPostedBy(accountId, from, to, deleteChunkSize);
+                activityService.uncountAll(messages);
+                return messages;
+            });
+            if(!chunk.isEmpty()){
+                responseCache.invalidate();
+                for(MessageView message : chunk){
+                    deletedIds.add(message.getMessageId());
+                    announce(MessageChangedEvent.Type.DELETED, message);
+                }
+                deleted += chunk.size();
+            }
+        }while(chunk.size() == deleteChunkSize);
+
+        List<Message> archived = messageArchive.findByPostedBy(accountId);
+        if(since != null || until != null){
+            archived.removeIf(message -> message.getTimePostedEpoch() == null
+                    || message.getTimePostedEpoch() < from || message.getTimePostedEpoch() >= to);
+        }
+        for(int start = 0; start < archived.size(); start += deleteChunkSize){
+            List<Message> batch = archived.subList(start, Math.min(start + deleteChunkSize, archived.size()));
+            List<MessageView> archivedChunk = transactionTemplate.execute(status -> {
+                List<MessageView> messages = new ArrayList<>();
+                for(Message message : deleteArchived(batch)){
+                    // A message caught between the archive append and the table delete was counted with the hot ones.
+                    if(!deletedIds.contains(message.getMessageId())){
+                        messages.add(MessageView.from(message));
+                    }
+                }
+                activityService.uncountAll(messages);
+                return messages;
+            });
+            if(!archivedChunk.isEmpty()){
+                responseCache.invalidate();
+                for(MessageView message : archivedChunk){
+                    announce(MessageChangedEvent.Type.DELETED, message);
+                }
+                deleted += archivedChunk.size();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Updates the text of a specific message, optionally only if the message still has an expected version.
+     * Of two edits that race, one fails with a conflict rather than silently overwriting the other. When retries
+     * are enabled, an edit made without an expected version that loses a race is applied again on top of the
+     * winner, since replacing the text does not depend on what it replaces.
      * 
      * @param messageId the ID of the message to update
      * @param newMessage the Message entity containing the new text
+     * @param expectedVersion the version the message must still have, or null to update it whatever its version
+     * @return the updated Message entity, with its new version
      * @throws InvalidMessageException if the message does not exist, the new text is blank, empty, or exceeds 255 characters
+     * @throws MessageVersionConflictException if the message does not have the expected version, or another edit won the race
+     * @throws ArchivedMessageException if the message has been moved to the archive, where it can no longer be edited
      */
-    public void updateMessage(int messageId, Message newMessage) throws InvalidMessageException{
-        Message old = getMessage(messageId);
+    public Message updateMessage(int messageId, Message newMessage, Integer expectedVersion)
+            throws InvalidMessageException, MessageVersionConflictException, ArchivedMessageException{
         String newText = newMessage.getMessageText();
-        if(old == null || newText.isBlank() || newText.isEmpty() || newText.length() > 255){
-            throw new InvalidMessageException();
+        if(newText.isBlank() || newText.isEmpty() || newText.length() > 255){
+            throw rejection();
         }
-        old.setMessageText(newText);
-        messageRepository.save(old);
+        int attempts = expectedVersion == null ? updateAttempts : 1;
+        for(int attempt = 1; ; attempt++){
+            Message updated;
+            try{
+                updated = messageStore.updateText(messageId, newText, expectedVersion);
+            }catch(OptimisticLockingFailureException e){
+                if(attempt < attempts){
+                    continue;
+                }
+                throw new MessageVersionConflictException(expectedVersion != null);
+            }
+            if(updated == null){
+                if(messageArchive.find(messageId) != null){
+                    throw new ArchivedMessageException();
+                }
+                throw rejection();
+            }
+            publish(MessageChangedEvent.Type.UPDATED, updated);
+            return updated;
+        }
+    }
+
+    /**
+     * Deletes archived messages from the archive.
+     *
+     * @return the messages that were still archived and are now deleted
+     */
+    private List<Message> deleteArchived(List<Message> messages){
+        try{
+            return messageArchive.delete(messages);
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the exception rejecting an invalid message: the shared stackless instance, or a new one carrying its
+     * stack trace when stack traces are enabled for debugging.
+     */
+    private InvalidMessageException rejection(){
+        return rejectionStackTraces ? InvalidMessageException.withStackTrace() : InvalidMessageException.INSTANCE;
+    }
+
+    /**
+     * Looks the messages up in the cache, then loads the misses from the store in batches of at most
+     * MAX_MESSAGES_PER_LOOKUP and caches them. Messages found nowhere are left out.
+     */
+    private List<MessageView> hydrate(List<Integer> messageIds, boolean includeArchived){
+        MessageView[] messages = new MessageView[messageIds.size()];
+        List<Integer> missing = new ArrayList<>();
+        for(int i = 0; i < messages.length; i++){
+            messages[i] = messageCache.get(messageIds.get(i));
+            if(messages[i] == null){
+                missing.add(messageIds.get(i));
+            }
+        }
+        if(!missing.isEmpty()){
+            long stamp = messageCache.stamp();
+            List<Message> found = new ArrayList<>(missing.size());
+            for(int from = 0; from < missing.size(); from += MAX_MESSAGES_PER_LOOKUP){
+                found.addAll(messageStore.findAllByIdInOrder(missing.subList(from, Math.min(from + MAX_MESSAGES_PER_LOOKUP, missing.size()))));
+            }
+            for(int i = 0, j = 0; i < messages.length; i++){
+                if(messages[i] != null){
+                    continue;
+                }
+                Message message = found.get(j);
+                if(message == null && includeArchived){
+                    message = messageArchive.find(missing.get(j));
+                }
+                j++;
+                if(message != null){
+                    messages[i] = MessageView.from(message);
+                    messageCache.fill(messages[i], stamp);
+                }
+            }
+        }
+        List<MessageView> hydrated = new ArrayList<>(messages.length);
+        for(MessageView message : messages){
+            if(message != null){
+                hydrated.add(message);
+            }
+        }
+        return hydrated;
+    }
+
+    private void publish(MessageChangedEvent.Type type, Message message){
+        responseCache.invalidate();
+        announce(type, MessageView.from(message));
+    }
+
+    private void announce(MessageChangedEvent.Type type, MessageView message){
+        eventPublisher.publishEvent(new MessageChangedEvent(type, message));
+        // A deletion takes the version after the last, so that no copy of the message outlives it.
+        int version = message.getVersion() == null ? 0 : message.getVersion();
+        invalidationBus.publish(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, message.getMessageId(),
+                type == MessageChangedEvent.Type.DELETED ? version + 1 : version, invalidationBus.getNodeId()));
+    }
+
+    /**
+     * Merges archived messages ahead of hot ones. A message caught between the archive append and the table
+     * delete may briefly exist in both tiers, in which case the hot copy wins.
+     */
+    private static List<MessageView> withArchived(List<Message> archived, List<MessageView> hot){
+        if(archived.isEmpty()){
+            return hot;
+        }
+        Set<Integer> hotIds = new HashSet<>();
+        for(MessageView message : hot){
+            hotIds.add(message.getMessageId());
+        }
+        List<MessageView> messages = new ArrayList<>(archived.size() + hot.size());
+        for(Message message : archived){
+            if(!hotIds.contains(message.getMessageId())){
+                messages.add(MessageView.from(message));
+            }
+        }
+        messages.addAll(hot);
+        return messages;
+    }
+
+    private static long lowerBound(Long since){
+        return since == null ? Long.MIN_VALUE : since;
+    }
+
+    private static long upperBound(Long until){
+        return until == null ? Long.MAX_VALUE : until;
     }
 }
\ No newline at end of file
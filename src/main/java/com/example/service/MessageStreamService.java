@@ -0,0 +1,196 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.dto.MessageView;
+import com.example.event.MessageChangedEvent;
+
+/**
+ * MessageStreamService is a service class responsible for pushing message changes to Server-Sent Events
+ * subscribers. Committed changes are appended to an in-memory ring buffer, and every subscriber drains the
+ * buffer from its own cursor on a small shared pool, so one slow client never holds up the others. A subscriber
+ * that falls a whole buffer behind is dropped, and may resume from the Last-Event-ID it last saw. A client that
+ * resumes from an event no longer in the buffer, or from before a restart, is sent a reset event first, since it
+ * has missed changes and needs to reload the messages it follows.
+ */
+@Service
+public class MessageStreamService {
+    private final int capacity;
+    private final int mask;
+    private final long timeoutMs;
+    private final AtomicReferenceArray<Entry> ring;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatchers;
+    private volatile long head;
+
+    /**
+     * Constructs a MessageStreamService with the configured buffer size.
+     *
+     * @param capacity the number of changes kept for catching up, rounded up to a power of two
+     * @param timeoutMs how long a subscription stays open before the client has to reconnect
+     * @param dispatcherThreads the number of threads that write to subscribers
+     */
+    public MessageStreamService(@Value("${message.stream.buffer-size:1024}") int capacity,
+                                @Value("${message.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${message.stream.dispatcher-threads:4}") int dispatcherThreads){
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.timeoutMs = timeoutMs;
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+        this.dispatchers = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "message-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the dispatcher threads.
+     */
+    @PreDestroy
+    public void close(){
+        dispatchers.shutdownNow();
+        for(Subscriber subscriber : subscribers){
+            try{
+                subscriber.emitter.complete();
+            }catch(RuntimeException e){
+                // The connection is already gone; there is nothing left to complete.
+            }
+        }
+    }
+
+    /**
+     * Opens a subscription to message changes.
+     *
+     * @param accountId the ID of the account whose messages to follow, or null to follow every message
+     * @param lastEventId the ID of the last event the client saw, or null to receive only new changes
+     * @return the emitter that the changes are written to
+     */
+    public SseEmitter subscribe(Integer accountId, Long lastEventId){
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        long current = head;
+        boolean missed = lastEventId != null && (lastEventId + 1 < current - capacity || lastEventId >= current);
+        long cursor = lastEventId == null || missed ? current : lastEventId + 1;
+        Subscriber subscriber = new Subscriber(emitter, accountId, cursor);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        try{
+            emitter.send(SseEmitter.event().comment("connected"));
+            if(missed){
+                emitter.send(SseEmitter.event().id(Long.toString(current - 1)).name("reset").data(""));
+            }
+        }catch(IOException e){
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Appends a committed message change to the buffer and wakes the subscribers.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event){
+        synchronized(this){
+            long sequence = head;
+            ring.set((int) (sequence & mask), new Entry(sequence, event));
+            head = sequence + 1;
+        }
+        for(Subscriber subscriber : subscribers){
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * Returns the number of open subscriptions.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount(){
+        return subscribers.size();
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final MessageChangedEvent event;
+
+        private Entry(long sequence, MessageChangedEvent event){
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Integer accountId;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long cursor;
+
+        private Subscriber(SseEmitter emitter, Integer accountId, long cursor){
+            this.emitter = emitter;
+            this.accountId = accountId;
+            this.cursor = cursor;
+        }
+
+        private void schedule(){
+            if(cursor < head && scheduled.compareAndSet(false, true)){
+                try{
+                    dispatchers.execute(this::drain);
+                }catch(RuntimeException e){
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain(){
+            try{
+                while(cursor < head){
+                    Entry entry = ring.get((int) (cursor & mask));
+                    if(head - cursor > capacity || entry == null || entry.sequence != cursor){
+                        // Fell a whole buffer behind: drop the client, which can resume from its Last-Event-ID.
+                        drop();
+                        return;
+                    }
+                    MessageView message = entry.event.getMessage();
+                    if(accountId == null || accountId.equals(message.getPostedBy())){
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(entry.sequence))
+                                .name(entry.event.getType().name().toLowerCase())
+                                .data(message, MediaType.APPLICATION_JSON));
+                    }
+                    cursor++;
+                }
+            }catch(IOException | IllegalStateException e){
+                drop();
+                return;
+            }finally{
+                scheduled.set(false);
+            }
+            schedule();
+        }
+
+        private void drop(){
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.PosterCount;
+import com.example.event.MessageChangedEvent;
+
+/**
+ * PosterActivityTracker is a service class responsible for tracking which accounts post the most messages over
+ * the last minute, hour and day, without querying the message table. Each window is a ring of time buckets, and
+ * every bucket counts posts per account in its own Count-Min sketch, so memory is fixed however many accounts post.
+ * A small min-heap per window keeps the accounts with the highest estimates as the candidates for the top posters.
+ * Recording a post touches one sketch and one heap per window, which costs the same whatever the traffic.
+ */
+@Service
+public class PosterActivityTracker {
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+
+    /**
+     * Constructs a PosterActivityTracker with the configured sketch and heap sizes.
+     *
+     * @param candidates the number of accounts each window keeps as candidates for the top posters
+     * @param sketchDepth the number of hash rows in each sketch
+     * @param sketchWidth the number of counters per row in each sketch, rounded up to a power of two
+     */
+    public PosterActivityTracker(@Value("${stats.top-posters.candidates:100}") int candidates,
+                                 @Value("${stats.top-posters.sketch-depth:4}") int sketchDepth,
+                                 @Value("${stats.top-posters.sketch-width:2048}") int sketchWidth){
+        windows.put("1m", new Window(12, 5_000L, candidates, sketchDepth, sketchWidth));
+        windows.put("1h", new Window(12, 300_000L, candidates, sketchDepth, sketchWidth));
+        windows.put("24h", new Window(24, 3_600_000L, candidates, sketchDepth, sketchWidth));
+    }
+
+    /**
+     * Counts a newly posted message towards its author in every window.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event){
+        if(event.getType() == MessageChangedEvent.Type.CREATED && event.getMessage().getPostedBy() != null){
+            record(event.getMessage().getPostedBy(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Counts one posted message towards an account in every window.
+     *
+     * @param accountId the ID of the account that posted
+     * @param timeMillis when the message was posted
+     */
+    public void record(int accountId, long timeMillis){
+        for(Window window : windows.values()){
+            window.record(accountId, timeMillis);
+        }
+    }
+
+    /**
+     * Returns whether a window is tracked.
+     *
+     * @param window the name of the window, such as 1m, 1h or 24h
+     * @return true if the window is tracked
+     */
+    public boolean hasWindow(String window){
+        return windows.containsKey(window);
+    }
+
+    /**
+     * Returns the accounts with the most posts within a window, most active first.
+     *
+     * @param window the name of the window, such as 1m, 1h or 24h
+     * @param limit the maximum number of accounts to return
+     * @return the most active accounts with their estimated post counts, or an empty list if the window is not tracked
+     */
+    public List<PosterCount> getTopPosters(String window, int limit){
+        Window tracked = windows.get(window);
+        return tracked == null ? Collections.emptyList() : tracked.top(limit, System.currentTimeMillis());
+    }
+
+    private static final class Window {
+        private final long bucketMillis;
+        private final CountMinSketch[] buckets;
+        private final CandidateHeap candidates;
+        private long currentBucket = Long.MIN_VALUE;
+
+        private Window(int bucketCount, long bucketMillis, int candidates, int sketchDepth, int sketchWidth){
+            this.bucketMillis = bucketMillis;
+            this.buckets = new CountMinSketch[bucketCount];
+            for(int i = 0; i < bucketCount; i++){
+                buckets[i] = new CountMinSketch(sketchDepth, sketchWidth);
+            }
+            this.candidates = new CandidateHeap(candidates);
+        }
+
+        private synchronized void record(int accountId, long timeMillis){
+            advance(timeMillis);
+            buckets[(int) Math.floorMod(currentBucket, (long) buckets.length)].add(accountId);
+            candidates.offer(accountId, estimate(accountId));
+        }
+
+        private synchronized List<PosterCount> top(int limit, long timeMillis){
+            advance(timeMillis);
+            List<PosterCount> top = new ArrayList<>();
+            for(int i = 0; i < candidates.size; i++){
+                long count = estimate(candidates.ids[i]);
+                if(count > 0){
+                    top.add(new PosterCount(candidates.ids[i], count));
+                }
+            }
+            top.sort((a, b) -> a.getCount() != b.getCount() ? Long.compare(b.getCount(), a.getCount())
+                                                             : Integer.compare(a.getAccountId(), b.getAccountId()));
+            return top.size() > limit ? new ArrayList<>(top.subList(0, Math.max(0, limit))) : top;
+        }
+
+        private long estimate(int accountId){
+            long count = 0;
+            for(CountMinSketch bucket : buckets){
+                count += bucket.estimate(accountId);
+            }
+            return count;
+        }
+
+        /**
+         * Moves the window forward to the bucket of the given time, clearing the buckets that fell out of it and
+         * refreshing the candidates' counts, which only ever shrink when buckets expire.
+         */
+        private void advance(long timeMillis){
+            long bucket = Math.floorDiv(timeMillis, bucketMillis);
+            if(bucket <= currentBucket){
+                return;
+            }
+            if(currentBucket == Long.MIN_VALUE || bucket - currentBucket >= buckets.length){
+                for(CountMinSketch sketch : buckets){
+                    sketch.clear();
+                }
+            }else{
+                for(long expired = currentBucket + 1; expired <= bucket; expired++){
+                    buckets[(int) Math.floorMod(expired, (long) buckets.length)].clear();
+                }
+            }
+            currentBucket = bucket;
+            candidates.refresh(this::estimate);
+        }
+    }
+
+    /**
+     * A min-heap of accounts keyed by their estimated counts, with an index so that an account already in the
+     * heap is updated in place.
+     */
+    private static final class CandidateHeap {
+        private final int[] ids;
+        private final long[] counts;
+        private final Map<Integer, Integer> positions;
+        private int size;
+
+        private CandidateHeap(int capacity){
+            this.ids = new int[Math.max(1, capacity)];
+            this.counts = new long[ids.length];
+            this.positions = new HashMap<>(ids.length * 2);
+        }
+
+        private void offer(int accountId, long count){
+            Integer position = positions.get(accountId);
+            if(position != null){
+                counts[position] = count;
+                siftDown(siftUp(position));
+            }else if(size < ids.length){
+                place(size, accountId, count);
+                siftUp(size++);
+            }else if(count > counts[0]){
+                positions.remove(ids[0]);
+                place(0, accountId, count);
+                siftDown(0);
+            }
+        }
+
+        private void refresh(IntToLongFunction estimate){
+            int kept = 0;
+            for(int i = 0; i < size; i++){
+                long count = estimate.applyAsLong(ids[i]);
+                if(count > 0){
+                    ids[kept] = ids[i];
+                    counts[kept++] = count;
+                }
+            }
+            Arrays.fill(ids, kept, size, 0);
+            size = kept;
+            positions.clear();
+            for(int i = 0; i < size; i++){
+                positions.put(ids[i], i);
+            }
+            for(int i = size / 2 - 1; i >= 0; i--){
+                siftDown(i);
+            }
+        }
+
+        private int siftUp(int position){
+            while(position > 0){
+                int parent = (position - 1) / 2;
+                if(counts[parent] <= counts[position]){
+                    break;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+            return position;
+        }
+
+        private void siftDown(int position){
+            while(true){
+                int smallest = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if(left < size && counts[left] < counts[smallest]){
+                    smallest = left;
+                }
+                if(right < size && counts[right] < counts[smallest]){
+                    smallest = right;
+                }
+                if(smallest == position){
+                    return;
+                }
+                swap(smallest, position);
+                position = smallest;
+            }
+        }
+
+        private void place(int position, int accountId, long count){
+            ids[position] = accountId;
+            counts[position] = count;
+            positions.put(accountId, position);
+        }
+
+        private void swap(int a, int b){
+            int id = ids[a];
+            long count = counts[a];
+            place(a, ids[b], counts[b]);
+            place(b, id, count);
+        }
+    }
+}
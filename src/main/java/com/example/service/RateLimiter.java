@@ -0,0 +1,179 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.config.RateLimitProperties;
+import com.example.exception.RateLimitExceededException;
+
+/**
+ * RateLimiter is a service class responsible for per-endpoint token bucket rate limiting, keyed either by
+ * client IP address or by account.
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (the GCRA form of a token bucket),
+ * so a check is one map lookup and one compare-and-set, and buckets live in ConcurrentHashMaps whose reads
+ * never lock. Buckets that have sat full for the idle eviction period are swept away.
+ */
+@Service
+public class RateLimiter {
+    private final boolean enabled;
+    private final long idleEvictionNanos;
+    private final Map<String, Limiter> perIp = new HashMap<>();
+    private final Map<String, Limiter> perAccount = new HashMap<>();
+
+    /**
+     * Constructs a RateLimiter with the limits of the given RateLimitProperties.
+     * 
+     * @param properties the configured per-endpoint limits
+     */
+    @Autowired
+    public RateLimiter(RateLimitProperties properties){
+        this.enabled = properties.isEnabled();
+        this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        for(Map.Entry<String, RateLimitProperties.Endpoint> endpoint : properties.getEndpoints().entrySet()){
+            if(endpoint.getValue().getPerIp() != null){
+                perIp.put(endpoint.getKey(), new Limiter(endpoint.getValue().getPerIp()));
+            }
+            if(endpoint.getValue().getPerAccount() != null){
+                perAccount.put(endpoint.getKey(), new Limiter(endpoint.getValue().getPerAccount()));
+            }
+        }
+    }
+
+    /**
+     * Checks whether an endpoint has a per-account limit.
+     * 
+     * @param endpoint the handler method name of the endpoint
+     * @return true if requests to the endpoint are limited per account
+     */
+    public boolean limitsAccounts(String endpoint){
+        return enabled && perAccount.containsKey(endpoint);
+    }
+
+    /**
+     * Takes a token from the bucket of a client IP address for an endpoint.
+     * 
+     * @param endpoint the handler method name of the endpoint
+     * @param address the IP address of the client
+     * @throws RateLimitExceededException if the bucket is empty
+     */
+    public void acquireForIp(String endpoint, String address){
+        if(enabled){
+            acquire(perIp.get(endpoint), address);
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of an account for an endpoint.
+     * 
+     * @param endpoint the handler method name of the endpoint
+     * @param account the key of the account, such as its username or ID
+     * @throws RateLimitExceededException if the bucket is empty
+     */
+    public void acquireForAccount(String endpoint, String account){
+        if(enabled){
+            acquire(perAccount.get(endpoint), account);
+        }
+    }
+
+    /**
+     * Periodically evicts the buckets that have been full and unused for the idle eviction period.
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.idle-eviction-ms:300000}")
+    public void evictIdleBuckets(){
+        long cutoff = System.nanoTime() - idleEvictionNanos;
+        for(Limiter limiter : perIp.values()){
+            limiter.evictIdle(cutoff);
+        }
+        for(Limiter limiter : perAccount.values()){
+            limiter.evictIdle(cutoff);
+        }
+    }
+
+    /**
+     * Returns the allowed and rejected request counts and the number of live buckets of every limit.
+     * 
+     * @return the statistics of each limit, keyed by endpoint and scope
+     */
+    public Map<String, Map<String, Long>> getStatistics(){
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        for(Map.Entry<String, Limiter> limiter : perIp.entrySet()){
+            statistics.put(limiter.getKey() + ".per-ip", limiter.getValue().getStatistics());
+        }
+        for(Map.Entry<String, Limiter> limiter : perAccount.entrySet()){
+            statistics.put(limiter.getKey() + ".per-account", limiter.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    private static void acquire(Limiter limiter, String key){
+        if(limiter == null || key == null){
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key, System.nanoTime());
+        if(waitNanos > 0){
+            throw new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+    }
+
+    /**
+     * The buckets of one endpoint and scope.
+     */
+    private static final class Limiter {
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Limiter(RateLimitProperties.Limit limit){
+            if(limit.getCapacity() < 1 || limit.getRefillPerSecond() <= 0){
+                throw new IllegalArgumentException("rate limits need a positive capacity and refill rate");
+            }
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+            this.burstToleranceNanos = emissionIntervalNanos * (limit.getCapacity() - 1);
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise how long until one is available, in nanoseconds
+         */
+        private long tryAcquire(String key, long now){
+            AtomicLong bucket = buckets.get(key);
+            if(bucket == null){
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while(true){
+                long arrival = bucket.get();
+                long start = Math.max(arrival, now);
+                if(start - now > burstToleranceNanos){
+                    rejected.increment();
+                    return start - now - burstToleranceNanos;
+                }
+                if(bucket.compareAndSet(arrival, start + emissionIntervalNanos)){
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        private void evictIdle(long cutoff){
+            buckets.values().removeIf(bucket -> bucket.get() - cutoff < 0);
+        }
+
+        private Map<String, Long> getStatistics(){
+            Map<String, Long> statistics = new LinkedHashMap<>();
+            statistics.put("allowed", allowed.sum());
+            statistics.put("rejected", rejected.sum());
+            statistics.put("buckets", (long) buckets.size());
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.example.event.InvalidationEvent;
+
+/**
+ * SocketInvalidationBus connects the nodes of a cluster over TCP. Every node listens on the configured port and
+ * keeps one outbound connection to each configured peer, written by a sender thread of its own from a bounded
+ * queue, so publishing never waits on the network. Each event is a small binary frame.
+ *
+ * TCP delivers in order while a connection lasts, but events queued or in flight when it breaks are lost. So a
+ * node treats every new inbound connection as a possible gap and drops everything it has cached, and a sender
+ * whose queue overflows closes its connection on purpose to cause exactly that.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.bus", havingValue = "socket")
+public class SocketInvalidationBus extends AbstractInvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(SocketInvalidationBus.class);
+
+    /**
+     * The first four bytes of every connection: "INV1".
+     */
+    private static final int MAGIC = 0x494e5631;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int MAX_BATCH = 256;
+    private static final InvalidationEvent.EntityType[] ENTITY_TYPES = InvalidationEvent.EntityType.values();
+
+    private final int port;
+    private final List<Peer> peers = new ArrayList<>();
+    private final long reconnectMs;
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ServerSocket server;
+
+    /**
+     * Constructs a SocketInvalidationBus with the configured port and peers.
+     *
+     * @param nodeId the ID of this node, or blank for a random one
+     * @param port the port to listen on for the other nodes, or 0 for any free port
+     * @param peers the host:port addresses of the other nodes, separated by commas
+     * @param queueSize the most events waiting to be sent to one peer
+     * @param reconnectMs how long to wait before connecting to a peer again
+     */
+    public SocketInvalidationBus(@Value("${invalidation.node-id:}") String nodeId,
+                                 @Value("${invalidation.socket.port:7800}") int port,
+                                 @Value("${invalidation.socket.peers:}") String peers,
+                                 @Value("${invalidation.socket.queue-size:10000}") int queueSize,
+                                 @Value("${invalidation.socket.reconnect-ms:1000}") long reconnectMs){
+        super(nodeId);
+        this.port = port;
+        this.reconnectMs = reconnectMs;
+        for(String peer : peers.split(",")){
+            peer = peer.trim();
+            if(!peer.isEmpty()){
+                int colon = peer.lastIndexOf(':');
+                InetSocketAddress address = InetSocketAddress.createUnresolved(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1)));
+                this.peers.add(new Peer(address, queueSize));
+            }
+        }
+    }
+
+    /**
+     * Starts listening for the other nodes and connecting to them.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(port));
+        running = true;
+        start("invalidation-acceptor", this::accept);
+        for(Peer peer : peers){
+            peer.thread = start("invalidation-sender-" + peer.address, peer);
+        }
+    }
+
+    /**
+     * Closes every connection and stops the threads.
+     */
+    @PreDestroy
+    public void close(){
+        running = false;
+        closeQuietly(server);
+        for(Socket socket : inbound){
+            closeQuietly(socket);
+        }
+        for(Peer peer : peers){
+            peer.thread.interrupt();
+            closeQuietly(peer.socket);
+        }
+    }
+
+    /**
+     * Returns the port this node listens on, which differs from the configured one if that was 0.
+     *
+     * @return the local port
+     */
+    public int getLocalPort(){
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void publish(InvalidationEvent event){
+        published.increment();
+        for(Peer peer : peers){
+            if(!peer.queue.offer(event)){
+                dropped.increment();
+                peer.overflowed = true;
+            }
+        }
+    }
+
+    private void accept(){
+        while(running){
+            try{
+                Socket socket = server.accept();
+                socket.setKeepAlive(true);
+                inbound.add(socket);
+                start("invalidation-receiver-" + socket.getRemoteSocketAddress(), () -> receive(socket));
+            }catch(IOException e){
+                if(running){
+                    log.warn("Could not accept an invalidation connection", e);
+                }
+            }
+        }
+    }
+
+    private void receive(Socket socket){
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))){
+            if(in.readInt() != MAGIC){
+                log.warn("Rejected an invalidation connection from {}", socket.getRemoteSocketAddress());
+                return;
+            }
+            // Whatever this peer sent before the connection was made is lost.
+            resync();
+            while(running){
+                int type = in.readUnsignedByte();
+                if(type >= ENTITY_TYPES.length){
+                    throw new IOException("Unknown entity type " + type);
+                }
+                int entityId = in.readInt();
+                long version = in.readLong();
+                String origin = in.readUTF();
+                deliver(new InvalidationEvent(ENTITY_TYPES[type], entityId, version, origin));
+            }
+        }catch(EOFException e){
+            // The peer closed the connection; it resynchronizes us when it connects again.
+        }catch(IOException e){
+            if(running){
+                log.warn("Lost the invalidation connection from {}", socket.getRemoteSocketAddress(), e);
+            }
+        }finally{
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static Thread start(String name, Runnable task){
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable){
+        if(closeable == null){
+            return;
+        }
+        try{
+            closeable.close();
+        }catch(Exception e){
+            // Closing is best effort; the other side notices the connection is gone either way.
+        }
+    }
+
+    /**
+     * The outbound connection to one other node, with the events waiting to be sent to it.
+     */
+    private final class Peer implements Runnable {
+        private final InetSocketAddress address;
+        private final BlockingQueue<InvalidationEvent> queue;
+        private volatile boolean overflowed;
+        private volatile Socket socket;
+        private Thread thread;
+
+        private Peer(InetSocketAddress address, int queueSize){
+            this.address = address;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        }
+
+        @Override
+        public void run(){
+            List<InvalidationEvent> batch = new ArrayList<>(MAX_BATCH);
+            while(running){
+                boolean connected = false;
+                try(Socket connection = new Socket()){
+                    socket = connection;
+                    connection.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT_MS);
+                    connection.setTcpNoDelay(true);
+                    connection.setKeepAlive(true);
+                    connected = true;
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                    // The peer drops its caches when it reads the magic number, which covers every event queued so far.
+                    queue.clear();
+                    overflowed = false;
+                    out.writeInt(MAGIC);
+                    out.flush();
+                    while(running && !overflowed){
+                        InvalidationEvent event = queue.poll(reconnectMs, TimeUnit.MILLISECONDS);
+                        if(event == null){
+                            continue;
+                        }
+                        batch.add(event);
+                        queue.drainTo(batch, MAX_BATCH - 1);
+                        for(InvalidationEvent pending : batch){
+                            out.writeByte(pending.getEntityType().ordinal());
+                            out.writeInt(pending.getEntityId());
+                            out.writeLong(pending.getVersion());
+                            out.writeUTF(pending.getOrigin());
+                        }
+                        out.flush();
+                        batch.clear();
+                    }
+                }catch(IOException e){
+                    if(running && connected){
+                        log.warn("Lost the invalidation connection to {}", address, e);
+                    }else if(running){
+                        log.debug("Could not connect to {}", address, e);
+                    }
+                }catch(InterruptedException e){
+                    return;
+                }
+                batch.clear();
+                try{
+                    if(running){
+                        Thread.sleep(reconnectMs);
+                    }
+                }catch(InterruptedException e){
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * SpaceSaving keeps approximate counts of the most frequent terms in a stream, using a fixed number of counters.
+ * When every counter is taken, a new term replaces the one with the smallest count and inherits that count, so a
+ * term that is truly frequent is never lost, and its count may only run high by at most the count it inherited.
+ * The counters form a min-heap indexed by term. It is not thread-safe.
+ */
+final class SpaceSaving {
+    private final String[] terms;
+    private final long[] counts;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    SpaceSaving(int capacity){
+        this.terms = new String[Math.max(1, capacity)];
+        this.counts = new long[terms.length];
+        this.positions = new HashMap<>(terms.length * 2);
+    }
+
+    void add(String term){
+        Integer position = positions.get(term);
+        if(position != null){
+            counts[position]++;
+            siftDown(position);
+        }else if(size < terms.length){
+            place(size, term, 1);
+            siftUp(size++);
+        }else{
+            positions.remove(terms[0]);
+            place(0, term, counts[0] + 1);
+            siftDown(0);
+        }
+    }
+
+    void forEach(ObjLongConsumer<String> action){
+        for(int i = 0; i < size; i++){
+            action.accept(terms[i], counts[i]);
+        }
+    }
+
+    void clear(){
+        for(int i = 0; i < size; i++){
+            terms[i] = null;
+        }
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int position){
+        while(position > 0){
+            int parent = (position - 1) / 2;
+            if(counts[parent] <= counts[position]){
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position){
+        while(true){
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if(left < size && counts[left] < counts[smallest]){
+                smallest = left;
+            }
+            if(right < size && counts[right] < counts[smallest]){
+                smallest = right;
+            }
+            if(smallest == position){
+                return;
+            }
+            swap(smallest, position);
+            position = smallest;
+        }
+    }
+
+    private void place(int position, String term, long count){
+        terms[position] = term;
+        counts[position] = count;
+        positions.put(term, position);
+    }
+
+    private void swap(int a, int b){
+        String term = terms[a];
+        long count = counts[a];
+        place(a, terms[b], counts[b]);
+        place(b, term, count);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.dto.PosterCount;
+import com.example.repository.OffHeapMessageCache;
+
+/**
+ * StatsService is a service class responsible for collecting runtime statistics for monitoring.
+ */
+@Service
+public class StatsService {
+    private static final String[] CACHE_REGIONS = {"message", "account", "message-queries", "account-queries"};
+
+    private Statistics statistics;
+    private RateLimiter rateLimiter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private OffHeapMessageCache messageCache;
+    private MessageResponseCache responseCache;
+    private PosterActivityTracker posterActivityTracker;
+    private AuditLog auditLog;
+    private CacheInvalidator cacheInvalidator;
+    private MessagePurger messagePurger;
+
+    /**
+     * Constructs a StatsService over the statistics of the given EntityManagerFactory, limiters, message caches,
+     * poster activity tracker, audit log, cache invalidator and message purger.
+     * 
+     * @param entityManagerFactory the factory whose Hibernate statistics are reported
+     * @param rateLimiter the rate limiter whose counters are reported
+     * @param concurrencyLimiter the concurrency limiter whose limit and counters are reported
+     * @param messageCache the off-heap message cache whose counters are reported
+     * @param responseCache the message list response cache whose counters are reported
+     * @param posterActivityTracker the tracker whose most active posters are reported
+     * @param auditLog the audit log whose counters are reported
+     * @param cacheInvalidator the invalidator whose counters, and those of its bus, are reported
+     * @param messagePurger the purger of deleted messages whose counters are reported
+     */
+    @Autowired
+    public StatsService(EntityManagerFactory entityManagerFactory, RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter,
+                        OffHeapMessageCache messageCache, MessageResponseCache responseCache,
+                        PosterActivityTracker posterActivityTracker, AuditLog auditLog, CacheInvalidator cacheInvalidator,
+                        MessagePurger messagePurger){
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.messageCache = messageCache;
+        this.responseCache = responseCache;
+        this.posterActivityTracker = posterActivityTracker;
+        this.auditLog = auditLog;
+        this.cacheInvalidator = cacheInvalidator;
+        this.messagePurger = messagePurger;
+    }
+
+    /**
+     * Returns the hit, miss and put counts and the in-memory size of every second-level and query cache region.
+     * 
+     * @return the statistics of each cache region, keyed by region name
+     */
+    public Map<String, Map<String, Long>> getCacheRegionStatistics(){
+        Map<String, Map<String, Long>> regions = new LinkedHashMap<>();
+        for(String region : CACHE_REGIONS){
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if(regionStatistics != null){
+                regions.put(region, toMap(regionStatistics));
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Returns the allowed and rejected request counts and the number of live buckets of every rate limit.
+     * 
+     * @return the statistics of each rate limit, keyed by endpoint and scope
+     */
+    public Map<String, Map<String, Long>> getRateLimitStatistics(){
+        return rateLimiter.getStatistics();
+    }
+
+    /**
+     * Returns the current concurrency limit, the requests in flight and the number of shed requests.
+     * 
+     * @return the concurrency limiter statistics, keyed by name
+     */
+    public Map<String, Long> getConcurrencyStatistics(){
+        return concurrencyLimiter.getStatistics();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the off-heap message cache, with its entry count and the
+     * off-heap memory it has allocated.
+     * 
+     * @return the statistics of the off-heap message cache, keyed by name
+     */
+    public Map<String, Long> getMessageCacheStatistics(){
+        return messageCache.getStatistics();
+    }
+
+    /**
+     * Returns the generation of the message list response cache, with its hit, build and shared build counts.
+     * 
+     * @return the statistics of the response cache, keyed by name
+     */
+    public Map<String, Long> getResponseCacheStatistics(){
+        return responseCache.getStatistics();
+    }
+
+    /**
+     * Returns the published, written, dropped and pending record counts of the audit log, and how often it was
+     * forced to disk.
+     * 
+     * @return the audit log statistics, keyed by name
+     */
+    public Map<String, Long> getAuditStatistics(){
+        return auditLog.getStatistics();
+    }
+
+    /**
+     * Returns the number of invalidations published, received, applied and ignored as stale or duplicate, and
+     * the number of times everything cached was dropped because invalidations may have been lost.
+     * 
+     * @return the invalidation statistics, keyed by name
+     */
+    public Map<String, Long> getInvalidationStatistics(){
+        return cacheInvalidator.getStatistics();
+    }
+
+    /**
+     * Returns the number of deleted messages purged, the number of batches they were purged in, and the number
+     * of purge rounds cut short because the request load was high.
+     * 
+     * @return the purge statistics, keyed by name
+     */
+    public Map<String, Long> getPurgeStatistics(){
+        return messagePurger.getStatistics();
+    }
+
+    /**
+     * Returns whether poster activity is tracked over a window.
+     * 
+     * @param window the name of the window, such as 1m, 1h or 24h
+     * @return true if the window is tracked
+     */
+    public boolean isTopPostersWindow(String window){
+        return posterActivityTracker.hasWindow(window);
+    }
+
+    /**
+     * Returns the accounts that posted the most messages within a window, most active first. The counts are
+     * estimates that may run slightly high, but never low.
+     * 
+     * @param window the name of the window, such as 1m, 1h or 24h
+     * @param limit the maximum number of accounts to return
+     * @return the most active accounts with their estimated post counts
+     */
+    public List<PosterCount> getTopPosters(String window, int limit){
+        return posterActivityTracker.getTopPosters(window, limit);
+    }
+
+    private static Map<String, Long> toMap(CacheRegionStatistics regionStatistics){
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("hitCount", regionStatistics.getHitCount());
+        values.put("missCount", regionStatistics.getMissCount());
+        values.put("putCount", regionStatistics.getPutCount());
+        values.put("elementCountInMemory", regionStatistics.getElementCountInMemory());
+        return values;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.dto.TrendingTerm;
+import com.example.event.MessageChangedEvent;
+
+/**
+ * TrendingService is a service class responsible for tracking the terms and hashtags that are trending in recent
+ * messages. New messages are tokenized as they are posted, and their terms are counted into a ring of time buckets,
+ * each holding a space-saving summary of fixed size. A query merges the buckets, weighting each by how long ago it
+ * was filled, so trending terms are answered from memory without reading the message table.
+ */
+@Service
+public class TrendingService {
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was", "one", "our",
+            "out", "has", "have", "him", "his", "how", "its", "may", "new", "now", "see", "two", "who", "did", "get",
+            "got", "let", "say", "she", "too", "use", "way", "this", "that", "with", "from", "they", "them", "then",
+            "than", "there", "their", "what", "when", "where", "which", "while", "will", "would", "could", "should",
+            "been", "being", "were", "into", "onto", "over", "just", "like", "some", "such", "only", "also", "very",
+            "about", "after", "again", "because", "before", "each", "more", "most", "other", "these", "those", "here",
+            "your", "yours", "ours", "does", "doing", "done", "make", "made", "much", "many", "well", "back", "even"));
+
+    private final long bucketMillis;
+    private final double halfLifeMillis;
+    private final SpaceSaving[] buckets;
+    private long currentBucket = Long.MIN_VALUE;
+
+    /**
+     * Constructs a TrendingService with the configured window and summary sizes.
+     *
+     * @param bucketMillis how long each bucket collects terms for
+     * @param bucketCount the number of buckets in the window
+     * @param halfLifeMillis how long it takes for a use of a term to count for half as much
+     * @param capacity the number of terms each bucket keeps counts for
+     */
+    public TrendingService(@Value("${trending.bucket-ms:300000}") long bucketMillis,
+                           @Value("${trending.buckets:12}") int bucketCount,
+                           @Value("${trending.half-life-ms:1800000}") long halfLifeMillis,
+                           @Value("${trending.capacity:500}") int capacity){
+        this.bucketMillis = bucketMillis;
+        this.halfLifeMillis = halfLifeMillis;
+        this.buckets = new SpaceSaving[Math.max(1, bucketCount)];
+        for(int i = 0; i < buckets.length; i++){
+            buckets[i] = new SpaceSaving(capacity);
+        }
+    }
+
+    /**
+     * Counts the terms of a newly posted message.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event){
+        if(event.getType() == MessageChangedEvent.Type.CREATED && event.getMessage().getMessageText() != null){
+            record(event.getMessage().getMessageText(), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Counts each distinct term of a message text once.
+     *
+     * @param messageText the text to tokenize
+     * @param timeMillis when the message was posted
+     */
+    public void record(String messageText, long timeMillis){
+        Set<String> terms = tokenize(messageText);
+        if(terms.isEmpty()){
+            return;
+        }
+        synchronized(this){
+            advance(timeMillis);
+            SpaceSaving bucket = buckets[(int) Math.floorMod(currentBucket, (long) buckets.length)];
+            for(String term : terms){
+                bucket.add(term);
+            }
+        }
+    }
+
+    /**
+     * Returns the terms with the highest decayed counts over the window, highest first.
+     *
+     * @param limit the maximum number of terms to return
+     * @return the trending terms with their scores
+     */
+    public List<TrendingTerm> getTrending(int limit){
+        Map<String, Double> scores = new HashMap<>();
+        synchronized(this){
+            advance(System.currentTimeMillis());
+            for(int age = 0; age < buckets.length; age++){
+                double weight = Math.pow(0.5, age * bucketMillis / halfLifeMillis);
+                buckets[(int) Math.floorMod(currentBucket - age, (long) buckets.length)]
+                        .forEach((term, count) -> scores.merge(term, count * weight, Double::sum));
+            }
+        }
+        List<TrendingTerm> trending = new ArrayList<>(scores.size());
+        scores.forEach((term, score) -> trending.add(new TrendingTerm(term, score)));
+        trending.sort((a, b) -> a.getScore() != b.getScore() ? Double.compare(b.getScore(), a.getScore())
+                                                             : a.getTerm().compareTo(b.getTerm()));
+        return trending.size() > limit ? new ArrayList<>(trending.subList(0, Math.max(0, limit))) : trending;
+    }
+
+    /**
+     * Moves the window forward to the bucket of the given time, clearing the buckets that fell out of it.
+     */
+    private void advance(long timeMillis){
+        long bucket = Math.floorDiv(timeMillis, bucketMillis);
+        if(bucket <= currentBucket){
+            return;
+        }
+        if(currentBucket == Long.MIN_VALUE || bucket - currentBucket >= buckets.length){
+            for(SpaceSaving summary : buckets){
+                summary.clear();
+            }
+        }else{
+            for(long expired = currentBucket + 1; expired <= bucket; expired++){
+                buckets[(int) Math.floorMod(expired, (long) buckets.length)].clear();
+            }
+        }
+        currentBucket = bucket;
+    }
+
+    /**
+     * Splits a message text into lower-case words and hashtags, dropping stop words, numbers and short words.
+     */
+    static Set<String> tokenize(String messageText){
+        Set<String> terms = new LinkedHashSet<>();
+        int length = messageText.length();
+        int i = 0;
+        while(i < length){
+            char c = messageText.charAt(i);
+            boolean hashtag = c == '#';
+            if(!hashtag && !Character.isLetterOrDigit(c)){
+                i++;
+                continue;
+            }
+            int start = hashtag ? i + 1 : i;
+            int end = start;
+            while(end < length && (Character.isLetterOrDigit(messageText.charAt(end)) || messageText.charAt(end) == '_')){
+                end++;
+            }
+            i = Math.max(end, i + 1);
+            if(end == start || end - start > MAX_TERM_LENGTH){
+                continue;
+            }
+            String word = messageText.substring(start, end).toLowerCase(Locale.ROOT);
+            if(hashtag){
+                terms.add("#" + word);
+            }else if(word.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(word) && !isNumber(word)){
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isNumber(String word){
+        for(int i = 0; i < word.length(); i++){
+            if(!Character.isDigit(word.charAt(i))){
+                return false;
+            }
+        }
+        return true;
+    }
+}
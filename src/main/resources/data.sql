@@ -1,17 +1,34 @@
+drop table if exists message_activity;
 drop table if exists message;
 drop table if exists account;
 create table account (
     accountId int primary key auto_increment,
-    username varchar(255) not null unique,
-    password varchar(255)
+    username varchar(255) not null,
+    password varchar(255),
+    constraint account_username_unique unique (username)
 );
 create table message (
     messageId int primary key auto_increment,
     postedBy int,
     messageText varchar(255),
     timePostedEpoch bigint,
+    version int default 0 not null,
+    deletedEpoch bigint,
     foreign key (postedBy) references account(accountId)
 );
+-- deletedEpoch ends each index, so reads drop soft-deleted messages without touching the rows
+create index message_timePostedEpoch on message(timePostedEpoch, deletedEpoch);
+create index message_postedBy_timePostedEpoch on message(postedBy, timePostedEpoch, deletedEpoch);
+create index message_deletedEpoch on message(deletedEpoch, messageId);
+-- Message counts per account and UTC hour (bucketSeconds 3600) or day (86400), kept by MessageActivityService
+create table message_activity (
+    accountId int not null,
+    bucketSeconds int not null,
+    bucketStart bigint not null,
+    postCount int default 0 not null,
+    primary key (accountId, bucketSeconds, bucketStart),
+    foreign key (accountId) references account(accountId)
+);
 
 -- Starting test values with ids of 9999 to avoid test issues
 insert into account values (9999, 'testuser1', 'password');
@@ -19,7 +36,13 @@ insert into account values (9998, 'testuser2', 'password');
 insert into account values (9997, 'testuser3', 'password');
 insert into account values (9996, 'testuser4', 'password');
 
-insert into message values (9999, 9999,'test message 1',1669947792);
-insert into message values (9997, 9997,'test message 2',1669947792);
-insert into message values (9996, 9996,'test message 3',1669947792);
+insert into message values (9999, 9999,'test message 1',1669947792, 0, null);
+insert into message values (9997, 9997,'test message 2',1669947792, 0, null);
+insert into message values (9996, 9996,'test message 3',1669947792, 0, null);
 
+insert into message_activity values (9999, 3600, 1669946400, 1);
+insert into message_activity values (9999, 86400, 1669939200, 1);
+insert into message_activity values (9997, 3600, 1669946400, 1);
+insert into message_activity values (9997, 86400, 1669939200, 1);
+insert into message_activity values (9996, 3600, 1669946400, 1);
+insert into message_activity values (9996, 86400, 1669939200, 1);
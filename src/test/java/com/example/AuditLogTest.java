@@ -0,0 +1,155 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.service.AuditLog;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class AuditLogTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Path directory;
+
+    /**
+     * Before every test, reset the database, restart the app with auditing into a fresh directory, and create a
+     * new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     * @throws IOException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, IOException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        directory = Files.createTempDirectory("audit");
+        String[] args = new String[] {"--ratelimit.enabled=false", "--audit.directory=" + directory};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Registering, logging in, posting, patching and deleting a message, and reading the messages, then waiting
+     * for localhost:8080/stats/audit to report every record as written
+     *
+     * Expected Result:
+     *  The audit file holds one line per mutating call, in order, with its status, principal and message ID;
+     *  the read is not audited
+     */
+    @Test
+    public void mutatingCallsAreAudited() throws IOException, InterruptedException {
+        Assertions.assertEquals(200, send("POST", "/register", "{\"username\":\"auditor\",\"password\":\"password\"}").statusCode());
+        Assertions.assertEquals(401, send("POST", "/login", "{\"username\":\"auditor\",\"password\":\"wrong\"}").statusCode());
+        HttpResponse<String> posted = send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"audited\",\"timePostedEpoch\": 1669947792}");
+        Assertions.assertEquals(200, posted.statusCode());
+        int messageId = objectMapper.readTree(posted.body()).get("messageId").asInt();
+        Assertions.assertEquals(200, send("GET", "/messages", null).statusCode());
+        Assertions.assertEquals(200, send("PATCH", "/messages/" + messageId, "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertEquals(200, send("DELETE", "/messages/" + messageId, null).statusCode());
+
+        Map<String, Long> statistics = null;
+        for(int i = 0; i < 50; i++){
+            statistics = objectMapper.readValue(send("GET", "/stats/audit", null).body(), new TypeReference<Map<String, Long>>(){});
+            if(statistics.get("writtenCount") == 5){
+                break;
+            }
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(5L, (long) statistics.get("publishedCount"));
+        Assertions.assertEquals(5L, (long) statistics.get("writtenCount"));
+        Assertions.assertEquals(0L, (long) statistics.get("droppedCount"));
+
+        List<Map<String, Object>> records = readRecords(directory);
+        Assertions.assertEquals(5, records.size());
+        Assertions.assertEquals(List.of("postAccount", "postLogin", "postMessage", "patchMessage", "deleteMessage"),
+                List.of(records.get(0).get("action"), records.get(1).get("action"), records.get(2).get("action"),
+                        records.get(3).get("action"), records.get(4).get("action")));
+        Assertions.assertEquals(200, records.get(0).get("status"));
+        Assertions.assertEquals("auditor", records.get(0).get("principal"));
+        Assertions.assertEquals(401, records.get(1).get("status"));
+        Assertions.assertEquals("9999", records.get(2).get("principal"));
+        Assertions.assertEquals(messageId, records.get(3).get("subject"));
+        Assertions.assertEquals(messageId, records.get(4).get("subject"));
+    }
+
+    /**
+     * Publishing 6 records into a ring buffer of 4 with the drop strategy before the writer starts, then starting
+     * and closing the writer
+     *
+     * Expected Result:
+     *  2 records are dropped and counted, and the other 4 are written to the audit file
+     */
+    @Test
+    public void overflowDropsAndCounts() throws IOException, InterruptedException {
+        Path ringDirectory = Files.createTempDirectory("audit");
+        AuditLog auditLog = new AuditLog(true, ringDirectory.toString(), 4, "drop", 256, "batch", 1000, 67108864, 100);
+        int action = auditLog.action("postMessage");
+        int published = 0;
+        for(int i = 0; i < 6; i++){
+            if(auditLog.record(action, 200, "127.0.0.1", "9999", i, 1000)){
+                published++;
+            }
+        }
+        Assertions.assertEquals(4, published);
+        Assertions.assertEquals(2L, (long) auditLog.getStatistics().get("droppedCount"));
+        Assertions.assertEquals(-1, auditLog.action("getAllMessages"));
+
+        auditLog.open();
+        auditLog.close();
+        Assertions.assertEquals(4L, (long) auditLog.getStatistics().get("writtenCount"));
+        Assertions.assertEquals(0L, (long) auditLog.getStatistics().get("pendingCount"));
+        List<Map<String, Object>> records = readRecords(ringDirectory);
+        Assertions.assertEquals(4, records.size());
+        for(int i = 0; i < 4; i++){
+            Assertions.assertEquals(i, records.get(i).get("subject"));
+        }
+    }
+
+    private List<Map<String, Object>> readRecords(Path from) throws IOException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        List<Path> files;
+        try(Stream<Path> stream = Files.list(from)){
+            files = new ArrayList<>(stream.sorted().collect(Collectors.toList()));
+        }
+        for(Path file : files){
+            for(String line : Files.readAllLines(file)){
+                records.add(objectMapper.readValue(line, new TypeReference<Map<String, Object>>(){}));
+            }
+        }
+        return records;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if(body != null){
+            request.header("Content-Type", "application/json");
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,170 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.repository.MessageArchive;
+import com.example.repository.MessageRepository;
+import com.example.service.MessageArchiver;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BulkDeleteTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app with chunks of 10 messages and no rate limits,
+     * and create a new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        start("--message.bulk-delete.chunk-size=10");
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending http requests to DELETE localhost:8080/accounts/9998/messages?since=1000&until=1010 and
+     * DELETE localhost:8080/accounts/9998/messages after posting 25 messages for account 9998
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: 10 for the messages within the range, then 15 for the rest, deleted with fewer
+     *  statements than messages and without touching the messages of other accounts
+     */
+    @Test
+    public void deleteAccountMessagesInChunks() throws IOException, InterruptedException {
+        postMessages(9998, 25);
+        Assertions.assertEquals(28, messages("/messages").size());
+
+        Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        HttpResponse<String> response = send("DELETE", "/accounts/9998/messages?since=1000&until=1010", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("10", response.body());
+        Assertions.assertEquals(15, messages("/accounts/9998/messages").size());
+
+        statistics.clear();
+        response = send("DELETE", "/accounts/9998/messages", null);
+        Assertions.assertEquals("15", response.body());
+        Assertions.assertTrue(statistics.getPrepareStatementCount() < 15,
+                "Expected fewer statements than messages, but was " + statistics.getPrepareStatementCount());
+
+        Assertions.assertEquals(List.of(), messages("/accounts/9998/messages"));
+        Assertions.assertEquals(3, messages("/messages").size());
+        Assertions.assertEquals(Map.of("accountId", 9998, "hourly", List.of(), "daily", List.of()),
+                objectMapper.readValue(send("GET", "/accounts/9998/activity", null).body(), Map.class));
+        Assertions.assertEquals(1, messages("/accounts/9999/messages").size());
+    }
+
+    /**
+     * Every deleted message is announced to the other nodes, and an account without messages has none to delete.
+     */
+    @Test
+    public void deletedMessagesAreAnnounced() throws IOException, InterruptedException {
+        postMessages(9998, 12);
+        long published = invalidationStatistics().get("publishedCount");
+        Assertions.assertEquals("12", send("DELETE", "/accounts/9998/messages", null).body());
+        Assertions.assertEquals(published + 12, (long) invalidationStatistics().get("publishedCount"));
+        Assertions.assertEquals("0", send("DELETE", "/accounts/9998/messages", null).body());
+        Assertions.assertEquals("0", send("DELETE", "/accounts/1234/messages", null).body());
+    }
+
+    /**
+     * In soft delete mode the messages are hidden at once and their rows are left for the purger.
+     */
+    @Test
+    public void softDeleteAccountMessages() throws IOException, InterruptedException {
+        SpringApplication.exit(app);
+        start("--message.bulk-delete.chunk-size=10", "--message.delete.mode=soft", "--message.purge.enabled=false");
+        postMessages(9998, 15);
+        Assertions.assertEquals("15", send("DELETE", "/accounts/9998/messages", null).body());
+        Assertions.assertEquals(List.of(), messages("/accounts/9998/messages"));
+        Assertions.assertEquals(3, messages("/messages").size());
+        Assertions.assertEquals(18L, app.getBean(MessageRepository.class).count());
+    }
+
+    /**
+     * With the archive tier enabled, deleting an account's messages also deletes those already archived, and
+     * counts them.
+     */
+    @Test
+    public void deleteArchivedAccountMessages() throws IOException, InterruptedException {
+        SpringApplication.exit(app);
+        Path directory = Files.createTempDirectory("archive");
+        start("--message.bulk-delete.chunk-size=10", "--message.archive.enabled=true", "--message.archive.directory=" + directory);
+        postMessages(9998, 15);
+        Assertions.assertEquals(10, app.getBean(MessageArchiver.class).archiveMessagesBefore(1010L));
+        Assertions.assertEquals(15, messages("/accounts/9998/messages").size());
+
+        Assertions.assertEquals("7", send("DELETE", "/accounts/9998/messages?since=1005&until=1012", null).body());
+        Assertions.assertEquals(8, messages("/accounts/9998/messages").size());
+        Assertions.assertEquals("8", send("DELETE", "/accounts/9998/messages", null).body());
+        Assertions.assertEquals(List.of(), messages("/accounts/9998/messages"));
+        Assertions.assertEquals(List.of(), app.getBean(MessageArchive.class).findByPostedBy(9998));
+        Assertions.assertEquals(Map.of("accountId", 9998, "hourly", List.of(), "daily", List.of()),
+                objectMapper.readValue(send("GET", "/accounts/9998/activity", null).body(), Map.class));
+        Assertions.assertEquals(1, messages("/accounts/9999/messages").size());
+    }
+
+    private void start(String... extraArgs) throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[extraArgs.length + 1];
+        args[0] = "--ratelimit.enabled=false";
+        System.arraycopy(extraArgs, 0, args, 1, extraArgs.length);
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    private void postMessages(int postedBy, int count) throws IOException, InterruptedException {
+        for(int i = 0; i < count; i++){
+            String body = "{\"postedBy\":" + postedBy + ",\"messageText\":\"bulk " + i + "\",\"timePostedEpoch\":" + (1000 + i) + "}";
+            Assertions.assertEquals(200, send("POST", "/messages", body).statusCode());
+        }
+    }
+
+    private List<Map<String, Object>> messages(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", path, null);
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+    }
+
+    private Map<String, Long> invalidationStatistics() throws IOException, InterruptedException {
+        return objectMapper.readValue(send("GET", "/stats/invalidation", null).body(), new TypeReference<Map<String, Long>>(){});
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ExpandAuthorTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app without rate limits or the message list
+     * response cache, so that statement counts reflect the queries, and create a new webClient
+     * and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false", "--message.response-cache.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?expand=author
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: every message with an author object holding its accountId and username, and no password
+     */
+    @Test
+    public void expandAuthorOfAllMessages() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/messages?expand=author", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertFalse(response.body().contains("password"), "Expected no password, but body was " + response.body());
+        List<Map<String, Object>> messages = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+        Assertions.assertEquals(3, messages.size());
+        Assertions.assertEquals(Map.of("messageId", 9996, "postedBy", 9996, "messageText", "test message 3",
+                "timePostedEpoch", 1669947792, "author", Map.of("accountId", 9996, "username", "testuser4")), messages.get(0));
+        for(Map<String, Object> message : messages){
+            Assertions.assertEquals(message.get("postedBy"), ((Map<?, ?>) message.get("author")).get("accountId"));
+        }
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/accounts/9999/messages?expand=author and
+     * POST localhost:8080/messages/lookup?expand=author
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the messages with their authors
+     */
+    @Test
+    public void expandAuthorOfAccountMessagesAndLookup() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/accounts/9999/messages?expand=author", null);
+        Assertions.assertEquals(200, response.statusCode());
+        List<Map<String, Object>> messages = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+        Assertions.assertEquals(1, messages.size());
+        Assertions.assertEquals(Map.of("accountId", 9999, "username", "testuser1"), messages.get(0).get("author"));
+
+        response = send("POST", "/messages/lookup?expand=author", "[9997, 9999]");
+        Assertions.assertEquals(200, response.statusCode());
+        messages = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+        Assertions.assertEquals(Map.of("accountId", 9997, "username", "testuser3"), messages.get(0).get("author"));
+        Assertions.assertEquals(Map.of("accountId", 9999, "username", "testuser1"), messages.get(1).get("author"));
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?expand=password
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void expandUnknownIsRejected() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, send("GET", "/messages?expand=password", null).statusCode());
+    }
+
+    /**
+     * Posting 40 messages from four accounts, then sending an http request to GET localhost:8080/messages with
+     * and without expand=author
+     *
+     * Expected Response:
+     *  expanding the authors costs exactly one more SQL statement, not one per message or per author
+     */
+    @Test
+    public void expandAuthorCostsOneQuery() throws IOException, InterruptedException {
+        for(int i = 0; i < 40; i++){
+            Assertions.assertEquals(200, send("POST", "/messages",
+                    "{\"postedBy\":" + (9996 + i % 4) + ",\"messageText\":\"message " + i + "\",\"timePostedEpoch\": 1669947792}").statusCode());
+        }
+        Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        send("GET", "/messages", null);
+
+        long start = statistics.getPrepareStatementCount();
+        Assertions.assertEquals(200, send("GET", "/messages", null).statusCode());
+        long plain = statistics.getPrepareStatementCount() - start;
+
+        start = statistics.getPrepareStatementCount();
+        HttpResponse<String> response = send("GET", "/messages?expand=author", null);
+        long expanded = statistics.getPrepareStatementCount() - start;
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(43, objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){}).size());
+        Assertions.assertEquals(plain + 1, expanded);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.example.entity.Message;
+import com.example.repository.InMemoryMessageStore;
+import com.example.repository.MessageStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class InMemoryMessageStoreTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    String[] args;
+
+    /**
+     * Before every test, reset the database, restart the app with the in-memory store in a fresh directory,
+     * and create a new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, IOException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        Path directory = Files.createTempDirectory("message-store");
+        args = new String[] {"--message.store=memory", "--message.store.memory.directory=" + directory};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * The in-memory store is the MessageStore, and is seeded from the message table on its first start.
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the three seeded messages
+     */
+    @Test
+    public void inMemoryStoreIsSeeded() throws IOException, InterruptedException {
+        Assertions.assertTrue(app.getBean(MessageStore.class) instanceof InMemoryMessageStore);
+        List<Message> expectedResult = new ArrayList<Message>();
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        expectedResult.add(new Message(9997, 9997, "test message 2", 1669947792L));
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        Assertions.assertEquals(expectedResult, getAllMessages());
+    }
+
+    /**
+     * Creating, updating and deleting messages, then restarting the app over the same directory
+     *
+     * Expected Response:
+     *  every change is recovered from the snapshot and write-ahead log
+     */
+    @Test
+    public void changesSurviveRestart() throws IOException, InterruptedException {
+        Message created = objectMapper.readValue(send("POST", "/messages",
+                "{\"postedBy\":9999,\"messageText\":\"durable\",\"timePostedEpoch\": 1669947793}").body(), Message.class);
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertEquals(200, send("DELETE", "/messages/9997", null).statusCode());
+
+        Thread.sleep(500);
+        SpringApplication.exit(app);
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+
+        List<Message> expectedResult = new ArrayList<Message>();
+        expectedResult.add(new Message(9996, 9996, "test message 3", 1669947792L));
+        expectedResult.add(new Message(9999, 9999, "edited", 1669947792L));
+        expectedResult.add(new Message(created.getMessageId(), 9999, "durable", 1669947793L));
+        Assertions.assertEquals(expectedResult, getAllMessages());
+
+        Message next = objectMapper.readValue(send("POST", "/messages",
+                "{\"postedBy\":9998,\"messageText\":\"after restart\",\"timePostedEpoch\": 1669947793}").body(), Message.class);
+        Assertions.assertTrue(next.getMessageId() > created.getMessageId(), "Message IDs must not be reused after a restart");
+    }
+
+    /**
+     * Deleting the same message twice, from two copies read before either delete, as two concurrent DELETEs do,
+     * then deleting a copy whose version is out of date
+     *
+     * Expected Response:
+     *  the first delete succeeds and the second fails as a lost race, a stale copy cannot be deleted, and of two
+     *  DELETE requests for the same message only the first returns it
+     */
+    @Test
+    public void secondDeleteOfSameMessageFails() throws IOException, InterruptedException {
+        MessageStore messageStore = app.getBean(MessageStore.class);
+        Message first = messageStore.findById(9997).orElseThrow();
+        Message second = messageStore.findById(9997).orElseThrow();
+        messageStore.delete(first);
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> messageStore.delete(second));
+        Assertions.assertTrue(messageStore.findById(9997).isEmpty());
+
+        Message stale = messageStore.findById(9999).orElseThrow();
+        messageStore.updateText(9999, "edited", null);
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class, () -> messageStore.delete(stale));
+        Assertions.assertEquals("edited", messageStore.findById(9999).orElseThrow().getMessageText());
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/9996", null).statusCode());
+        HttpResponse<String> again = send("DELETE", "/messages/9996", null);
+        Assertions.assertEquals(200, again.statusCode());
+        Assertions.assertEquals("", again.body());
+    }
+
+    private List<Message> getAllMessages() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/messages", null);
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), new TypeReference<List<Message>>(){});
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
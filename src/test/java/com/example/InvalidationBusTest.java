@@ -0,0 +1,171 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.event.InvalidationEvent;
+import com.example.repository.OffHeapMessageCache;
+import com.example.service.CacheInvalidator;
+import com.example.service.InvalidationBus;
+import com.example.service.SocketInvalidationBus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class InvalidationBusTest {
+    HttpClient webClient = HttpClient.newHttpClient();
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Starting two nodes on the loopback bus, caching message 9999 and the message list on the second, then
+     * editing and deleting the message and registering an account through the first
+     *
+     * Expected Response:
+     *  the second node serves each change straight away instead of its cached copies
+     */
+    @Test
+    public void changesOnOneNodeInvalidateTheOther() throws IOException, InterruptedException {
+        ConfigurableApplicationContext first = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false", "--audit.enabled=false");
+        ConfigurableApplicationContext second = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false", "--audit.enabled=false",
+                "--server.port=8081");
+        try{
+            Thread.sleep(500);
+            Assertions.assertEquals("test message 1", readMessage(8081, 9999).getMessageText());
+            Assertions.assertEquals(3, readMessages(8081).size());
+
+            Assertions.assertEquals(200, send(8080, "PATCH", "/messages/9999", "{\"messageText\":\"edited on the first node\"}").statusCode());
+            Assertions.assertEquals("edited on the first node", readMessage(8081, 9999).getMessageText());
+            Assertions.assertTrue(readMessages(8081).stream().anyMatch(message -> message.getMessageText().equals("edited on the first node")));
+
+            Assertions.assertEquals(200, send(8080, "DELETE", "/messages/9999", null).statusCode());
+            Assertions.assertTrue(send(8081, "GET", "/messages/9999", null).body().isEmpty());
+            Assertions.assertEquals(2, readMessages(8081).size());
+
+            Assertions.assertEquals(200, send(8080, "POST", "/register", "{\"username\":\"clustered\",\"password\":\"password\"}").statusCode());
+            Assertions.assertEquals(200, send(8081, "POST", "/login", "{\"username\":\"clustered\",\"password\":\"password\"}").statusCode());
+
+            Map<String, Long> statistics = objectMapper.readValue(send(8081, "GET", "/stats/invalidation", null).body(),
+                    new TypeReference<Map<String, Long>>(){});
+            Assertions.assertEquals(3L, (long) statistics.get("receivedCount"));
+            Assertions.assertEquals(3L, (long) statistics.get("appliedCount"));
+            Assertions.assertEquals(0L, (long) statistics.get("ignoredCount"));
+        }finally{
+            SpringApplication.exit(second);
+            SpringApplication.exit(first);
+        }
+    }
+
+    /**
+     * Delivering an invalidation of message 9999 at version 2, then the same one again, an older one and one
+     * from this node, and trying to cache copies of the message from before and after the change
+     *
+     * Expected Result:
+     *  only the first invalidation is applied, and only the copy at version 2 or later is cached
+     */
+    @Test
+    public void staleAndDuplicateInvalidationsAreIgnored() throws IOException, InterruptedException {
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false");
+        try{
+            CacheInvalidator invalidator = app.getBean(CacheInvalidator.class);
+            OffHeapMessageCache messageCache = app.getBean(OffHeapMessageCache.class);
+            String self = app.getBean(InvalidationBus.class).getNodeId();
+            readMessage(8080, 9999);
+            Assertions.assertNotNull(messageCache.get(9999));
+
+            invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, 9999, 2, "other"));
+            Assertions.assertNull(messageCache.get(9999));
+            invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, 9999, 2, "other"));
+            invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, 9999, 1, "other"));
+            invalidator.onInvalidation(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, 9998, 5, self));
+            Map<String, Long> statistics = invalidator.getStatistics();
+            Assertions.assertEquals(1L, (long) statistics.get("appliedCount"));
+            Assertions.assertEquals(3L, (long) statistics.get("ignoredCount"));
+
+            messageCache.fill(new MessageView(9999, 9999, "loaded before the change", 1669947792L, 1), messageCache.stamp());
+            Assertions.assertNull(messageCache.get(9999));
+            messageCache.fill(new MessageView(9999, 9999, "loaded after the change", 1669947792L, 2), messageCache.stamp());
+            Assertions.assertEquals("loaded after the change", messageCache.get(9999).getMessageText());
+        }finally{
+            SpringApplication.exit(app);
+        }
+    }
+
+    /**
+     * Connecting two socket buses and publishing two invalidations on the first
+     *
+     * Expected Result:
+     *  the second resyncs when the connection is made, then receives both invalidations in order
+     */
+    @Test
+    public void socketBusDeliversInOrder() throws IOException, InterruptedException {
+        SocketInvalidationBus receiver = new SocketInvalidationBus("receiver", 0, "", 16, 100);
+        receiver.open();
+        SocketInvalidationBus sender = new SocketInvalidationBus("sender", 0, "localhost:" + receiver.getLocalPort(), 16, 100);
+        BlockingQueue<InvalidationEvent> received = new LinkedBlockingQueue<>();
+        CountDownLatch connected = new CountDownLatch(1);
+        receiver.subscribe(new InvalidationBus.Listener(){
+            @Override
+            public void onInvalidation(InvalidationEvent event){
+                received.add(event);
+            }
+
+            @Override
+            public void onResync(){
+                connected.countDown();
+            }
+        });
+        try{
+            sender.open();
+            Assertions.assertTrue(connected.await(5, TimeUnit.SECONDS));
+            sender.publish(new InvalidationEvent(InvalidationEvent.EntityType.MESSAGE, 42, 3, sender.getNodeId()));
+            sender.publish(new InvalidationEvent(InvalidationEvent.EntityType.ACCOUNT, 7, 0, sender.getNodeId()));
+
+            InvalidationEvent message = received.poll(5, TimeUnit.SECONDS);
+            InvalidationEvent account = received.poll(5, TimeUnit.SECONDS);
+            Assertions.assertNotNull(account);
+            Assertions.assertEquals(InvalidationEvent.EntityType.MESSAGE, message.getEntityType());
+            Assertions.assertEquals(42, message.getEntityId());
+            Assertions.assertEquals(3L, message.getVersion());
+            Assertions.assertEquals("sender", message.getOrigin());
+            Assertions.assertEquals(InvalidationEvent.EntityType.ACCOUNT, account.getEntityType());
+            Assertions.assertEquals(7, account.getEntityId());
+            Assertions.assertEquals(2L, (long) receiver.getStatistics().get("receivedCount"));
+        }finally{
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    private Message readMessage(int port, int messageId) throws IOException, InterruptedException {
+        return objectMapper.readValue(send(port, "GET", "/messages/" + messageId, null).body(), Message.class);
+    }
+
+    private List<Message> readMessages(int port) throws IOException, InterruptedException {
+        return objectMapper.readValue(send(port, "GET", "/messages", null).body(), new TypeReference<List<Message>>(){});
+    }
+
+    private HttpResponse<String> send(int port, String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if(body != null){
+            request.header("Content-Type", "application/json");
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.example.dto.AuthorView;
+import com.example.dto.AuthoredMessageView;
+import com.example.dto.MessageView;
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Times the streaming JSON components against Jackson's bean binding, for message list responses and for the
+ * message and account request bodies. The timings are printed rather than asserted, since they depend on the
+ * machine; the assertions only check that both mappers produce the same output. Tagged as a benchmark, so it
+ * only runs with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+public class JsonBenchmarkTest {
+    private static final int LIST_SIZE = 1000;
+    private static final int LIST_WRITES = 2000;
+    private static final int BODY_READS = 500000;
+    private static final int WARMUP_ROUNDS = 2;
+
+    @Test
+    public void compareSerializers() throws IOException {
+        List<MessageView> messages = new ArrayList<>(LIST_SIZE);
+        List<MessageView> authored = new ArrayList<>(LIST_SIZE);
+        for(int i = 0; i < LIST_SIZE; i++){
+            MessageView message = new MessageView(i, 9996 + i % 4, "message number " + i + " with some \"quoted\" text", 1669947792L + i);
+            messages.add(message);
+            authored.add(new AuthoredMessageView(message, new AuthorView(message.getPostedBy(), "testuser" + (i % 4 + 1))));
+        }
+        Assertions.assertArrayEquals(StreamingJsonTest.beanMapper.writeValueAsBytes(authored), StreamingJsonTest.streamingMapper.writeValueAsBytes(authored));
+
+        for(ObjectMapper mapper : new ObjectMapper[] {StreamingJsonTest.beanMapper, StreamingJsonTest.streamingMapper}){
+            String name = mapper == StreamingJsonTest.beanMapper ? "bean" : "streaming";
+            time("write 1000 messages (" + name + ")", LIST_WRITES, () -> mapper.writeValueAsBytes(messages));
+            time("write 1000 authored messages (" + name + ")", LIST_WRITES, () -> mapper.writeValueAsBytes(authored));
+        }
+
+        byte[] messageBody = "{\"postedBy\":9999,\"messageText\":\"a new message\",\"timePostedEpoch\": 1669947792}".getBytes("UTF-8");
+        byte[] accountBody = "{\"username\":\"testuser1\",\"password\":\"password\"}".getBytes("UTF-8");
+        Assertions.assertEquals(StreamingJsonTest.beanMapper.readValue(messageBody, Message.class), StreamingJsonTest.streamingMapper.readValue(messageBody, Message.class));
+        for(ObjectMapper mapper : new ObjectMapper[] {StreamingJsonTest.beanMapper, StreamingJsonTest.streamingMapper}){
+            String name = mapper == StreamingJsonTest.beanMapper ? "bean" : "streaming";
+            time("read message body (" + name + ")", BODY_READS, () -> mapper.readValue(messageBody, Message.class));
+            time("read account body (" + name + ")", BODY_READS, () -> mapper.readValue(accountBody, Account.class));
+        }
+    }
+
+    private static void time(String operation, int count, Operation body) throws IOException {
+        for(int round = 0; round <= WARMUP_ROUNDS; round++){
+            long start = System.nanoTime();
+            for(int i = 0; i < count; i++){
+                body.run();
+            }
+            if(round == WARMUP_ROUNDS){
+                System.out.printf("%-44s %10.3f us/op%n", operation, (System.nanoTime() - start) / 1000.0 / count);
+            }
+        }
+    }
+
+    private interface Operation {
+        Object run() throws IOException;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageActivityTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app without rate limits, and create a new webClient
+     * and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/9999/activity
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the seeded message counted once in its hour and once in its day
+     */
+    @Test
+    public void getSeededActivity() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/accounts/9999/activity", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(Map.of("accountId", 9999,
+                "hourly", List.of(Map.of("start", 1669946400, "count", 1)),
+                "daily", List.of(Map.of("start", 1669939200, "count", 1))),
+                objectMapper.readValue(response.body(), Map.class));
+    }
+
+    /**
+     * Posting messages in the seeded hour, a later hour of the same day and the next day, then deleting the
+     * seeded message, moves each of them in and out of its hour and day.
+     */
+    @Test
+    public void addAndDeleteAdjustBuckets() throws IOException, InterruptedException {
+        post(9999, 1669947800L);
+        post(9999, 1669950000L);
+        post(9999, 1670030000L);
+        Assertions.assertEquals(Map.of("accountId", 9999,
+                "hourly", List.of(Map.of("start", 1669946400, "count", 2), Map.of("start", 1669950000, "count", 1),
+                        Map.of("start", 1670029200, "count", 1)),
+                "daily", List.of(Map.of("start", 1669939200, "count", 3), Map.of("start", 1670025600, "count", 1))),
+                activity(9999));
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/9999", null).statusCode());
+        Assertions.assertEquals(200, send("DELETE", "/messages/9999", null).statusCode());
+        Map<?, ?> activity = activity(9999);
+        Assertions.assertEquals(List.of(Map.of("start", 1669946400, "count", 1), Map.of("start", 1669950000, "count", 1),
+                Map.of("start", 1670029200, "count", 1)), activity.get("hourly"));
+        Assertions.assertEquals(List.of(Map.of("start", 1669939200, "count", 2), Map.of("start", 1670025600, "count", 1)),
+                activity.get("daily"));
+    }
+
+    /**
+     * A bucket emptied by deletes is left out of the histogram, and an account without messages, or without an
+     * account at all, has an empty one.
+     */
+    @Test
+    public void emptyBucketsAreOmitted() throws IOException, InterruptedException {
+        Assertions.assertEquals(200, send("DELETE", "/messages/9997", null).statusCode());
+        Assertions.assertEquals(Map.of("accountId", 9997, "hourly", List.of(), "daily", List.of()), activity(9997));
+        Assertions.assertEquals(Map.of("accountId", 9998, "hourly", List.of(), "daily", List.of()), activity(9998));
+        Assertions.assertEquals(Map.of("accountId", 1234, "hourly", List.of(), "daily", List.of()), activity(1234));
+    }
+
+    /**
+     * A rejected message is not counted.
+     */
+    @Test
+    public void rejectedMessageIsNotCounted() throws IOException, InterruptedException {
+        String body = "{\"postedBy\":9998,\"messageText\":\"\",\"timePostedEpoch\":1669947800}";
+        Assertions.assertEquals(400, send("POST", "/messages", body).statusCode());
+        Assertions.assertEquals(Map.of("accountId", 9998, "hourly", List.of(), "daily", List.of()), activity(9998));
+    }
+
+    /**
+     * Messages posted concurrently into a bucket that does not exist yet are all counted, whichever request
+     * creates the bucket.
+     */
+    @Test
+    public void concurrentPostsAreAllCounted() throws Exception {
+        int threads = 8;
+        int perThread = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try{
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < threads; t++){
+                futures.add(executor.submit(() -> {
+                    for(int i = 0; i < perThread; i++){
+                        post(9998, 1700000000L + i);
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures){
+                future.get();
+            }
+        }finally{
+            executor.shutdown();
+        }
+        Assertions.assertEquals(Map.of("accountId", 9998,
+                "hourly", List.of(Map.of("start", 1699999200, "count", threads * perThread)),
+                "daily", List.of(Map.of("start", 1699920000, "count", threads * perThread))),
+                activity(9998));
+    }
+
+    private void post(int postedBy, long timePostedEpoch) throws IOException, InterruptedException {
+        String body = "{\"postedBy\":" + postedBy + ",\"messageText\":\"activity\",\"timePostedEpoch\":" + timePostedEpoch + "}";
+        HttpResponse<String> response = send("POST", "/messages", body);
+        Assertions.assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private Map<?, ?> activity(int accountId) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", "/accounts/" + accountId + "/activity", null);
+        Assertions.assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), Map.class);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Message;
+import com.example.repository.MessageArchive;
+import com.example.repository.MessageStore;
+import com.example.service.MessageArchiver;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageArchiveTest {
+	ConfigurableApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Path directory;
+
+    /**
+     * Before every test, reset the database, restart the app with the archive tier enabled in a fresh directory,
+     * and archive every message older than the seed data.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, IOException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        directory = Files.createTempDirectory("archive");
+        String[] args = new String[] {"--message.archive.enabled=true", "--message.archive.directory=" + directory};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        app.getBean(MessageArchiver.class).archiveMessagesBefore(1669947793L);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages after archival
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: (archived messages are no longer in the message table)
+     */
+    @Test
+    public void getAllMessagesAfterArchival() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        List<Message> actualResult = objectMapper.readValue(response.body().toString(), new TypeReference<List<Message>>(){});
+        Assertions.assertTrue(actualResult.isEmpty(), "Expected Empty Result, but Result was not Empty");
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/9999 after archival
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: JSON representation of the archived message
+     */
+    @Test
+    public void getArchivedMessageById() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/9999"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        Message expectedResult = new Message(9999, 9999, "test message 1", 1669947792L);
+        Message actualResult = objectMapper.readValue(response.body().toString(), Message.class);
+        Assertions.assertEquals(expectedResult, actualResult, "Expected="+expectedResult + ", Actual="+actualResult);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/9999/messages after archival
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: JSON representation of a list containing the archived message
+     */
+    @Test
+    public void getArchivedMessagesFromUser() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/accounts/9999/messages"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+        List<Message> expectedResult = new ArrayList<Message>();
+        expectedResult.add(new Message(9999, 9999, "test message 1", 1669947792L));
+        List<Message> actualResult = objectMapper.readValue(response.body().toString(), new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(expectedResult, actualResult, "Expected="+expectedResult + ", Actual="+actualResult);
+    }
+
+    /**
+     * Archiving a message while an http request to PATCH localhost:8080/messages/{messageId} edits it between the
+     * batch being read and being deleted
+     *
+     * Expected Response:
+     *  the edit waits for the batch and then fails instead of being lost, and the archived message is the one
+     *  read back
+     */
+    @Test
+    public void editDuringArchivalIsNotLost() throws Exception {
+        Message posted = objectMapper.readValue(send("POST", "/messages",
+                "{\"postedBy\":9999,\"messageText\":\"before archival\",\"timePostedEpoch\": 1669947795}").body(), Message.class);
+        MessageArchive messageArchive = app.getBean(MessageArchive.class);
+        CompletableFuture<HttpResponse<String>> edit = new CompletableFuture<>();
+        List<Message> moved = app.getBean(MessageStore.class).moveMessagesBefore(1669947796L, 10, batch -> {
+            new Thread(() -> {
+                try{
+                    edit.complete(send("PATCH", "/messages/" + posted.getMessageId(), "{\"messageText\":\"edited\"}"));
+                }catch(Exception e){
+                    edit.completeExceptionally(e);
+                }
+            }).start();
+            try{
+                Thread.sleep(300);
+                messageArchive.append(batch);
+            }catch(InterruptedException | IOException e){
+                throw new IllegalStateException(e);
+            }
+        });
+        Assertions.assertEquals(1, moved.size());
+
+        Assertions.assertNotEquals(200, edit.get(10, TimeUnit.SECONDS).statusCode());
+        Message archived = objectMapper.readValue(send("GET", "/messages/" + posted.getMessageId(), null).body(), Message.class);
+        Assertions.assertEquals("before archival", archived.getMessageText());
+    }
+
+    /**
+     * Sending http requests to DELETE localhost:8080/messages/9999 after archival, then restarting the app
+     * over the same archive
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: 1, after which no read returns the message, a second delete finds nothing, and the
+     *  message stays deleted once the archive index is rebuilt
+     */
+    @Test
+    public void deleteArchivedMessage() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("DELETE", "/messages/9999", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("1", response.body());
+
+        Assertions.assertEquals("", send("GET", "/messages/9999", null).body());
+        Assertions.assertEquals("[]", send("GET", "/accounts/9999/messages", null).body());
+        Assertions.assertEquals("[]", send("GET", "/messages?ids=9999", null).body());
+        Assertions.assertEquals("", send("DELETE", "/messages/9999", null).body());
+        Assertions.assertEquals(1, objectMapper.readValue(send("GET", "/accounts/9997/messages", null).body(),
+                new TypeReference<List<Message>>(){}).size());
+
+        SpringApplication.exit(app);
+        app = SpringApplication.run(SocialMediaApp.class, "--message.archive.enabled=true", "--message.archive.directory=" + directory);
+        MessageArchive messageArchive = app.getBean(MessageArchive.class);
+        Assertions.assertNull(messageArchive.find(9999));
+        Assertions.assertEquals(List.of(), messageArchive.findByPostedBy(9999));
+        Assertions.assertEquals(new Message(9997, 9997, "test message 2", 1669947792L), messageArchive.find(9997));
+    }
+
+    /**
+     * Sending an http request to PATCH localhost:8080/messages/9999 after archival
+     *
+     * Expected Response:
+     *  Status Code: 409, as archived messages cannot be edited, and the archived message is unchanged
+     */
+    @Test
+    public void updateArchivedMessageIsRejected() throws IOException, InterruptedException {
+        Assertions.assertEquals(409, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertEquals(new Message(9999, 9999, "test message 1", 1669947792L),
+                objectMapper.readValue(send("GET", "/messages/9999", null).body(), Message.class));
+        Assertions.assertEquals(400, send("PATCH", "/messages/1234", "{\"messageText\":\"edited\"}").statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.JournalRecord;
+import com.example.dto.MessageView;
+import com.example.event.MessageChangedEvent;
+import com.example.exception.InvalidJournalOffsetException;
+import com.example.repository.MessageJournal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageJournalTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Path directory;
+
+    /**
+     * Before every test, reset the database, restart the app with the journal enabled in a fresh directory,
+     * and create a new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, IOException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        directory = Files.createTempDirectory("journal");
+        String[] args = new String[] {"--message.journal.enabled=true", "--message.journal.directory=" + directory,
+                "--message.journal.segment-size=128"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Creating, updating and deleting messages, then sending an http request to GET localhost:8080/journal?offset=0
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: every change in order, across segments, with nextOffset at the end of the journal
+     */
+    @Test
+    public void journalRecordsEveryChange() throws IOException, InterruptedException {
+        send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"one\",\"timePostedEpoch\": 1669947792}");
+        send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"two\",\"timePostedEpoch\": 1669947792}");
+        send("PATCH", "/messages/1", "{\"messageText\":\"edited\"}");
+        send("DELETE", "/messages/2", null);
+
+        HttpResponse<String> response = send("GET", "/journal?offset=0", null);
+        Assertions.assertEquals(200, response.statusCode());
+        JsonNode batch = objectMapper.readTree(response.body());
+        JsonNode records = batch.get("records");
+        Assertions.assertEquals(4, records.size());
+        Assertions.assertEquals("CREATED", records.get(0).get("type").asText());
+        Assertions.assertEquals("CREATED", records.get(1).get("type").asText());
+        Assertions.assertEquals("UPDATED", records.get(2).get("type").asText());
+        Assertions.assertEquals("edited", records.get(2).get("message").get("messageText").asText());
+        Assertions.assertEquals("DELETED", records.get(3).get("type").asText());
+        Assertions.assertEquals(2, records.get(3).get("message").get("messageId").asInt());
+        Assertions.assertEquals(batch.get("endOffset").asLong(), batch.get("nextOffset").asLong());
+    }
+
+    /**
+     * Reading the journal one record at a time by following nextOffset
+     *
+     * Expected Response:
+     *  each batch holds the next record, and the batch at the end of the journal is empty
+     */
+    @Test
+    public void journalCanBeTailedByOffset() throws IOException, InterruptedException {
+        send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"one\",\"timePostedEpoch\": 1669947792}");
+        send("POST", "/messages", "{\"postedBy\":9998,\"messageText\":\"two\",\"timePostedEpoch\": 1669947792}");
+
+        JsonNode first = objectMapper.readTree(send("GET", "/journal?offset=0&limit=1", null).body());
+        Assertions.assertEquals(1, first.get("records").size());
+        Assertions.assertEquals("one", first.get("records").get(0).get("message").get("messageText").asText());
+        long next = first.get("nextOffset").asLong();
+
+        JsonNode second = objectMapper.readTree(send("GET", "/journal?offset=" + next + "&limit=1", null).body());
+        Assertions.assertEquals(1, second.get("records").size());
+        Assertions.assertEquals(next, second.get("records").get(0).get("offset").asLong());
+        Assertions.assertEquals("two", second.get("records").get(0).get("message").get("messageText").asText());
+
+        JsonNode end = objectMapper.readTree(send("GET", "/journal?offset=" + second.get("nextOffset").asLong(), null).body());
+        Assertions.assertEquals(0, end.get("records").size());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/journal?offset=1 (not the start of a record)
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void journalRejectsMisalignedOffset() throws IOException, InterruptedException {
+        send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"one\",\"timePostedEpoch\": 1669947792}");
+        HttpResponse<String> response = send("GET", "/journal?offset=1", null);
+        Assertions.assertEquals(400, response.statusCode());
+    }
+
+    /**
+     * Editing a message twice, then journaling a replay of the first edit after the second, as two racing edits
+     * may be, and reading the journal back, also after reopening it
+     *
+     * Expected Response:
+     *  every record carries the version of the message, so a consumer skipping records that are not newer ends
+     *  with the latest edit, and a segment without the current format header is refused
+     */
+    @Test
+    public void journalRecordsCarryVersions() throws IOException, InterruptedException, InvalidJournalOffsetException {
+        send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"one\",\"timePostedEpoch\": 1669947792}");
+        send("PATCH", "/messages/1", "{\"messageText\":\"first edit\"}");
+        send("PATCH", "/messages/1", "{\"messageText\":\"second edit\"}");
+        MessageJournal messageJournal = app.getBean(MessageJournal.class);
+        messageJournal.append(MessageChangedEvent.Type.UPDATED, System.currentTimeMillis(),
+                new MessageView(1, 9999, "first edit", 1669947792L, 1));
+
+        JsonNode records = objectMapper.readTree(send("GET", "/journal?offset=0", null).body()).get("records");
+        Assertions.assertEquals(4, records.size());
+        int[] versions = {0, 1, 2, 1};
+        for(int i = 0; i < versions.length; i++){
+            Assertions.assertEquals(versions[i], records.get(i).get("version").asInt());
+        }
+
+        MessageJournal reopened = new MessageJournal(true, directory.toString(), 128, false);
+        reopened.open();
+        Map<Integer, JournalRecord> applied = new HashMap<>();
+        for(JournalRecord record : reopened.read(0, 100).getRecords()){
+            applied.merge(record.getMessage().getMessageId(), record,
+                    (current, next) -> next.getVersion() > current.getVersion() ? next : current);
+        }
+        reopened.close();
+        Assertions.assertEquals("second edit", applied.get(1).getMessage().getMessageText());
+
+        Path headerless = Files.createTempDirectory("journal");
+        Files.write(headerless.resolve(String.format("journal-%020d.log", 0)), new byte[128]);
+        Assertions.assertThrows(IOException.class, () -> new MessageJournal(true, headerless.toString(), 128, false).open());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
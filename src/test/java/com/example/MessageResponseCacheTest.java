@@ -0,0 +1,163 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.example.service.MessageResponseCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageResponseCacheTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages twice, then to GET localhost:8080/messages?since=0,
+     * which is never cached
+     *
+     * Expected Response:
+     *  the list is built once and served from the cache the second time, byte for byte the same as the uncached list
+     */
+    @Test
+    public void repeatedListServedFromCache() throws IOException, InterruptedException {
+        HttpResponse<String> first = send("GET", "/messages", null);
+        HttpResponse<String> second = send("GET", "/messages", null);
+        HttpResponse<String> uncached = send("GET", "/messages?since=0", null);
+        Assertions.assertEquals(200, second.statusCode());
+        Assertions.assertEquals("application/json", second.headers().firstValue("Content-Type").orElse(null));
+        Assertions.assertEquals(first.body(), second.body());
+        Assertions.assertEquals(uncached.body(), second.body());
+        Assertions.assertEquals(3, objectMapper.readValue(second.body(), new TypeReference<List<Message>>(){}).size());
+        Map<String, Long> statistics = getStatistics();
+        Assertions.assertEquals(1L, (long) statistics.get("buildCount"));
+        Assertions.assertEquals(1L, (long) statistics.get("hitCount"));
+    }
+
+    /**
+     * Posting, patching and deleting a message, sending an http request to GET localhost:8080/messages after each
+     *
+     * Expected Response:
+     *  every change is visible to the next read, each of which rebuilds the list once
+     */
+    @Test
+    public void changesInvalidateList() throws IOException, InterruptedException {
+        send("GET", "/messages", null);
+        HttpResponse<String> posted = send("POST", "/messages", "{\"postedBy\":9999,\"messageText\":\"fresh\",\"timePostedEpoch\": 1669947792}");
+        int messageId = objectMapper.readValue(posted.body(), Message.class).getMessageId();
+        Assertions.assertTrue(list().stream().anyMatch(message -> message.getMessageId() == messageId && message.getMessageText().equals("fresh")));
+
+        Assertions.assertEquals(200, send("PATCH", "/messages/" + messageId, "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertTrue(list().stream().anyMatch(message -> message.getMessageId() == messageId && message.getMessageText().equals("edited")));
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/" + messageId, null).statusCode());
+        Assertions.assertTrue(list().stream().noneMatch(message -> message.getMessageId() == messageId));
+
+        Map<String, Long> statistics = getStatistics();
+        Assertions.assertEquals(3L, (long) statistics.get("generation"));
+        Assertions.assertEquals(4L, (long) statistics.get("buildCount"));
+    }
+
+    /**
+     * Asking the cache for the list from 8 threads while the first build is held up, then again after invalidating
+     *
+     * Expected Result:
+     *  the loader runs once for all 8 callers, who receive the same bytes, and once more after the invalidation
+     */
+    @Test
+    public void concurrentReadersShareOneBuild() throws Exception {
+        MessageResponseCache cache = new MessageResponseCache(true, objectMapper);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<byte[]>> bodies = new ArrayList<>();
+            for(int i = 0; i < 8; i++){
+                bodies.add(readers.submit(() -> cache.get(() -> {
+                    loads.incrementAndGet();
+                    try{
+                        release.await();
+                    }catch(InterruptedException e){
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of("built");
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            byte[] body = bodies.get(0).get(5, TimeUnit.SECONDS);
+            for(Future<byte[]> other : bodies){
+                Assertions.assertSame(body, other.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals("[\"built\"]", new String(body, "UTF-8"));
+            Assertions.assertEquals(1, loads.get());
+
+            cache.invalidate();
+            cache.get(() -> {
+                loads.incrementAndGet();
+                return List.of("rebuilt");
+            });
+            Assertions.assertEquals(2, loads.get());
+        }finally{
+            readers.shutdownNow();
+        }
+    }
+
+    private List<Message> list() throws IOException, InterruptedException {
+        return objectMapper.readValue(send("GET", "/messages", null).body(), new TypeReference<List<Message>>(){});
+    }
+
+    private Map<String, Long> getStatistics() throws IOException, InterruptedException {
+        return objectMapper.readValue(send("GET", "/stats/response-cache", null).body(), new TypeReference<Map<String, Long>>(){});
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if(body != null){
+            request.header("Content-Type", "application/json");
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Message;
+import com.example.repository.MessageStore;
+
+/**
+ * Compares key lookups, author listings and inserts through the JPA and in-memory MessageStores. The timings
+ * are printed rather than asserted, since they depend on the machine; the assertions only check that both
+ * stores return the same messages. Tagged as a benchmark, so it only runs with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+public class MessageStoreBenchmarkTest {
+    private static final int MESSAGES = 2000;
+    private static final int LOOKUPS = 50000;
+    private static final int WARMUP_ROUNDS = 2;
+
+    @Test
+    public void compareStores() throws IOException {
+        List<Object> jpa = run("jpa");
+        List<Object> memory = run("memory");
+        Assertions.assertEquals(jpa, memory, "Both stores should return the same messages");
+    }
+
+    private List<Object> run(String store) throws IOException {
+        String directory = Files.createTempDirectory("message-store").toString();
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class,
+                "--message.store=" + store, "--message.store.memory.directory=" + directory, "--ratelimit.enabled=false");
+        try{
+            MessageStore messageStore = app.getBean(MessageStore.class);
+            List<Object> results = new ArrayList<>();
+
+            long start = System.nanoTime();
+            List<Integer> ids = new ArrayList<>();
+            for(int i = 0; i < MESSAGES; i++){
+                ids.add(messageStore.save(new Message(9996 + i % 4, "benchmark message " + i, 1669947792L + i)).getMessageId());
+            }
+            report(store, "save", System.nanoTime() - start, MESSAGES);
+
+            Random random = new Random(42);
+            for(int round = 0; round <= WARMUP_ROUNDS; round++){
+                start = System.nanoTime();
+                for(int i = 0; i < LOOKUPS; i++){
+                    messageStore.findById(ids.get(random.nextInt(ids.size())));
+                }
+                if(round == WARMUP_ROUNDS){
+                    report(store, "findById", System.nanoTime() - start, LOOKUPS);
+                }
+            }
+
+            for(int round = 0; round <= WARMUP_ROUNDS; round++){
+                start = System.nanoTime();
+                for(int i = 0; i < 100; i++){
+                    messageStore.getMessageViews(9996 + i % 4);
+                }
+                if(round == WARMUP_ROUNDS){
+                    report(store, "getMessageViews(accountId)", System.nanoTime() - start, 100);
+                }
+            }
+
+            for(int i = 0; i < MESSAGES; i += 97){
+                Message message = messageStore.findById(ids.get(i)).orElse(null);
+                results.add(message == null ? null : message.getMessageText());
+            }
+            results.add(messageStore.getMessageViews(9997).size());
+            return results;
+        }finally{
+            SpringApplication.exit(app);
+        }
+    }
+
+    private static void report(String store, String operation, long nanos, int count){
+        System.out.printf("%-6s %-28s %10.1f us/op%n", store, operation, nanos / 1000.0 / count);
+    }
+}
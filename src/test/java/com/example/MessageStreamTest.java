@@ -0,0 +1,160 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.event.MessageChangedEvent;
+import com.example.service.MessageStreamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MessageStreamTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Subscribing to GET localhost:8080/messages/stream, then sending an http request to POST localhost:8080/messages
+     *
+     * Expected Stream:
+     *  a created event whose data is the JSON representation of the new message
+     */
+    @Test
+    public void streamReceivesCreatedMessage() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Iterator<String> lines = subscribe("http://localhost:8080/messages/stream");
+            Assertions.assertEquals(":connected", lines.next());
+            postMessage("{\"postedBy\":9999,\"messageText\":\"hello stream\",\"timePostedEpoch\": 1669947792}");
+            Assertions.assertEquals("", lines.next());
+            Assertions.assertEquals("id:0", lines.next());
+            Assertions.assertEquals("event:created", lines.next());
+            Message actual = objectMapper.readValue(lines.next().substring("data:".length()), Message.class);
+            Assertions.assertEquals(new Message(1, 9999, "hello stream", 1669947792L), actual);
+        });
+    }
+
+    /**
+     * Subscribing to GET localhost:8080/accounts/9998/messages/stream, then posting a message as 9999 and as 9998
+     *
+     * Expected Stream:
+     *  only the created event of the message posted by 9998
+     */
+    @Test
+    public void accountStreamSkipsOtherAccounts() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Iterator<String> lines = subscribe("http://localhost:8080/accounts/9998/messages/stream");
+            Assertions.assertEquals(":connected", lines.next());
+            postMessage("{\"postedBy\":9999,\"messageText\":\"not for 9998\",\"timePostedEpoch\": 1669947792}");
+            postMessage("{\"postedBy\":9998,\"messageText\":\"for 9998\",\"timePostedEpoch\": 1669947792}");
+            Assertions.assertEquals("", lines.next());
+            Assertions.assertEquals("id:1", lines.next());
+            Assertions.assertEquals("event:created", lines.next());
+            Message actual = objectMapper.readValue(lines.next().substring("data:".length()), Message.class);
+            Assertions.assertEquals(new Message(2, 9998, "for 9998", 1669947792L), actual);
+        });
+    }
+
+    /**
+     * Posting a message, then subscribing to GET localhost:8080/messages/stream with Last-Event-ID: -1
+     *
+     * Expected Stream:
+     *  the created event that was published before the subscription
+     */
+    @Test
+    public void streamResumesFromLastEventId() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            postMessage("{\"postedBy\":9999,\"messageText\":\"missed\",\"timePostedEpoch\": 1669947792}");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/stream"))
+                    .header("Last-Event-ID", "-1")
+                    .build();
+            Iterator<String> lines = webClient.send(request, HttpResponse.BodyHandlers.ofLines()).body().iterator();
+            Assertions.assertEquals(":connected", lines.next());
+            Assertions.assertEquals("", lines.next());
+            Assertions.assertEquals("id:0", lines.next());
+            Assertions.assertEquals("event:created", lines.next());
+        });
+    }
+
+    /**
+     * Publishing more changes than the stream buffers, then subscribing to GET localhost:8080/messages/stream with
+     * Last-Event-ID: 0, and again with the ID of an event from before a restart
+     *
+     * Expected Stream:
+     *  a reset event carrying the ID of the newest change, so the client reloads instead of silently missing the
+     *  changes that dropped out of the buffer
+     */
+    @Test
+    public void streamResetsWhenLastEventIdIsGone() {
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            MessageStreamService messageStreamService = app.getBean(MessageStreamService.class);
+            for(int i = 0; i < 1100; i++){
+                messageStreamService.onMessageChanged(new MessageChangedEvent(MessageChangedEvent.Type.UPDATED,
+                        new MessageView(9999, 9999, "change " + i, 1669947792L)));
+            }
+            for(String lastEventId : new String[] {"0", "5000"}){
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/messages/stream"))
+                        .header("Last-Event-ID", lastEventId)
+                        .build();
+                Iterator<String> lines = webClient.send(request, HttpResponse.BodyHandlers.ofLines()).body().iterator();
+                Assertions.assertEquals(":connected", lines.next());
+                Assertions.assertEquals("", lines.next());
+                Assertions.assertEquals("id:1099", lines.next());
+                Assertions.assertEquals("event:reset", lines.next());
+            }
+        });
+    }
+
+    private Iterator<String> subscribe(String uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(uri)).build();
+        CompletableFuture<HttpResponse<Stream<String>>> response =
+                webClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+        return response.get().body().iterator();
+    }
+
+    private void postMessage(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, response.statusCode());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Message;
+import com.example.repository.MessageRepository;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compares the heap allocated while loading the message list as managed Message entities, as the list endpoints
+ * used to, against loading it as MessageView projections in a read-only transaction. The bytes are printed
+ * rather than asserted, since they depend on the JVM; the assertions only check that both load the same
+ * messages. Tagged as a benchmark, so it only runs with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+public class MessageViewAllocationBenchmarkTest {
+    private static final int MESSAGES = 5000;
+    private static final int LOADS = 50;
+    private static final int WARMUP_ROUNDS = 2;
+
+    @Test
+    public void compareAllocations() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assertions.assertTrue(threads.isThreadAllocatedMemorySupported(), "Expected per-thread allocation counters");
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false");
+        try{
+            MessageRepository messageRepository = app.getBean(MessageRepository.class);
+            PlatformTransactionManager transactionManager = app.getBean(PlatformTransactionManager.class);
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            for(int i = 0; i < MESSAGES; i++){
+                messageRepository.save(new Message(9996 + i % 4, "benchmark message " + i, 1669947792L + i));
+            }
+
+            Assertions.assertEquals(readWrite.execute(status -> messageRepository.findAll()).size(),
+                    readOnly.execute(status -> messageRepository.getMessageViews()).size());
+            measure(threads, "entities", () -> readWrite.execute(status -> messageRepository.findAll()));
+            measure(threads, "views", () -> readOnly.execute(status -> messageRepository.getMessageViews()));
+        }finally{
+            SpringApplication.exit(app);
+        }
+    }
+
+    private static void measure(ThreadMXBean threads, String name, Supplier<List<?>> load){
+        long threadId = Thread.currentThread().getId();
+        for(int round = 0; round <= WARMUP_ROUNDS; round++){
+            long start = threads.getThreadAllocatedBytes(threadId);
+            for(int i = 0; i < LOADS; i++){
+                Assertions.assertEquals(MESSAGES + 3, load.get().size());
+            }
+            if(round == WARMUP_ROUNDS){
+                long bytes = threads.getThreadAllocatedBytes(threadId) - start;
+                System.out.printf("%-9s %12.1f KB/load %10.1f B/message%n", name, bytes / 1024.0 / LOADS, (double) bytes / LOADS / (MESSAGES + 3));
+            }
+        }
+    }
+}
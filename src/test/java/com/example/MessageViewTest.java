@@ -0,0 +1,100 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.example.repository.MessageRepository;
+
+public class MessageViewTest {
+	ApplicationContext app;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database, restart the app without rate limits, and create a new webClient
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/messages and GET localhost:8080/accounts/{accountId}/messages,
+     * with and without a time range, after posting messages with escaped and non-ASCII text
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: byte for byte what the Message entities serialized to before the list endpoints were
+     *  served from MessageView projections
+     */
+    @Test
+    public void listResponsesMatchEntityOutput() throws IOException, InterruptedException {
+        post(9998, "quote \\\" backslash \\\\ tab \\t", 1669947800L);
+        post(9999, "caf\u00e9 \ud83d\ude00 </script>", 1669947900L);
+        post(9998, "a later message", 1700000000L);
+
+        assertSameAsEntities("/messages", message -> true);
+        assertSameAsEntities("/messages?since=1669947800&until=1700000000",
+                message -> message.getTimePostedEpoch() >= 1669947800L && message.getTimePostedEpoch() < 1700000000L);
+        for(int accountId : new int[] {9996, 9997, 9998, 9999, 1234}){
+            assertSameAsEntities("/accounts/" + accountId + "/messages", message -> message.getPostedBy() == accountId);
+            assertSameAsEntities("/accounts/" + accountId + "/messages?since=1669947793",
+                    message -> message.getPostedBy() == accountId && message.getTimePostedEpoch() >= 1669947793L);
+        }
+    }
+
+    private void assertSameAsEntities(String path, Predicate<Message> filter) throws IOException, InterruptedException {
+        List<Message> entities = app.getBean(MessageRepository.class).findAll().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(Message::getMessageId))
+                .collect(Collectors.toList());
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .build();
+        HttpResponse<byte[]> response = webClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        byte[] expected = StreamingJsonTest.beanMapper.writeValueAsBytes(entities);
+        Assertions.assertArrayEquals(expected, response.body(), path + " expected " + new String(expected, StandardCharsets.UTF_8)
+                + " but was " + new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private void post(int postedBy, String messageText, long timePostedEpoch) throws IOException, InterruptedException {
+        String body = "{\"postedBy\":" + postedBy + ",\"messageText\":\"" + messageText + "\",\"timePostedEpoch\":" + timePostedEpoch + "}";
+        Assertions.assertEquals(200, send("POST", "/messages", body).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
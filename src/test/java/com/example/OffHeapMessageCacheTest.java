@@ -0,0 +1,171 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.dto.MessageView;
+import com.example.entity.Message;
+import com.example.event.MessageChangedEvent;
+import com.example.repository.OffHeapMessageCache;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class OffHeapMessageCacheTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app with a single-segment off-heap cache that holds
+     * 64 small messages, and create a new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--message.cache.offheap.capacity-bytes=4096", "--message.cache.offheap.slab-size=1024",
+                "--message.cache.offheap.segments=1", "--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/9999 twice
+     *
+     * Expected Response:
+     *  the first lookup misses the cache and the second one hits it
+     */
+    @Test
+    public void repeatedLookupHitsCache() throws IOException, InterruptedException {
+        Message expected = new Message(9999, 9999, "test message 1", 1669947792L);
+        Assertions.assertEquals(expected, objectMapper.readValue(send("GET", "/messages/9999", null).body(), Message.class));
+        Assertions.assertEquals(expected, objectMapper.readValue(send("GET", "/messages/9999", null).body(), Message.class));
+        Map<String, Long> statistics = getStatistics();
+        Assertions.assertEquals(1L, (long) statistics.get("missCount"));
+        Assertions.assertEquals(1L, (long) statistics.get("hitCount"));
+    }
+
+    /**
+     * Caching a message, then updating and deleting it
+     *
+     * Expected Response:
+     *  lookups see the update and then the deletion, never the cached original
+     */
+    @Test
+    public void cacheFollowsUpdatesAndDeletes() throws IOException, InterruptedException {
+        send("GET", "/messages/9999", null);
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}").statusCode());
+        Message updated = objectMapper.readValue(send("GET", "/messages/9999", null).body(), Message.class);
+        Assertions.assertEquals("edited", updated.getMessageText());
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/9999", null).statusCode());
+        HttpResponse<String> response = send("GET", "/messages/9999", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertTrue(response.body().isEmpty(), "Expected Empty Result, but Result was " + response.body());
+    }
+
+    /**
+     * Editing a message twice and deleting it, then replaying its change events out of order, as request threads
+     * that publish after their own commits can
+     *
+     * Expected Response:
+     *  lookups keep returning the latest edit over the replayed older one, and nothing once the message is
+     *  deleted, even when an update event arrives after the deletion
+     */
+    @Test
+    public void cacheIgnoresEventsOutOfOrder() throws IOException, InterruptedException {
+        OffHeapMessageCache messageCache = app.getBean(OffHeapMessageCache.class);
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"first\"}").statusCode());
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"second\"}").statusCode());
+        MessageView latest = messageCache.get(9999);
+        Assertions.assertEquals("second", latest.getMessageText());
+
+        messageCache.onMessageChanged(new MessageChangedEvent(MessageChangedEvent.Type.UPDATED,
+                new MessageView(9999, 9999, "first", 1669947792L, latest.getVersion() - 1)));
+        Assertions.assertEquals("second", objectMapper.readValue(send("GET", "/messages/9999", null).body(), Message.class).getMessageText());
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/9999", null).statusCode());
+        messageCache.onMessageChanged(new MessageChangedEvent(MessageChangedEvent.Type.UPDATED, latest));
+        messageCache.fill(latest, messageCache.stamp());
+        Assertions.assertNull(messageCache.get(9999));
+        Assertions.assertEquals("", send("GET", "/messages/9999", null).body());
+    }
+
+    /**
+     * Invalidating far more messages than the cache has room for version floors
+     *
+     * Expected Response:
+     *  the cache never holds more floors than configured, drops the messages of each segment that overflows, and
+     *  still refuses copies older than the latest invalidation
+     */
+    @Test
+    public void versionFloorsAreBounded() {
+        OffHeapMessageCache messageCache = new OffHeapMessageCache(true, 4096, 1024, 2, 8);
+        messageCache.fill(new MessageView(1, 9999, "message 1", 1669947792L, 0), messageCache.stamp());
+        for(int messageId = 101; messageId <= 1100; messageId++){
+            messageCache.invalidate(messageId, 1);
+            Assertions.assertTrue(messageCache.getStatistics().get("floorCount") <= 8);
+        }
+        Assertions.assertTrue(messageCache.getStatistics().get("floorOverflowCount") > 0);
+        Assertions.assertNull(messageCache.get(1));
+
+        messageCache.fill(new MessageView(1100, 9999, "stale", 1669947792L, 0), messageCache.stamp());
+        Assertions.assertNull(messageCache.get(1100));
+        messageCache.fill(new MessageView(1, 9999, "message 1", 1669947792L, 0), messageCache.stamp());
+        Assertions.assertEquals("message 1", messageCache.get(1).getMessageText());
+    }
+
+    /**
+     * Posting more messages than the cache can hold, then listing them all
+     *
+     * Expected Response:
+     *  every message is listed in messageId order, and the cache has evicted to stay within its capacity
+     */
+    @Test
+    public void cacheEvictsBeyondCapacity() throws IOException, InterruptedException {
+        for(int i = 0; i < 100; i++){
+            Assertions.assertEquals(200, send("POST", "/messages",
+                    "{\"postedBy\":9999,\"messageText\":\"message " + i + "\",\"timePostedEpoch\": 1669947792}").statusCode());
+        }
+        List<Message> messages = objectMapper.readValue(send("GET", "/messages", null).body(), new TypeReference<List<Message>>(){});
+        Assertions.assertEquals(103, messages.size());
+        for(int i = 1; i < messages.size(); i++){
+            Assertions.assertTrue(messages.get(i - 1).getMessageId() < messages.get(i).getMessageId());
+        }
+        Map<String, Long> statistics = getStatistics();
+        Assertions.assertTrue(statistics.get("evictionCount") > 0, "Expected evictions, statistics were " + statistics);
+        Assertions.assertTrue(statistics.get("allocatedBytes") <= 4096, "Expected at most 4096 bytes, statistics were " + statistics);
+    }
+
+    private Map<String, Long> getStatistics() throws IOException, InterruptedException {
+        return objectMapper.readValue(send("GET", "/stats/message-cache", null).body(), new TypeReference<Map<String, Long>>(){});
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class OptimisticConcurrencyTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app with retries of unconditional edits enabled,
+     * and create a new webClient and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--message.update.retry.enabled=true", "--message.update.retry.max-attempts=100"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/9999, then two PATCHes with If-Match set to
+     * the ETag that was read
+     *
+     * Expected Response:
+     *  the first PATCH succeeds with a new ETag, and the second fails with 412 without overwriting the first
+     */
+    @Test
+    public void staleIfMatchIsRejected() throws IOException, InterruptedException {
+        HttpResponse<String> read = send("GET", "/messages/9999", null, null);
+        String eTag = read.headers().firstValue("ETag").orElseThrow();
+        Assertions.assertEquals("\"0\"", eTag);
+        Message message = objectMapper.readValue(read.body(), Message.class);
+        Assertions.assertFalse(read.body().contains("version"), "Expected no version in the body, but it was " + read.body());
+        Assertions.assertEquals(new Message(9999, 9999, "test message 1", 1669947792L), message);
+
+        HttpResponse<String> first = send("PATCH", "/messages/9999", "{\"messageText\":\"first\"}", eTag);
+        Assertions.assertEquals(200, first.statusCode());
+        Assertions.assertEquals("\"1\"", first.headers().firstValue("ETag").orElseThrow());
+
+        HttpResponse<String> second = send("PATCH", "/messages/9999", "{\"messageText\":\"second\"}", eTag);
+        Assertions.assertEquals(412, second.statusCode());
+
+        read = send("GET", "/messages/9999", null, null);
+        Assertions.assertEquals("first", objectMapper.readValue(read.body(), Message.class).getMessageText());
+        Assertions.assertEquals("\"1\"", read.headers().firstValue("ETag").orElseThrow());
+    }
+
+    /**
+     * Sending PATCHes with If-Match headers that cannot match: a weak ETag and a malformed one
+     *
+     * Expected Response:
+     *  Status Code: 412 for both, while If-Match: * still updates the message
+     */
+    @Test
+    public void unmatchableIfMatchIsRejected() throws IOException, InterruptedException {
+        Assertions.assertEquals(412, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}", "W/\"0\"").statusCode());
+        Assertions.assertEquals(412, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}", "0").statusCode());
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}", "*").statusCode());
+    }
+
+    /**
+     * Eight clients repeatedly read message 9999 and PATCH it to a new text with If-Match set to the ETag they read
+     *
+     * Expected Response:
+     *  every PATCH either succeeds or fails with 412, and the final version equals the number that succeeded,
+     *  so no edit was silently lost
+     */
+    @Test
+    public void concurrentConditionalEditsAreNeverLost() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(8, 10, client -> {
+            String eTag = send("GET", "/messages/9999", null, null).headers().firstValue("ETag").orElseThrow();
+            int status = send("PATCH", "/messages/9999", "{\"messageText\":\"edit by " + client + "\"}", eTag).statusCode();
+            if(status == 200){
+                succeeded.incrementAndGet();
+            }else{
+                Assertions.assertEquals(412, status);
+                rejected.incrementAndGet();
+            }
+        });
+        Assertions.assertEquals(80, succeeded.get() + rejected.get());
+        Assertions.assertTrue(succeeded.get() > 0);
+        String eTag = send("GET", "/messages/9999", null, null).headers().firstValue("ETag").orElseThrow();
+        Assertions.assertEquals("\"" + succeeded.get() + "\"", eTag);
+    }
+
+    /**
+     * Eight clients concurrently PATCH message 9999 to new texts without If-Match, with retries enabled
+     *
+     * Expected Response:
+     *  every PATCH succeeds, and the final version counts every one of them
+     */
+    @Test
+    public void concurrentUnconditionalEditsAreRetried() throws Exception {
+        runConcurrently(8, 10, client -> {
+            Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"edit by " + client + "\"}", null).statusCode());
+        });
+        String eTag = send("GET", "/messages/9999", null, null).headers().firstValue("ETag").orElseThrow();
+        Assertions.assertEquals("\"80\"", eTag);
+    }
+
+    private interface Edit {
+        void run(String client) throws Exception;
+    }
+
+    private void runConcurrently(int clients, int editsPerClient, Edit edit) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try{
+            List<Future<?>> futures = new ArrayList<>();
+            for(int client = 0; client < clients; client++){
+                int id = client;
+                futures.add(executor.submit(() -> {
+                    for(int i = 0; i < editsPerClient; i++){
+                        edit.run(id + "." + i);
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures){
+                future.get();
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String body, String ifMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json");
+        if(ifMatch != null){
+            request.header("If-Match", ifMatch);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
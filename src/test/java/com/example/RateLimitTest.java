@@ -0,0 +1,81 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+public class RateLimitTest {
+	ApplicationContext app;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database, restart the app with a per-account login limit of 2 requests
+     * and no refill to speak of, and create a new webClient.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        String[] args = new String[] {"--ratelimit.endpoints.postLogin.per-account.capacity=2",
+                "--ratelimit.endpoints.postLogin.per-account.refill-per-second=0.001"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    private HttpResponse<String> login(String username) throws IOException, InterruptedException {
+        String json = "{\"username\":\"" + username + "\",\"password\":\"password\"}";
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Sending three http requests to POST localhost:8080/login for the same account
+     *
+     * Expected Response:
+     *  Status Code: 200, 200, then 429 with a Retry-After header
+     */
+    @Test
+    public void loginRateLimitedPerAccount() throws IOException, InterruptedException {
+        Assertions.assertEquals(200, login("testuser1").statusCode());
+        Assertions.assertEquals(200, login("testuser1").statusCode());
+        HttpResponse<String> response = login("testuser1");
+        int status = response.statusCode();
+        Assertions.assertEquals(429, status, "Expected Status Code 429 - Actual Code was: " + status);
+        Assertions.assertTrue(response.headers().firstValue("Retry-After").isPresent(), "Expected a Retry-After header");
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/login for another account once the first is limited
+     *
+     * Expected Response:
+     *  Status Code: 200
+     */
+    @Test
+    public void loginRateLimitIsolatedBetweenAccounts() throws IOException, InterruptedException {
+        login("testuser1");
+        login("testuser1");
+        login("testuser1");
+        HttpResponse<String> response = login("testuser2");
+        int status = response.statusCode();
+        Assertions.assertEquals(200, status, "Expected Status Code 200 - Actual Code was: " + status);
+    }
+}
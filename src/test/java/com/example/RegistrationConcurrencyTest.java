@@ -0,0 +1,119 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.example.entity.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class RegistrationConcurrencyTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app without rate limits, and create a new webClient
+     * and ObjectMapper for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sixteen clients send http requests to POST localhost:8080/register with the same username at the same
+     * time, for five different usernames
+     *
+     * Expected Response:
+     *  exactly one registration per username succeeds, and every other one fails with 409 rather than 500
+     */
+    @Test
+    public void concurrentRegistrationsWithSameUsername() throws Exception {
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try{
+            for(int round = 0; round < 5; round++){
+                String username = "racer" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> statuses = new ArrayList<>();
+                for(int i = 0; i < clients; i++){
+                    statuses.add(executor.submit(() -> {
+                        start.await();
+                        return register(username, "password").statusCode();
+                    }));
+                }
+                start.countDown();
+                int created = 0;
+                for(Future<Integer> status : statuses){
+                    int code = status.get();
+                    if(code == 200){
+                        created++;
+                    }else{
+                        Assertions.assertEquals(409, code);
+                    }
+                }
+                Assertions.assertEquals(1, created, "Expected one registration of " + username);
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/register with the username of a seeded account and an
+     * accountId
+     *
+     * Expected Response:
+     *  Status Code: 409, and the seeded account can still log in with its own password
+     */
+    @Test
+    public void registrationNeverUpdatesExistingAccount() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("/register", "{\"accountId\":9998,\"username\":\"testuser1\",\"password\":\"other\"}");
+        Assertions.assertEquals(409, response.statusCode());
+        response = send("/register", "{\"accountId\":9998,\"username\":\"fresh\",\"password\":\"other\"}");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertNotEquals(9998, (int) objectMapper.readValue(response.body(), Account.class).getAccountId());
+        response = send("/login", "{\"username\":\"testuser2\",\"password\":\"password\"}");
+        Assertions.assertEquals(200, response.statusCode());
+    }
+
+    private HttpResponse<String> register(String username, String password) throws IOException, InterruptedException {
+        return send("/register", "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private HttpResponse<String> send(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.entity.Message;
+import com.example.exception.InvalidMessageException;
+import com.example.service.MessageService;
+
+/**
+ * Times the rejection of invalid messages by MessageService with the shared, stackless exception, next to the
+ * same service throwing a new exception that fills in its stack trace, as it used to. The timings are printed
+ * rather than asserted, since they depend on the machine; the assertions only check which exception each mode
+ * throws. Tagged as a benchmark, so it only runs with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+public class RejectionBenchmarkTest {
+    private static final int REJECTIONS = 200000;
+    private static final int WARMUP_ROUNDS = 2;
+
+    @Test
+    public void compareRejections() {
+        measure(false);
+        measure(true);
+    }
+
+    private void measure(boolean stackTraces) {
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false",
+                "--message.validation.stack-traces=" + stackTraces);
+        try{
+            MessageService messageService = app.getBean(MessageService.class);
+            Message blank = new Message(9999, " ", 1669947792L);
+            Message tooLong = new Message(9999, "x".repeat(256), 1669947792L);
+
+            InvalidMessageException rejected = Assertions.assertThrows(InvalidMessageException.class, () -> messageService.addMessage(blank));
+            InvalidMessageException again = Assertions.assertThrows(InvalidMessageException.class, () -> messageService.updateMessage(9999, tooLong, null));
+            if(stackTraces){
+                Assertions.assertNotSame(rejected, again);
+                Assertions.assertTrue(Arrays.stream(rejected.getStackTrace())
+                        .anyMatch(frame -> frame.getClassName().equals(MessageService.class.getName())));
+            }else{
+                Assertions.assertSame(InvalidMessageException.INSTANCE, rejected);
+                Assertions.assertSame(rejected, again);
+                Assertions.assertEquals(0, rejected.getStackTrace().length);
+            }
+
+            for(int round = 0; round <= WARMUP_ROUNDS; round++){
+                long start = System.nanoTime();
+                int count = 0;
+                for(int i = 0; i < REJECTIONS; i++){
+                    try{
+                        messageService.addMessage(i % 2 == 0 ? blank : tooLong);
+                    }catch(InvalidMessageException e){
+                        count++;
+                    }
+                }
+                Assertions.assertEquals(REJECTIONS, count);
+                if(round == WARMUP_ROUNDS){
+                    report(stackTraces ? "addMessage rejected (stack trace)" : "addMessage rejected (stackless)",
+                            System.nanoTime() - start, REJECTIONS);
+                }
+            }
+        }finally{
+            SpringApplication.exit(app);
+        }
+    }
+
+    private static void report(String operation, long nanos, int count){
+        System.out.printf("%-36s %10.3f us/op%n", operation, nanos / 1000.0 / count);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.entity.Message;
+import com.example.repository.MessageRepository;
+import com.example.repository.MessageStore;
+import com.example.service.MessagePurger;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SoftDeleteTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app with soft deletes, small purge batches, no
+     * scheduled purging and no rate limits, and create a new webClient and ObjectMapper for interacting
+     * locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false", "--message.delete.mode=soft",
+                "--message.purge.enabled=false", "--message.purge.batch-size=10", "--message.purge.pause-ms=0"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to DELETE localhost:8080/messages/9999 in soft delete mode
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the deleted message, which no read returns afterwards although its row remains until purged
+     */
+    @Test
+    public void softDeletedMessageIsHidden() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("DELETE", "/messages/9999", null);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("1", response.body());
+        Assertions.assertEquals(3L, app.getBean(MessageRepository.class).count());
+
+        Assertions.assertEquals("", send("GET", "/messages/9999", null).body());
+        Assertions.assertEquals(List.of(9996, 9997), messageIds("/messages"));
+        Assertions.assertEquals(List.of(), messageIds("/accounts/9999/messages"));
+        Assertions.assertEquals(List.of(9997), messageIds("/messages?ids=9999,9997"));
+        Assertions.assertEquals(List.of(9996, 9997), messageIds("/messages?since=0&until=2000000000"));
+        Assertions.assertEquals(400, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertEquals("", send("DELETE", "/messages/9999", null).body());
+        Assertions.assertEquals(Map.of("accountId", 9999, "hourly", List.of(), "daily", List.of()),
+                objectMapper.readValue(send("GET", "/accounts/9999/activity", null).body(), Map.class));
+    }
+
+    /**
+     * A soft delete is one conditional update statement rather than a rewrite of the loaded entity, and a delete
+     * based on a version that has since changed loses the race.
+     */
+    @Test
+    public void softDeleteIsConditionalUpdate() throws IOException, InterruptedException {
+        MessageStore messageStore = app.getBean(MessageStore.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        Message stale = messageStore.findById(9999).orElseThrow();
+        Assertions.assertEquals(200, send("PATCH", "/messages/9999", "{\"messageText\":\"edited\"}").statusCode());
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> messageStore.delete(stale)));
+        Assertions.assertEquals("edited", objectMapper.readValue(send("GET", "/messages/9999", null).body(), Map.class).get("messageText"));
+
+        Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Assertions.assertEquals("1", send("DELETE", "/messages/9999", null).body());
+        Assertions.assertEquals(0, statistics.getEntityUpdateCount());
+        Assertions.assertTrue(Arrays.stream(statistics.getQueries()).anyMatch(query -> query.startsWith("update Message m set m.deletedEpoch")),
+                "Expected a single-column update, but the queries were " + Arrays.toString(statistics.getQueries()));
+        Assertions.assertEquals(List.of(9996, 9997), messageIds("/messages"));
+    }
+
+    /**
+     * Purging removes the rows of soft-deleted messages in batches, and leaves every other message alone.
+     */
+    @Test
+    public void purgeRemovesTombstonesInBatches() throws Exception {
+        for(int i = 0; i < 25; i++){
+            HttpResponse<String> response = send("POST", "/messages",
+                    "{\"postedBy\":9998,\"messageText\":\"purge me\",\"timePostedEpoch\":1669947792}");
+            Assertions.assertEquals(200, response.statusCode());
+            int messageId = (int) objectMapper.readValue(response.body(), Map.class).get("messageId");
+            Assertions.assertEquals(200, send("DELETE", "/messages/" + messageId, null).statusCode());
+        }
+        MessageRepository messageRepository = app.getBean(MessageRepository.class);
+        Assertions.assertEquals(28L, messageRepository.count());
+
+        Assertions.assertEquals(25, app.getBean(MessagePurger.class).purge());
+        Assertions.assertEquals(3L, messageRepository.count());
+        Assertions.assertEquals(List.of(9996, 9997, 9999), messageIds("/messages"));
+        Assertions.assertEquals(0, app.getBean(MessagePurger.class).purge());
+
+        Map<String, Long> statistics = objectMapper.readValue(send("GET", "/stats/purge", null).body(),
+                new TypeReference<Map<String, Long>>(){});
+        Assertions.assertEquals(25L, (long) statistics.get("purgedCount"));
+        Assertions.assertEquals(3L, (long) statistics.get("batchCount"));
+        Assertions.assertEquals(0L, (long) statistics.get("deferredCount"));
+    }
+
+    private List<Integer> messageIds(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("GET", path, null);
+        Assertions.assertEquals(200, response.statusCode());
+        List<Map<String, Object>> messages = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+        return messages.stream().map(message -> (Integer) message.get("messageId")).sorted().collect(Collectors.toList());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+public class SparseFieldsetTest {
+	ApplicationContext app;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database, restart the app without rate limits, and create a new webClient
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?fields=messageId,messageText
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: every message with only its messageId and messageText, read by a query that selects
+     *  no other columns
+     */
+    @Test
+    public void selectFieldsOfAllMessages() throws IOException, InterruptedException {
+        Assertions.assertEquals(200, send("GET", "/messages").statusCode());
+        Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        HttpResponse<String> response = send("GET", "/messages?fields=messageText,messageId");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("[{\"messageId\":9996,\"messageText\":\"test message 3\"},"
+                + "{\"messageId\":9997,\"messageText\":\"test message 2\"},"
+                + "{\"messageId\":9999,\"messageText\":\"test message 1\"}]", response.body());
+
+        String query = Arrays.stream(statistics.getQueries()).filter(q -> q.contains("messageText")).findFirst().orElse("");
+        Assertions.assertFalse(query.isEmpty(), "Expected a query selecting messageText");
+        Assertions.assertFalse(query.contains("postedBy") || query.contains("timePostedEpoch") || query.contains("version"),
+                "Expected only the selected columns, but the query was " + query);
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/accounts/9999/messages?fields=messageText and
+     * GET localhost:8080/messages?fields=timePostedEpoch with a time range
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the selected field of each matching message, nulls included
+     */
+    @Test
+    public void selectFieldsWithFilters() throws IOException, InterruptedException {
+        Assertions.assertEquals("[{\"messageText\":\"test message 1\"}]", send("GET", "/accounts/9999/messages?fields=messageText").body());
+        Assertions.assertEquals("[]", send("GET", "/accounts/9998/messages?fields=messageText").body());
+
+        HttpRequest post = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9998,\"messageText\":\"later\",\"timePostedEpoch\":1700000000}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Assertions.assertEquals(200, webClient.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+        Assertions.assertEquals("[{\"postedBy\":9998,\"timePostedEpoch\":1700000000}]",
+                send("GET", "/messages?fields=timePostedEpoch,postedBy&since=1690000000").body());
+        Assertions.assertEquals("[{\"messageId\":9996},{\"messageId\":9997},{\"messageId\":9999}]",
+                send("GET", "/messages?fields=messageId&until=1690000000").body());
+
+        Assertions.assertEquals(200, send("DELETE", "/messages/9997").statusCode());
+        Assertions.assertEquals("[{\"messageId\":9996},{\"messageId\":9999}]",
+                send("GET", "/messages?fields=messageId&until=1690000000").body());
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/messages with fields that do not exist, no fields, or fields
+     * combined with ids or expand
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void rejectInvalidFields() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, send("GET", "/messages?fields=messageId,password").statusCode());
+        Assertions.assertEquals(400, send("GET", "/messages?fields=version").statusCode());
+        Assertions.assertEquals(400, send("GET", "/messages?fields=").statusCode());
+        Assertions.assertEquals(400, send("GET", "/messages?fields=messageId,").statusCode());
+        Assertions.assertEquals(400, send("GET", "/messages?fields=messageId&ids=9999").statusCode());
+        Assertions.assertEquals(400, send("GET", "/messages?fields=messageId&expand=author").statusCode());
+        Assertions.assertEquals(400, send("GET", "/accounts/9999/messages?fields=text").statusCode());
+        Assertions.assertEquals(400, send("GET", "/accounts/9999/messages?fields=messageId&expand=author").statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,217 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.dto.AuthorView;
+import com.example.dto.AuthoredMessageView;
+import com.example.dto.MessageView;
+import com.example.entity.Account;
+import com.example.entity.Message;
+import com.example.json.AccountJson;
+import com.example.json.MessageJson;
+import com.example.json.MessageViewJson;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Checks that the streaming JSON components read and write exactly what Jackson's bean binding does, with the
+ * settings the application's ObjectMapper is built with.
+ */
+public class StreamingJsonTest {
+    static final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json().build();
+    static final ObjectMapper streamingMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(streamingModule()).build();
+
+    static SimpleModule streamingModule(){
+        SimpleModule module = new SimpleModule("streaming-json");
+        module.addSerializer(Message.class, new MessageJson.Serializer());
+        module.addDeserializer(Message.class, new MessageJson.Deserializer());
+        module.addSerializer(MessageView.class, new MessageViewJson.Serializer());
+        module.addSerializer(Account.class, new AccountJson.Serializer());
+        module.addDeserializer(Account.class, new AccountJson.Deserializer());
+        return module;
+    }
+
+    /**
+     * Serializing messages, accounts and message lists with nulls, escapes and non-ASCII text
+     *
+     * Expected Result:
+     *  the streaming components write the same bytes as the bean serializers
+     */
+    @Test
+    public void writesSameBytesAsBeanBinding() throws IOException {
+        Message versioned = new Message(1, 9999, "quote \" backslash \\ tab \t newline \n", 1669947792L);
+        versioned.setVersion(3);
+        List<Message> messages = Arrays.asList(versioned, new Message(2, 9998, "caf\u00e9 \ud83d\ude00 \u2028", Long.MAX_VALUE),
+                new Message(null, null, null, null), new Message());
+        for(Message message : messages){
+            assertSameBytes(message);
+        }
+        assertSameBytes(messages);
+        assertSameBytes(new TypeReference<List<Message>>(){}, messages);
+
+        List<MessageView> views = Arrays.asList(MessageView.from(versioned), new MessageView(3, null, "</script>", null, 7),
+                new AuthoredMessageView(MessageView.from(messages.get(1)), new AuthorView(9998, "testuser2")),
+                new AuthoredMessageView(new MessageView(4, 1, "orphan", 0L), null),
+                new AuthoredMessageView(new MessageView(5, 1, "no name", 0L), new AuthorView(1, null)));
+        for(MessageView view : views){
+            assertSameBytes(view);
+        }
+        assertSameBytes(views);
+
+        assertSameBytes(new Account(9999, "testuser1", "password"));
+        assertSameBytes(new Account(null, "\u00fcser", null));
+        assertSameBytes(new Account());
+    }
+
+    /**
+     * Deserializing request bodies with missing, null, unknown, nested, coerced and version fields
+     *
+     * Expected Result:
+     *  the streaming components read the same values as the bean deserializers
+     */
+    @Test
+    public void readsSameValuesAsBeanBinding() throws IOException {
+        String[] messages = {
+            "{\"postedBy\":9999,\"messageText\":\"hello\",\"timePostedEpoch\": 1669947792}",
+            "{\"messageText\":\"edit only\"}",
+            "{}",
+            "{\"messageId\":null,\"postedBy\":null,\"messageText\":null,\"timePostedEpoch\":null}",
+            "{\"messageId\":\"12\",\"postedBy\":\"9999\",\"timePostedEpoch\":\"1669947792\",\"messageText\":\"coerced\"}",
+            "{\"messageId\":7,\"version\":4,\"extra\":{\"nested\":[1,{\"a\":2}]},\"messageText\":\"skips unknown\"}",
+            "{\"messageText\":\"first\",\"messageText\":\"last wins\",\"timePostedEpoch\":9007199254740993}",
+            "{\"postedBy\":12.0,\"messageText\":\"\\u00e9\\n\"}"
+        };
+        for(String json : messages){
+            Message expected = beanMapper.readValue(json, Message.class);
+            Message actual = streamingMapper.readValue(json, Message.class);
+            Assertions.assertEquals(expected, actual, json);
+            Assertions.assertEquals(expected.getVersion(), actual.getVersion(), json);
+        }
+        String[] accounts = {
+            "{\"username\":\"user\",\"password\":\"password\"}",
+            "{\"accountId\":5,\"username\":\"user\",\"password\":\"password\",\"role\":\"admin\"}",
+            "{\"username\":null}",
+            "{}"
+        };
+        for(String json : accounts){
+            Assertions.assertEquals(beanMapper.readValue(json, Account.class), streamingMapper.readValue(json, Account.class), json);
+        }
+    }
+
+    /**
+     * Deserializing bodies that are not objects, or hold values of the wrong type
+     *
+     * Expected Result:
+     *  the streaming components reject them as the bean deserializers do
+     */
+    @Test
+    public void rejectsWhatBeanBindingRejects() {
+        String[] invalid = {"[]", "\"text\"", "42", "{\"postedBy\":{}}", "{\"postedBy\":\"abc\"}", "{\"messageText\":[1]}",
+                "{\"timePostedEpoch\":99999999999999999999}", "{\"messageId\":3000000000}"};
+        for(String json : invalid){
+            Assertions.assertThrows(IOException.class, () -> beanMapper.readValue(json, Message.class), json);
+            Assertions.assertThrows(IOException.class, () -> streamingMapper.readValue(json, Message.class), json);
+        }
+    }
+
+    /**
+     * Listing the properties Jackson's bean binding finds on each type, honoring annotations such as @JsonIgnore
+     *
+     * Expected Result:
+     *  the streaming components write every one of them and read every settable one, so a field added to an
+     *  entity or view without updating its streaming component fails here
+     */
+    @Test
+    public void coversEveryBeanProperty() throws IOException {
+        for(Class<?> type : Arrays.asList(Message.class, Account.class, MessageView.class, AuthoredMessageView.class)){
+            JavaType javaType = beanMapper.constructType(type);
+            Set<String> written = beanMapper.getSerializationConfig().introspect(javaType).findProperties().stream()
+                    .filter(BeanPropertyDefinition::couldSerialize).map(BeanPropertyDefinition::getName).collect(Collectors.toSet());
+            Assertions.assertEquals(written, propertyNames(streamingMapper.writeValueAsString(newInstance(type))), type.getName());
+        }
+        for(Class<?> type : Arrays.asList(Message.class, Account.class)){
+            JavaType javaType = beanMapper.constructType(type);
+            for(BeanPropertyDefinition property : beanMapper.getDeserializationConfig().introspect(javaType).findProperties()){
+                if(!property.hasSetter() && !property.hasField()){
+                    continue;
+                }
+                Class<?> raw = property.getRawPrimaryType();
+                String value = raw == String.class ? "\"x\"" : "7";
+                String json = "{\"" + property.getName() + "\":" + value + "}";
+                Assertions.assertEquals(beanMapper.writeValueAsString(beanMapper.readValue(json, type)),
+                        beanMapper.writeValueAsString(streamingMapper.readValue(json, type)), json);
+            }
+        }
+    }
+
+    /**
+     * Starting the app and sending an http request to GET localhost:8080/messages/9999
+     *
+     * Expected Result:
+     *  the application's ObjectMapper uses the streaming components, and the response is what the bean
+     *  serializer writes
+     */
+    @Test
+    public void applicationUsesStreamingComponents() throws IOException, InterruptedException {
+        ConfigurableApplicationContext app = SpringApplication.run(SocialMediaApp.class, "--ratelimit.enabled=false");
+        try{
+            ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+            Assertions.assertEquals(MessageJson.Serializer.class, objectMapper.getSerializerProviderInstance().findValueSerializer(Message.class).getClass());
+            Assertions.assertEquals(MessageViewJson.Serializer.class, objectMapper.getSerializerProviderInstance().findValueSerializer(AuthoredMessageView.class).getClass());
+            Assertions.assertEquals(AccountJson.Serializer.class, objectMapper.getSerializerProviderInstance().findValueSerializer(Account.class).getClass());
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages/9999"))
+                    .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals(beanMapper.writeValueAsString(new Message(9999, 9999, "test message 1", 1669947792L)), response.body());
+        }finally{
+            SpringApplication.exit(app);
+        }
+    }
+
+    private static Object newInstance(Class<?> type){
+        if(type == MessageView.class){
+            return new MessageView(1, null, null, null);
+        }
+        if(type == AuthoredMessageView.class){
+            return new AuthoredMessageView(new MessageView(1, null, null, null), null);
+        }
+        try{
+            return type.getConstructor().newInstance();
+        }catch(ReflectiveOperationException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Set<String> propertyNames(String json) throws IOException {
+        return beanMapper.readValue(json, new TypeReference<Map<String, Object>>(){}).keySet();
+    }
+
+    private static void assertSameBytes(Object value) throws IOException {
+        Assertions.assertEquals(beanMapper.writeValueAsString(value), streamingMapper.writeValueAsString(value));
+    }
+
+    private static void assertSameBytes(TypeReference<?> type, Object value) throws IOException {
+        Assertions.assertEquals(beanMapper.writerFor(type).writeValueAsString(value), streamingMapper.writerFor(type).writeValueAsString(value));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TopPostersTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Posting 5 messages as account 9999, 3 as account 9998 and 1 as account 9997, then sending an http request
+     * to GET localhost:8080/stats/top-posters for every window
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the accounts ordered by how many messages they posted, with their counts
+     */
+    @Test
+    public void topPostersOrderedByActivity() throws IOException, InterruptedException {
+        post(9999, 5);
+        post(9998, 3);
+        post(9997, 1);
+        for(String window : new String[] {"1m", "1h", "24h"}){
+            HttpResponse<String> response = send("GET", "/stats/top-posters?window=" + window);
+            Assertions.assertEquals(200, response.statusCode());
+            List<Map<String, Long>> top = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Long>>>(){});
+            Assertions.assertEquals(3, top.size());
+            Assertions.assertEquals(Map.of("accountId", 9999L, "count", 5L), top.get(0));
+            Assertions.assertEquals(Map.of("accountId", 9998L, "count", 3L), top.get(1));
+            Assertions.assertEquals(Map.of("accountId", 9997L, "count", 1L), top.get(2));
+        }
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/stats/top-posters with a limit of 1
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: only the most active account
+     */
+    @Test
+    public void topPostersRespectsLimit() throws IOException, InterruptedException {
+        post(9998, 2);
+        post(9999, 1);
+        HttpResponse<String> response = send("GET", "/stats/top-posters?window=1h&limit=1");
+        Assertions.assertEquals(200, response.statusCode());
+        List<Map<String, Long>> top = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Long>>>(){});
+        Assertions.assertEquals(List.of(Map.of("accountId", 9998L, "count", 2L)), top);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/stats/top-posters with a window that is not tracked
+     *
+     * Expected Response:
+     *  Status Code: 400
+     */
+    @Test
+    public void topPostersUnknownWindow() throws IOException, InterruptedException {
+        Assertions.assertEquals(400, send("GET", "/stats/top-posters?window=7d").statusCode());
+    }
+
+    private void post(int postedBy, int count) throws IOException, InterruptedException {
+        for(int i = 0; i < count; i++){
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/messages"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":" + postedBy + ",\"messageText\":\"message " + i + "\",\"timePostedEpoch\": 1669947792}"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            Assertions.assertEquals(200, webClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TrendingTest {
+	ApplicationContext app;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+
+    /**
+     * Before every test, reset the database, restart the app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     * @throws InterruptedException
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        String[] args = new String[] {"--ratelimit.enabled=false"};
+        app = SpringApplication.run(SocialMediaApp.class, args);
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+    	Thread.sleep(500);
+    	SpringApplication.exit(app);
+    }
+
+    /**
+     * Posting three messages that share terms and a hashtag, then sending an http request to
+     * GET localhost:8080/trending
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: the terms ordered by how many messages used them, counting a term once per message
+     */
+    @Test
+    public void trendingTermsOrderedByUse() throws IOException, InterruptedException {
+        post("Loving the new #Java release, java java!");
+        post("Is the #java release out? Release notes please");
+        post("Spring release party at 8");
+        HttpResponse<String> response = send("/trending?limit=3");
+        Assertions.assertEquals(200, response.statusCode());
+        List<Map<String, Object>> trending = objectMapper.readValue(response.body(), new TypeReference<List<Map<String, Object>>>(){});
+        Assertions.assertEquals(3, trending.size());
+        Assertions.assertEquals(Map.of("term", "release", "score", 3.0), trending.get(0));
+        Assertions.assertEquals(Map.of("term", "#java", "score", 2.0), trending.get(1));
+        Assertions.assertEquals(Map.of("term", "java", "score", 1.0), trending.get(2));
+    }
+
+    /**
+     * Posting a message made only of stop words, numbers and short words, then sending an http request to
+     * GET localhost:8080/trending
+     *
+     * Expected Response:
+     *  Status Code: 200
+     *  Response Body: no terms
+     */
+    @Test
+    public void trendingIgnoresStopWords() throws IOException, InterruptedException {
+        post("the and is 42 of this that");
+        HttpResponse<String> response = send("/trending");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("[]", response.body());
+    }
+
+    private void post(String messageText) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"postedBy\":9999,\"messageText\":\"" + messageText + "\",\"timePostedEpoch\": 1669947792}"))
+                .header("Content-Type", "application/json")
+                .build();
+        Assertions.assertEquals(200, webClient.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpResponse<String> send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET()
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}